@@ -0,0 +1,100 @@
+package com.sample.category.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result ({@code -rf json}) with the stored baseline and exits with status 1
+ * when any benchmark got slower, or allocates more per operation, by more than the threshold.
+ * <pre>
+ * BaselineComparison &lt;baseline.json&gt; &lt;result.json&gt; [thresholdPercent]
+ * </pre>
+ * Benchmarks are matched on name, mode and parameters; entries present on only one side are listed
+ * but never fail the comparison.
+ */
+public class BaselineComparison {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineComparison <baseline.json> <result.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s %11s%n", "benchmark", "baseline", "current", "change", "alloc B/op");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s %11s%n", entry.getKey(), "-", score(after), "new", allocation(after));
+                continue;
+            }
+
+            // throughput regresses when it drops, every time-based mode when it grows
+            double change = percentChange(score(before), score(after));
+            boolean slower = "thrpt".equals(after.path("mode").asText()) ? change < -threshold : change > threshold;
+            double allocationChange = percentChange(allocationOf(before), allocationOf(after));
+            boolean allocatesMore = allocationChange > threshold && allocationOf(after) - allocationOf(before) >= 8;
+            if (slower || allocatesMore) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %11s%s%n", entry.getKey(), score(before), score(after), change,
+                    allocation(after), slower || allocatesMore ? "  REGRESSION" : "");
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("%-90s %14.3f %14s%n", missing, score(baseline.get(missing)), "-");
+            }
+        }
+
+        System.out.printf("%d regression(s) beyond %.1f%%%n", regressions, threshold);
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    private static Map<String, JsonNode> read(File file) throws Exception {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            results.put(key(result), result);
+        }
+        return results;
+    }
+
+    private static String key(JsonNode result) {
+        StringBuilder key = new StringBuilder(result.path("benchmark").asText().replace("com.sample.category.benchmark.", ""));
+        Map<String, String> params = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = result.path("params").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> param = it.next();
+            params.put(param.getKey(), param.getValue().asText());
+        }
+        params.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+        return key.append(" [").append(result.path("mode").asText()).append(']').toString();
+    }
+
+    private static double score(JsonNode result) {
+        return result.path("primaryMetric").path("score").asDouble();
+    }
+
+    private static double allocationOf(JsonNode result) {
+        return result.path("secondaryMetrics").path(ALLOCATION_METRIC).path("score").asDouble(Double.NaN);
+    }
+
+    private static String allocation(JsonNode result) {
+        double bytes = allocationOf(result);
+        return Double.isNaN(bytes) ? "-" : String.format("%.0f", bytes);
+    }
+
+    private static double percentChange(double before, double after) {
+        return before == 0 || Double.isNaN(before) || Double.isNaN(after) ? 0 : (after - before) * 100 / before;
+    }
+}
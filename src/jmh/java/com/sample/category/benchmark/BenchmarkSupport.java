@@ -0,0 +1,81 @@
+package com.sample.category.benchmark;
+
+import com.sample.category.CategoryApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Boots the application against an in-memory H2 database and seeds it with generated categories.
+ */
+final class BenchmarkSupport {
+
+    private static final String[] DATABASE_ARGS = {
+            "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--logging.level.root=WARN"
+    };
+
+    private BenchmarkSupport() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        // devtools would otherwise restart the context in a fresh class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        String[] args = Stream.concat(Stream.of(DATABASE_ARGS), Stream.of(extraArgs)).toArray(String[]::new);
+        return new SpringApplicationBuilder(CategoryApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+    }
+
+    /**
+     * Inserts {@code rows} categories with unique pseudo-random lower-case names and returns them.
+     */
+    static List<String> seed(ConfigurableApplicationContext context, int rows) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Random random = new Random(42);
+        Set<String> seen = new HashSet<>(rows * 2);
+        List<String> names = new ArrayList<>(rows);
+        while (names.size() < rows) {
+            String name = randomName(random);
+            if (seen.add(name)) {
+                names.add(name);
+            }
+        }
+
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < rows; i++) {
+            String name = names.get(i);
+            batch.add(new Object[]{(long) i + 1, name, name});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate("insert into category (id, name, normalized_name, version, updated_at) values (?, ?, ?, 0, current_timestamp)", batch);
+                batch.clear();
+            }
+        }
+        // keep the sequence ahead of the seeded ids for benchmarks that insert
+        jdbcTemplate.execute("alter sequence category_seq restart with " + (rows + 1));
+        return names;
+    }
+
+    private static String randomName(Random random) {
+        int length = 6 + random.nextInt(10);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,57 @@
+package com.sample.category.benchmark;
+
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.service.CategoryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the service's per-call log lines on a cached {@code getById}, written to a file.
+ * {@code serviceLogLevel=DEBUG} writes the two lines per call that used to be logged at INFO;
+ * {@code INFO} is the default configuration, where they are disabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CategoryLoggingBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"DEBUG", "INFO"})
+    private String serviceLogLevel;
+
+    private ConfigurableApplicationContext context;
+    private CategoryService categoryService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkSupport.start(
+                "--category.index.enabled=false",
+                "--category.cache.maximum-size=" + rows,
+                "--logging.file.name=target/jmh-logging/category.log",
+                "--logging.threshold.console=OFF",
+                "--logging.level.com.sample.category.service=" + serviceLogLevel);
+        BenchmarkSupport.seed(context, rows);
+        categoryService = context.getBean(CategoryService.class);
+        for (long id = 1; id <= rows; id++) {
+            categoryService.getById(id);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CategoryDTO getById() throws Exception {
+        return categoryService.getById(ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+}
@@ -0,0 +1,64 @@
+package com.sample.category.benchmark;
+
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.mapper.CategoryMapper;
+import com.sample.category.model.Category;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reflective ModelMapper path the service used to take against {@link CategoryMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CategoryMappingBenchmark {
+
+    @Param({"1", "1000"})
+    private int size;
+
+    private ModelMapper modelMapper;
+    private CategoryMapper categoryMapper;
+    private List<Category> categories;
+    private CategoryDTO categoryDTO;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        categoryMapper = new CategoryMapper();
+        categories = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            categories.add(Category.builder().categoryId(i).categoryName("Category " + i).build());
+        }
+        categoryDTO = CategoryDTO.builder().categoryId(1L).categoryName("Category 1").build();
+    }
+
+    @Benchmark
+    public List<CategoryDTO> modelMapperToDtoList() {
+        return categories.stream()
+                .map(category -> modelMapper.map(category, CategoryDTO.class))
+                .toList();
+    }
+
+    @Benchmark
+    public List<CategoryDTO> categoryMapperToDtoList() {
+        return categoryMapper.toDtoList(categories);
+    }
+
+    @Benchmark
+    public Category modelMapperToEntity() {
+        return modelMapper.map(categoryDTO, Category.class);
+    }
+
+    @Benchmark
+    public Category categoryMapperToEntity() {
+        return categoryMapper.toEntity(categoryDTO);
+    }
+}
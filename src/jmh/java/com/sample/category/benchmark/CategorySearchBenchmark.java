@@ -0,0 +1,68 @@
+package com.sample.category.benchmark;
+
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.index.CategoryNameIndexLoader;
+import com.sample.category.service.CategoryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead latency of {@link CategoryService#searchByPrefix}, either on the indexed normalized_name
+ * column or, with {@code indexed=true}, from the in-memory name index.
+ * The default row count is the production-sized catalog the 1 ms target is set for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CategorySearchBenchmark {
+
+    @Param({"3000000"})
+    private int rows;
+
+    @Param({"3"})
+    private int prefixLength;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    @Param({"false"})
+    private boolean fuzzy;
+
+    private ConfigurableApplicationContext context;
+    private CategoryService categoryService;
+    private String[] prefixes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("--category.index.enabled=" + indexed);
+        List<String> names = BenchmarkSupport.seed(context, rows);
+        if (indexed) {
+            // the startup load ran against an empty table
+            context.getBean(CategoryNameIndexLoader.class).load();
+        }
+        categoryService = context.getBean(CategoryService.class);
+        prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String name = names.get(ThreadLocalRandom.current().nextInt(names.size()));
+            prefixes[i] = name.substring(0, Math.min(prefixLength, name.length()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<CategoryDTO> searchByPrefix() throws Exception {
+        String prefix = prefixes[ThreadLocalRandom.current().nextInt(prefixes.length)];
+        return categoryService.searchByPrefix(prefix, 10, fuzzy);
+    }
+}
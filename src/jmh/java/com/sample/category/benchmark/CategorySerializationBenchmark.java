@@ -0,0 +1,129 @@
+package com.sample.category.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sample.category.codec.CategoryProtobufHttpMessageConverter;
+import com.sample.category.codec.SerializationTimer;
+import com.sample.category.dto.CategoryDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of the {@code GET /api/categories/} response body in each negotiable format,
+ * with the same {@link ObjectMapper} defaults Spring Boot configures for the controllers. Protobuf
+ * goes through {@link CategoryProtobufHttpMessageConverter}, so it includes the list wrapping.
+ * The body size of each format is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategorySerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    private String format;
+
+    private ObjectWriter listWriter;
+    private ObjectReader listReader;
+    private CategoryProtobufHttpMessageConverter protobufConverter;
+    private JavaType listType;
+    private List<CategoryDTO> categories;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        categories = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            categories.add(CategoryDTO.builder().categoryId(i).categoryName("Category " + i).version(0L).build());
+        }
+        if (format.equals("protobuf")) {
+            ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(new ProtobufFactory()).build();
+            protobufConverter = new CategoryProtobufHttpMessageConverter(objectMapper, new SerializationTimer(new SimpleMeterRegistry(), "protobuf"));
+            listType = objectMapper.getTypeFactory().constructCollectionType(List.class, CategoryDTO.class);
+        } else {
+            ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory(format)).build();
+            // the writer Spring's message converter ends up with for a List<CategoryDTO> return type
+            JavaType type = objectMapper.getTypeFactory().constructCollectionType(List.class, CategoryDTO.class);
+            listWriter = objectMapper.writerFor(type);
+            listReader = objectMapper.readerFor(type);
+        }
+        encoded = serializeList();
+        System.out.printf("%n%s body for %d categories: %d bytes%n", format, size, encoded.length);
+    }
+
+    private static JsonFactory factory(String format) {
+        return switch (format) {
+            case "json" -> new JsonFactory();
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> throw new IllegalArgumentException(format);
+        };
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        if (protobufConverter == null) {
+            return listWriter.writeValueAsBytes(categories);
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        protobufConverter.write(categories, listType, null, new Output(body));
+        return body.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserializeList() throws Exception {
+        if (protobufConverter == null) {
+            return listReader.readValue(encoded);
+        }
+        return protobufConverter.read(listType, null, new Input(encoded));
+    }
+
+    private record Output(OutputStream body) implements HttpOutputMessage {
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return new HttpHeaders();
+        }
+    }
+
+    private record Input(byte[] body) implements HttpInputMessage {
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return new HttpHeaders();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.sample.category.benchmark;
+
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.exception.CategoryNotFoundException;
+import com.sample.category.exception.GlobalExceptionalHandler;
+import com.sample.category.response.ErrorResponse;
+import com.sample.category.service.CategoryService;
+import com.sample.category.snapshot.CategorySnapshotLoader;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CategoryService} read paths against a seeded in-memory H2 database. {@code source} picks what
+ * answers the reads: {@code database} sizes the id cache to zero so every {@code getById} reaches the
+ * repository, {@code cache} pre-fills the id cache, and {@code snapshot} loads the in-memory snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CategoryServiceBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"database", "cache", "snapshot"})
+    private String source;
+
+    private ConfigurableApplicationContext context;
+    private CategoryService categoryService;
+    private GlobalExceptionalHandler exceptionHandler;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkSupport.start(
+                "--category.index.enabled=false",
+                "--category.snapshot.enabled=" + source.equals("snapshot"),
+                "--category.cache.maximum-size=" + (source.equals("cache") ? rows : 0));
+        BenchmarkSupport.seed(context, rows);
+        categoryService = context.getBean(CategoryService.class);
+        exceptionHandler = context.getBean(GlobalExceptionalHandler.class);
+        if (source.equals("snapshot")) {
+            // the startup load ran against an empty table
+            context.getBean(CategorySnapshotLoader.class).load();
+        }
+        if (source.equals("cache")) {
+            // measure hits only, not the warm-up of a cold cache
+            for (long id = 1; id <= rows; id++) {
+                categoryService.getById(id);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CategoryDTO getById() throws Exception {
+        return categoryService.getById(ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+
+    @Benchmark
+    public List<CategoryDTO> getAll() throws Exception {
+        return categoryService.getAll();
+    }
+
+    /**
+     * Missing id through to the {@link ErrorResponse} JSON body the controller advice returns.
+     */
+    @Benchmark
+    public byte[] getByIdNotFound() throws Exception {
+        try {
+            categoryService.getById(rows + 1 + ThreadLocalRandom.current().nextLong(rows));
+            throw new IllegalStateException("id above the seeded range was found");
+        } catch (CategoryNotFoundException e) {
+            return exceptionHandler.CategoryNotFoundExceptionHandler(e).getBody().toJson();
+        }
+    }
+}
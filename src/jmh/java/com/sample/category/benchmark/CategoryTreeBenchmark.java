@@ -0,0 +1,105 @@
+package com.sample.category.benchmark;
+
+import com.sample.category.dto.CategoryNodeDTO;
+import com.sample.category.service.CategoryTreeService;
+import com.sample.category.tree.CategoryTreeLoader;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link CategoryTreeService#getSubtree} and {@link CategoryTreeService#getAncestors} on a
+ * ternary hierarchy, either on the (path, depth) index or, with {@code inMemory=true}, from the in-memory
+ * tree. The default 500,000 rows make it 12 levels below the root, and ancestors are taken for categories
+ * at the bottom. Subtrees are taken from random categories at {@code rootDepth}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CategoryTreeBenchmark {
+
+    private static final int FAN_OUT = 3;
+
+    @Param({"500000"})
+    private int rows;
+
+    @Param({"6"})
+    private int rootDepth;
+
+    @Param({"3"})
+    private int levels;
+
+    @Param({"false", "true"})
+    private boolean inMemory;
+
+    private ConfigurableApplicationContext context;
+    private CategoryTreeService categoryTreeService;
+    private long[] roots;
+    private long[] leaves;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("--category.tree.enabled=" + inMemory);
+        BenchmarkSupport.seed(context, rows);
+        int[] depths = link(context.getBean(JdbcTemplate.class));
+        if (inMemory) {
+            // the startup load ran against an empty table
+            context.getBean(CategoryTreeLoader.class).load();
+        }
+        categoryTreeService = context.getBean(CategoryTreeService.class);
+
+        List<Long> atRootDepth = new ArrayList<>();
+        for (int id = 1; id <= rows; id++) {
+            if (depths[id] == rootDepth) {
+                atRootDepth.add((long) id);
+            }
+        }
+        roots = atRootDepth.stream().mapToLong(Long::longValue).toArray();
+        leaves = new long[1024];
+        for (int i = 0; i < leaves.length; i++) {
+            leaves[i] = rows - ThreadLocalRandom.current().nextInt(Math.min(rows, 1000));
+        }
+    }
+
+    // id 1 is the root and the parent of id n is (n - 2) / FAN_OUT + 1, like a heap
+    private int[] link(JdbcTemplate jdbcTemplate) {
+        int[] depths = new int[rows + 1];
+        String[] paths = new String[rows + 1];
+        paths[1] = "/";
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int id = 2; id <= rows; id++) {
+            int parent = (id - 2) / FAN_OUT + 1;
+            depths[id] = depths[parent] + 1;
+            paths[id] = paths[parent] + parent + "/";
+            batch.add(new Object[]{(long) parent, paths[id], depths[id], (long) id});
+            if (batch.size() == 10_000 || id == rows) {
+                jdbcTemplate.batchUpdate("update category set parent_id = ?, path = ?, depth = ? where id = ?", batch);
+                batch.clear();
+            }
+        }
+        return depths;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<CategoryNodeDTO> subtree() throws Exception {
+        return categoryTreeService.getSubtree(roots[ThreadLocalRandom.current().nextInt(roots.length)], levels);
+    }
+
+    @Benchmark
+    public List<CategoryNodeDTO> ancestors() throws Exception {
+        return categoryTreeService.getAncestors(leaves[ThreadLocalRandom.current().nextInt(leaves.length)]);
+    }
+}
@@ -0,0 +1,52 @@
+package com.sample.category.benchmark;
+
+import com.sample.category.exception.CategoryNotFoundException;
+import com.sample.category.exception.GlobalExceptionalHandler;
+import com.sample.category.response.ErrorResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the 404 path without the database: creating the exception, then the response and
+ * its JSON body ({@link ErrorResponse#toJson}), as the controller advice and the JSON error converter produce them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    private GlobalExceptionalHandler exceptionHandler;
+
+    @Setup
+    public void setUp() {
+        exceptionHandler = new GlobalExceptionalHandler(new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public CategoryNotFoundException notFoundException() {
+        return notFound();
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> notFoundResponse() {
+        return exceptionHandler.CategoryNotFoundExceptionHandler(notFound());
+    }
+
+    @Benchmark
+    public byte[] notFoundResponseBody() {
+        return exceptionHandler.CategoryNotFoundExceptionHandler(notFound()).getBody().toJson();
+    }
+
+    private static CategoryNotFoundException notFound() {
+        long id = ThreadLocalRandom.current().nextLong(1, 1_000_000);
+        return new CategoryNotFoundException("category with id " + id + " not found", HttpStatus.NOT_FOUND);
+    }
+}
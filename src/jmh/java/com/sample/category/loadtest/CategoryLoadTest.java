@@ -0,0 +1,116 @@
+package com.sample.category.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load against a running instance: {@code concurrency} clients each keep exactly one
+ * request in flight on their own connection for the whole run. Used to compare the default
+ * platform-thread Tomcat with the {@code virtual-threads} profile.
+ * <pre>
+ * CategoryLoadTest &lt;baseUrl&gt; &lt;concurrency[,concurrency...]&gt; &lt;seconds&gt; [path]
+ * </pre>
+ */
+public class CategoryLoadTest {
+
+    // 0.1 ms buckets up to 10 s; slower responses land in the last bucket
+    private static final int BUCKETS = 100_000;
+    private static final long BUCKET_NANOS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: CategoryLoadTest <baseUrl> <concurrency[,concurrency...]> <seconds> [path]");
+            System.exit(2);
+        }
+        URI uri = URI.create(args[0] + (args.length > 3 ? args[3] : "/api/categories/1"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[2]));
+
+        System.out.printf("%-12s %12s %10s %10s %10s %10s%n", "concurrency", "requests/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (String level : args[1].split(",")) {
+            int concurrency = Integer.parseInt(level.trim());
+            Result result = run(uri, concurrency, duration);
+            System.out.printf("%-12d %12.0f %10.1f %10.1f %10.1f %10d%n", concurrency,
+                    result.requests / (double) duration.toSeconds(),
+                    result.percentile(0.50), result.percentile(0.99), result.max / 1e6, result.errors);
+        }
+    }
+
+    private static Result run(URI uri, int concurrency, Duration duration) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+
+        Result result = new Result();
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            send(client, request, deadline, result, done);
+        }
+        done.await();
+        executor.shutdownNow();
+        result.finish();
+        return result;
+    }
+
+    private static void send(HttpClient client, HttpRequest request, long deadline, Result result, CountDownLatch done) {
+        long start = System.nanoTime();
+        if (start >= deadline) {
+            done.countDown();
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            result.record(System.nanoTime() - start, failure == null && response.statusCode() < 500);
+            send(client, request, deadline, result, done);
+        });
+    }
+
+    private static final class Result {
+
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        final LongAdder errorCount = new LongAdder();
+        volatile long max;
+        long requests;
+        long errors;
+
+        void record(long nanos, boolean ok) {
+            histogram.incrementAndGet((int) Math.min(nanos / BUCKET_NANOS, BUCKETS - 1));
+            if (!ok) {
+                errorCount.increment();
+            }
+            if (nanos > max) {
+                max = nanos;
+            }
+        }
+
+        void finish() {
+            for (int i = 0; i < BUCKETS; i++) {
+                requests += histogram.get(i);
+            }
+            errors = errorCount.sum();
+        }
+
+        double percentile(double p) {
+            long rank = (long) Math.ceil(requests * p);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (seen >= rank) {
+                    return (i + 1) * BUCKET_NANOS / 1e6;
+                }
+            }
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.sample.category.batch;
+
+import com.sample.category.config.CategoryBatchingProperties;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.mapper.CategoryMapper;
+import com.sample.category.model.Category;
+import com.sample.category.repository.CategoryRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Merges concurrent lookups of different ids into one {@code findAllById} query. The first caller
+ * opens a batch and waits up to {@code category.batching.window} for others to join. Then it runs
+ * one {@code WHERE id IN (...)} query on its own thread and hands each waiting caller its row, or
+ * {@code null}. A batch that reaches {@code category.batching.max-size} is sent at once. Callers
+ * that arrive after that open the next batch. No background thread is involved.
+ * <p>
+ * Enabled with {@code category.batching.enabled=true}. It trades up to one window of latency per
+ * miss for fewer round trips, so it only pays off when misses for different ids overlap.
+ */
+@Component
+public class CategoryIdBatcher {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxSize;
+    private final DistributionSummary batchSize;
+    private final Timer delay;
+
+    // guards the open batch; a leader waits on sealed for it to close
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition sealed = lock.newCondition();
+    private Batch open;
+
+    public CategoryIdBatcher(CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+                             CategoryBatchingProperties properties, MeterRegistry meterRegistry) {
+        this.categoryRepository = categoryRepository;
+        this.categoryMapper = categoryMapper;
+        this.enabled = properties.isEnabled();
+        this.windowNanos = properties.getWindow().toNanos();
+        this.maxSize = Math.max(1, properties.getMaxSize());
+        this.batchSize = DistributionSummary.builder("category.batch.size")
+                .description("Distinct ids per batched getById query")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.delay = Timer.builder("category.batch.delay")
+                .description("Time a getById spent waiting for its batch to be sent, before the query")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the category with {@code id}, or {@code null} when it does not exist
+     */
+    public CategoryDTO load(Long id) {
+        long arrived = System.nanoTime();
+        Batch batch;
+        CompletableFuture<CategoryDTO> result;
+        boolean leader;
+
+        lock.lock();
+        try {
+            leader = open == null;
+            if (leader) {
+                open = new Batch();
+            }
+            batch = open;
+            result = batch.waiters.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (batch.waiters.size() >= maxSize) {
+                seal(batch);
+            }
+            if (leader) {
+                awaitSealed(batch);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (leader) {
+            send(batch);
+        }
+        CategoryDTO category = await(result);
+        delay.record(batch.sentAt - arrived, TimeUnit.NANOSECONDS);
+        return category;
+    }
+
+    private void awaitSealed(Batch batch) {
+        long remaining = windowNanos;
+        try {
+            while (open == batch && remaining > 0) {
+                remaining = sealed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            // the others are waiting on this batch, so it still goes out; only the wait is cut short
+            Thread.currentThread().interrupt();
+        }
+        seal(batch);
+    }
+
+    private void seal(Batch batch) {
+        if (open == batch) {
+            open = null;
+            sealed.signalAll();
+        }
+    }
+
+    private void send(Batch batch) {
+        batch.sentAt = System.nanoTime();
+        batchSize.record(batch.waiters.size());
+        try {
+            for (Category category : categoryRepository.findAllById(new ArrayList<>(batch.waiters.keySet()))) {
+                CompletableFuture<CategoryDTO> waiter = batch.waiters.get(category.getCategoryId());
+                if (waiter != null) {
+                    waiter.complete(categoryMapper.toDto(category));
+                }
+            }
+            batch.waiters.values().forEach(waiter -> waiter.complete(null));
+        } catch (RuntimeException | Error e) {
+            batch.waiters.values().forEach(waiter -> waiter.completeExceptionally(e));
+        }
+    }
+
+    private static CategoryDTO await(CompletableFuture<CategoryDTO> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            // rethrow what the repository threw, so callers handle it exactly as a findById failure
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Batch {
+
+        // only written under the lock until the batch is sealed, only read after
+        private final Map<Long, CompletableFuture<CategoryDTO>> waiters = new HashMap<>();
+        // read by the waiters after their future completed, which orders it after the write
+        private long sentAt;
+    }
+}
@@ -0,0 +1,168 @@
+package com.sample.category.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sample.category.config.CategoryCacheProperties;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.util.NameNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache in front of {@code CategoryRepository}, keyed by id and by normalized name.
+ * <p>
+ * Loads run outside of any cache lock. A load only publishes its result if no invalidation
+ * happened while it was in flight, so a reader that raced a committed write can never put the
+ * pre-write value back into the cache.
+ * <p>
+ * Misses are remembered too, for a shorter TTL, so repeated lookups of ids or names that do not exist
+ * stop reaching the database. Creating or renaming a category clears its id and name from the miss
+ * caches through the same change events.
+ */
+@Component
+public class CategoryCache {
+
+    private final Cache<Long, CategoryDTO> byId;
+    private final Cache<String, Long> byName;
+    private final Cache<Long, Boolean> missingIds;
+    private final Cache<String, Boolean> missingNames;
+    private final AtomicLong generation = new AtomicLong();
+
+    public CategoryCache(CategoryCacheProperties properties, MeterRegistry meterRegistry) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.byName = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.missingIds = Caffeine.newBuilder()
+                .maximumSize(properties.getNegativeMaximumSize())
+                .expireAfterWrite(properties.getNegativeTtl())
+                .recordStats()
+                .build();
+        this.missingNames = Caffeine.newBuilder()
+                .maximumSize(properties.getNegativeMaximumSize())
+                .expireAfterWrite(properties.getNegativeTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "categoriesById");
+        CaffeineCacheMetrics.monitor(meterRegistry, byName, "categoriesByName");
+        CaffeineCacheMetrics.monitor(meterRegistry, missingIds, "missingCategoriesById");
+        CaffeineCacheMetrics.monitor(meterRegistry, missingNames, "missingCategoriesByName");
+    }
+
+    /**
+     * @return a private copy of the cached or loaded category, or {@code null} when the loader finds nothing
+     */
+    public CategoryDTO getById(Long id, Function<Long, CategoryDTO> loader) {
+        CategoryDTO cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+        if (missingIds.getIfPresent(id) != null) {
+            return null;
+        }
+
+        long observed = generation.get();
+        CategoryDTO loaded = loader.apply(id);
+        if (loaded == null) {
+            publishMiss(observed, missingIds, id);
+            return null;
+        }
+        publish(observed, copyOf(loaded));
+        // callers whose loads were coalesced hold the same instance, so each gets a copy of its own
+        return copyOf(loaded);
+    }
+
+    /**
+     * Like {@link #getById}, a private copy. The name entry only points at an id; the id entry stays authoritative, so a name that was
+     * renamed away is detected here and reloaded instead of being served stale.
+     */
+    public CategoryDTO getByName(String name, Function<String, CategoryDTO> loader) {
+        String key = NameNormalizer.normalize(name);
+        Long id = byName.getIfPresent(key);
+        if (id != null) {
+            CategoryDTO cached = byId.getIfPresent(id);
+            if (cached != null && key.equals(NameNormalizer.normalize(cached.getCategoryName()))) {
+                return copyOf(cached);
+            }
+            byName.invalidate(key);
+        }
+        if (missingNames.getIfPresent(key) != null) {
+            return null;
+        }
+
+        long observed = generation.get();
+        CategoryDTO loaded = loader.apply(name);
+        if (loaded == null) {
+            publishMiss(observed, missingNames, key);
+            return null;
+        }
+        publish(observed, copyOf(loaded));
+        // callers whose loads were coalesced hold the same instance, so each gets a copy of its own
+        return copyOf(loaded);
+    }
+
+    public void evict(Long id, String name) {
+        generation.incrementAndGet();
+        byId.invalidate(id);
+        missingIds.invalidate(id);
+        if (name != null) {
+            String key = NameNormalizer.normalize(name);
+            byName.invalidate(key);
+            missingNames.invalidate(key);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        evict(event.getCategoryId(), event.getCategoryName());
+    }
+
+    private void publish(long observed, CategoryDTO category) {
+        if (generation.get() != observed) {
+            return;
+        }
+        String key = NameNormalizer.normalize(category.getCategoryName());
+        byId.put(category.getCategoryId(), category);
+        if (key != null) {
+            byName.put(key, category.getCategoryId());
+        }
+        // an eviction that slipped in between the check and the puts must still win
+        if (generation.get() != observed) {
+            byId.invalidate(category.getCategoryId());
+            if (key != null) {
+                byName.invalidate(key);
+            }
+        }
+    }
+
+    private <K> void publishMiss(long observed, Cache<K, Boolean> misses, K key) {
+        if (generation.get() != observed) {
+            return;
+        }
+        misses.put(key, Boolean.TRUE);
+        // same race as in publish(): a create that committed meanwhile must not stay hidden
+        if (generation.get() != observed) {
+            misses.invalidate(key);
+        }
+    }
+
+    private static CategoryDTO copyOf(CategoryDTO category) {
+        return CategoryDTO.builder()
+                .categoryId(category.getCategoryId())
+                .categoryName(category.getCategoryName())
+                .version(category.getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.sample.category.cache;
+
+import com.sample.category.changefeed.CategoryChangeLog;
+import com.sample.category.config.CategoryCacheProperties;
+import com.sample.category.dto.CategoryChangeDTO;
+import com.sample.category.dto.CategoryChangesDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts {@link CategoryCache} entries for writes committed on other instances. Local writes are
+ * evicted by their change events at commit; writes elsewhere only reach this instance through the
+ * change feed, which is read every {@code category.cache.poll-interval}. Local writes show up here
+ * too and are evicted a second time, which costs a reload at most.
+ */
+@Component
+public class CategoryCacheFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryCacheFeed.class);
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final CategoryChangeLog categoryChangeLog;
+    private final CategoryCache categoryCache;
+    private final CategoryCacheProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService polls = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "category-cache-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // feed position; only the poll thread (or a test calling poll) moves it
+    private volatile long since = -1;
+
+    public CategoryCacheFeed(CategoryChangeLog categoryChangeLog, CategoryCache categoryCache,
+                             CategoryCacheProperties properties, PlatformTransactionManager transactionManager) {
+        this.categoryChangeLog = categoryChangeLog;
+        this.categoryCache = categoryCache;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long period = properties.getPollInterval().toMillis();
+        polls.scheduleWithFixedDelay(this::pollSafely, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    // a poll still running would otherwise query the database while the context closes it
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        polls.shutdownNow();
+        if (!polls.awaitTermination(5, TimeUnit.SECONDS)) {
+            logger.warn("Cache feed did not stop within 5s");
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (Exception e) {
+            // the next poll starts from the same position; until then entries live at most category.cache.ttl
+            logger.warn("Could not read the change feed into the cache: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Evicts every category the feed lists after the last poll. The first call only takes the head,
+     * at ready, before load balancers route requests that could fill the cache.
+     */
+    public void poll() {
+        if (since < 0) {
+            since = transactionTemplate.execute(status -> categoryChangeLog.changesSince(null, 1).getNextSince());
+            return;
+        }
+        boolean more = true;
+        while (more) {
+            CategoryChangesDTO page = transactionTemplate.execute(status -> categoryChangeLog.changesSince(since, PAGE_SIZE));
+            for (CategoryChangeDTO change : page.getChanges()) {
+                categoryCache.evict(change.getCategoryId(), change.getCategoryName());
+            }
+            since = page.getNextSince();
+            more = page.isHasMore();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.sample.category.cache;
+
+import com.sample.category.dto.CategoryListVersion;
+
+/**
+ * The {@code GET /api/categories/} JSON body of one list version, ready to send: as is and
+ * gzip-compressed.
+ */
+public record CategoryListBody(CategoryListVersion version, byte[] identity, byte[] gzip) {
+}
@@ -0,0 +1,140 @@
+package com.sample.category.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryListVersion;
+import com.sample.category.event.CategoryChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds the full-list response of the newest {@link CategoryListVersion} built so far as bytes, so
+ * repeated {@code GET /api/categories/} calls between writes are answered without loading, mapping
+ * or serializing anything. Only one version is kept: the list is the largest body this service sends.
+ * <p>
+ * Versions are ordered by their change-feed sequence. With read replicas at different positions,
+ * consecutive requests can read versions that go back and forth. A request that read an older
+ * version than the one held is answered with the held one, so replicas do not evict each other's
+ * body, and a client never gets a list older than one already sent. The sequence of the newest
+ * body ever built is kept as {@link #newestSeq()} even after the body is dropped. Committed writes on
+ * this instance drop the body right away, so its memory does not wait for the next request.
+ */
+@Component
+public class CategoryListBodyCache {
+
+    private final ObjectWriter listWriter;
+    private final Counter builds;
+    private volatile CategoryListBody current;
+    private volatile long newestSeq = -1;
+    // orders concurrent puts, so an older build cannot replace a newer body
+    private final ReentrantLock putLock = new ReentrantLock();
+
+    public CategoryListBodyCache(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        // the writer the JSON message converter would use for a List<CategoryDTO> body, so the bytes match
+        this.listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, CategoryDTO.class));
+        this.builds = Counter.builder("category.list.body.builds")
+                .description("Full-list response bodies serialized and compressed")
+                .register(meterRegistry);
+        Gauge.builder("category.list.body.bytes", this, cache -> cache.size(false))
+                .description("Size of the cached full-list response body")
+                .tag("encoding", "identity")
+                .register(meterRegistry);
+        Gauge.builder("category.list.body.bytes", this, cache -> cache.size(true))
+                .description("Size of the cached full-list response body")
+                .tag("encoding", "gzip")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the body built for {@code version} or a newer one, or {@code null} when there is none
+     */
+    public CategoryListBody get(CategoryListVersion version) {
+        CategoryListBody body = current;
+        return body != null && isAtLeast(body.version(), version) ? body : null;
+    }
+
+    /**
+     * @return the change-feed sequence of the newest body built, or -1 before the first one
+     */
+    public long newestSeq() {
+        return newestSeq;
+    }
+
+    /**
+     * Serializes and compresses {@code categories}, the list as of {@code version}, and keeps the
+     * result unless a newer body was kept meanwhile.
+     *
+     * @return the body for {@code version}, or the newer body that is kept instead
+     */
+    public CategoryListBody put(CategoryListVersion version, List<CategoryDTO> categories) {
+        CategoryListBody newer = get(version);
+        if (newer != null) {
+            return newer;
+        }
+        byte[] identity;
+        try {
+            identity = listWriter.writeValueAsBytes(categories);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CategoryListBody body = new CategoryListBody(version, identity, gzip(identity));
+        builds.increment();
+        putLock.lock();
+        try {
+            // a slower build of an older version must not replace a newer body
+            CategoryListBody kept = current;
+            if (kept != null && kept.version().seq() > version.seq()) {
+                return kept;
+            }
+            current = body;
+            newestSeq = Math.max(newestSeq, version.seq());
+        } finally {
+            putLock.unlock();
+        }
+        return body;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        current = null;
+    }
+
+    private static boolean isAtLeast(CategoryListVersion held, CategoryListVersion version) {
+        return held.seq() > version.seq() || held.equals(version);
+    }
+
+    private double size(boolean gzip) {
+        CategoryListBody body = current;
+        if (body == null) {
+            return 0;
+        }
+        return gzip ? body.gzip().length : body.identity().length;
+    }
+
+    private static byte[] gzip(byte[] identity) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(identity.length / 4 + 64);
+        // compressed once per version and sent many times, so the slowest level pays off
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed, 64 * 1024) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,156 @@
+package com.sample.category.changefeed;
+
+import com.sample.category.event.CategoryChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-process fan-out of committed category changes to push subscribers (SSE). Publishing never
+ * blocks and never does I/O: each subscriber has a small buffer keyed by category id, so a burst of
+ * changes to one category collapses into the latest one. A subscriber that falls more than
+ * {@code bufferSize} categories behind loses its buffer and gets a single resync signal instead;
+ * it should reload through the change feed. Writing to the connection is up to the subscriber,
+ * which is told when its buffer goes from empty to non-empty.
+ */
+public class CategoryChangeBroadcaster {
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final int bufferSize;
+    private final Counter coalescedCounter;
+    private final Counter overflowCounter;
+
+    public CategoryChangeBroadcaster(int bufferSize, MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        Gauge.builder("category.events.subscribers", subscriptions, Set::size)
+                .description("Open category event streams")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("category.events.coalesced")
+                .description("Changes replaced by a newer change to the same category before delivery")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("category.events.overflow")
+                .description("Subscriber buffers dropped in favour of a resync signal")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param onPending called, on the publishing thread, when the subscription has something to
+     *                  deliver and had nothing before; it must hand off rather than write inline
+     *                  when the write can block
+     */
+    public Subscription subscribe(Consumer<Subscription> onPending) {
+        Subscription subscription = new Subscription(onPending);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    public void forEachSubscription(Consumer<Subscription> action) {
+        subscriptions.forEach(action);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    public final class Subscription {
+
+        private final Consumer<Subscription> onPending;
+        // guards pending and overflowed; offer runs on publishing threads, poll on the sender
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Long, CategoryChangedEvent> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+
+        private Subscription(Consumer<Subscription> onPending) {
+            this.onPending = onPending;
+        }
+
+        void offer(CategoryChangedEvent event) {
+            boolean wasIdle;
+            lock.lock();
+            try {
+                if (overflowed) {
+                    return;
+                }
+                wasIdle = pending.isEmpty();
+                // remove first so the category moves to the back: delivery order follows the latest change
+                if (pending.remove(event.getCategoryId()) != null) {
+                    coalescedCounter.increment();
+                }
+                pending.put(event.getCategoryId(), event);
+                if (pending.size() > bufferSize) {
+                    pending.clear();
+                    overflowed = true;
+                    overflowCounter.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (wasIdle) {
+                onPending.accept(this);
+            }
+        }
+
+        /**
+         * True once after the buffer overflowed; the subscriber should send a resync signal.
+         * Buffering resumes from that point.
+         */
+        public boolean takeOverflow() {
+            lock.lock();
+            try {
+                boolean result = overflowed;
+                overflowed = false;
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Removes up to {@code max} pending changes, oldest first.
+         */
+        public List<CategoryChangedEvent> poll(int max) {
+            lock.lock();
+            try {
+                List<CategoryChangedEvent> events = new ArrayList<>(Math.min(max, pending.size()));
+                Iterator<CategoryChangedEvent> iterator = pending.values().iterator();
+                while (iterator.hasNext() && events.size() < max) {
+                    events.add(iterator.next());
+                    iterator.remove();
+                }
+                return events;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean hasPending() {
+            lock.lock();
+            try {
+                return overflowed || !pending.isEmpty();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void cancel() {
+            subscriptions.remove(this);
+        }
+    }
+}
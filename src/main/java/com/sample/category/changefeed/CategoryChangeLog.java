@@ -0,0 +1,96 @@
+package com.sample.category.changefeed;
+
+import com.sample.category.dto.CategoryChangeDTO;
+import com.sample.category.dto.CategoryChangesDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.model.CategoryChange;
+import com.sample.category.repository.CategoryChangeRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox-style log of category mutations backing {@code GET /api/categories/changes}. Appends join
+ * the caller's transaction, so a change is visible exactly when the mutation commits and disappears
+ * with it on rollback. Sequence numbers are taken from {@code category_change_seq} as one block per
+ * call; the counter's row lock is then held until commit, which keeps {@code seq} in commit order.
+ */
+@Component
+public class CategoryChangeLog {
+
+    static final String MISSING_SEQUENCE = "category_change_seq has no row; apply db/mysql/005-category-change-log.sql";
+
+    private final CategoryChangeRepository changeRepository;
+
+    public CategoryChangeLog(CategoryChangeRepository changeRepository) {
+        this.changeRepository = changeRepository;
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void append(CategoryChangedEvent.Type type, Long categoryId, String categoryName) {
+        long seq = nextSeqBlock(1);
+        changeRepository.save(change(seq, type, categoryId, categoryName, Instant.now()));
+    }
+
+    /**
+     * Appends one change per event with consecutive sequence numbers, as a single JDBC batch.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void appendAll(List<CategoryChangedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        long seq = nextSeqBlock(events.size());
+        Instant now = Instant.now();
+        List<CategoryChange> changes = new ArrayList<>(events.size());
+        for (CategoryChangedEvent event : events) {
+            changes.add(change(seq++, event.getType(), event.getCategoryId(), event.getCategoryName(), now));
+        }
+        changeRepository.saveAll(changes);
+    }
+
+    /**
+     * Changes after {@code since} in sequence order. Without a cursor only the current head is
+     * returned, which a new consumer takes before loading the full list.
+     */
+    public CategoryChangesDTO changesSince(Long since, int limit) {
+        if (since == null) {
+            return CategoryChangesDTO.builder()
+                    .changes(List.of())
+                    .nextSince(changeRepository.findLastSeq())
+                    .build();
+        }
+        // one extra row tells us whether another page follows without a count query
+        List<CategoryChangeDTO> changes = changeRepository.findChangesAfter(since, Limit.of(limit + 1));
+        boolean hasMore = changes.size() > limit;
+        List<CategoryChangeDTO> page = hasMore ? changes.subList(0, limit) : changes;
+        return CategoryChangesDTO.builder()
+                .changes(page)
+                .nextSince(page.isEmpty() ? since : page.get(page.size() - 1).getSeq())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // first sequence number of a block of count
+    private long nextSeqBlock(int count) {
+        if (changeRepository.advanceSequence(count) == 0) {
+            // inserting it here would race: two first writers would both insert, or reuse numbers
+            throw new IllegalStateException(MISSING_SEQUENCE);
+        }
+        return changeRepository.currentSequence() - count + 1;
+    }
+
+    private static CategoryChange change(long seq, CategoryChangedEvent.Type type, Long categoryId, String categoryName, Instant changedAt) {
+        return CategoryChange.builder()
+                .seq(seq)
+                .categoryId(categoryId)
+                .type(type)
+                .categoryName(type == CategoryChangedEvent.Type.DELETED ? null : categoryName)
+                .changedAt(changedAt)
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.sample.category.changefeed;
+
+import com.sample.category.dto.CategoryChangeDTO;
+import com.sample.category.dto.CategoryChangesDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.service.CategoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-poll support for the change feed. A parked request holds no thread: it is a
+ * {@link DeferredResult} in a set. Commits on this instance wake the set; waiters parked on the same
+ * cursor share one query, run off the committing thread. Changes committed by other instances are
+ * picked up when the wait times out, which always answers with a fresh read.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CategoryChangeWaiters {
+
+    public static final int MAX_WAIT_SECONDS = 30;
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryChangeWaiters.class);
+
+    private final CategoryService categoryService;
+    private final AsyncTaskExecutor executor;
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    // bumped on every local commit; lets a new waiter notice a commit that raced its first read
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    public CategoryChangeWaiters(CategoryService categoryService,
+                                 @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor) {
+        this.categoryService = categoryService;
+        this.executor = executor;
+    }
+
+    public long commitCount() {
+        return commits.get();
+    }
+
+    /**
+     * Parks a request that found no changes after {@code since}. {@code seenCommits} is the
+     * {@link #commitCount()} read before that empty query.
+     */
+    public void await(long since, int limit, long seenCommits, DeferredResult<CategoryChangesDTO> result) {
+        Waiter waiter = new Waiter(since, limit, result);
+        result.onTimeout(() -> {
+            if (waiters.remove(waiter)) {
+                complete(waiter);
+            }
+        });
+        result.onCompletion(() -> waiters.remove(waiter));
+        result.onError(e -> waiters.remove(waiter));
+        waiters.add(waiter);
+        if (commits.get() != seenCommits) {
+            scheduleDrain();
+        }
+    }
+
+    public int size() {
+        return waiters.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        commits.incrementAndGet();
+        if (!waiters.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void scheduleDrain() {
+        // a batch commit publishes one event per row; they collapse into a single drain
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        Map<Long, List<Waiter>> byCursor = new HashMap<>();
+        for (Waiter waiter : waiters) {
+            byCursor.computeIfAbsent(waiter.since, since -> new ArrayList<>()).add(waiter);
+        }
+        byCursor.forEach((since, group) -> {
+            int limit = group.stream().mapToInt(Waiter::limit).max().orElse(1);
+            CategoryChangesDTO changes;
+            try {
+                changes = categoryService.getChanges(since, limit);
+            } catch (Exception e) {
+                // waiters stay parked; the timeout read reports the error if it persists
+                logger.warn("Could not read category changes after {} for {} waiters: {}", since, group.size(), e.getMessage());
+                return;
+            }
+            if (changes.getChanges().isEmpty()) {
+                return;
+            }
+            for (Waiter waiter : group) {
+                if (waiters.remove(waiter)) {
+                    waiter.result.setResult(trim(changes, waiter.limit));
+                }
+            }
+        });
+    }
+
+    private void complete(Waiter waiter) {
+        try {
+            waiter.result.setResult(categoryService.getChanges(waiter.since, waiter.limit));
+        } catch (Exception e) {
+            waiter.result.setErrorResult(e);
+        }
+    }
+
+    private static CategoryChangesDTO trim(CategoryChangesDTO changes, int limit) {
+        if (changes.getChanges().size() <= limit) {
+            return changes;
+        }
+        List<CategoryChangeDTO> page = changes.getChanges().subList(0, limit);
+        return CategoryChangesDTO.builder()
+                .changes(page)
+                .nextSince(page.get(page.size() - 1).getSeq())
+                .hasMore(true)
+                .build();
+    }
+
+    private record Waiter(long since, int limit, DeferredResult<CategoryChangesDTO> result) {
+    }
+}
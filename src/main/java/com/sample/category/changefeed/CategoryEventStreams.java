@@ -0,0 +1,199 @@
+package com.sample.category.changefeed;
+
+import com.sample.category.config.CategoryEventsProperties;
+import com.sample.category.event.CategoryChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servlet side of {@code GET /api/categories/stream}. An open stream is an {@link SseEmitter} on an
+ * async request, so idle subscribers hold no thread. Writes are blocking on the servlet stack, so a
+ * subscriber with something to send gets one task on a pool of its own, which drains its buffer and
+ * returns; a slow client ties up that task, never the writer that published the change.
+ * <p>
+ * The pool has {@code category.events.send-threads} threads and a bounded queue, and is kept apart
+ * from the application executor the long-poll waiters run on, so stalled subscribers cannot starve
+ * them. A send that takes longer than {@code category.events.send-timeout} ends its stream and
+ * interrupts the sending thread; a stream whose drain finds the queue full is ended too. Either way
+ * the client reconnects and resyncs.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CategoryEventStreams {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryEventStreams.class);
+
+    private static final int DRAIN_BATCH = 64;
+    // queued drains and heartbeats per send thread; each stream has at most one drain queued
+    private static final int QUEUE_PER_THREAD = 256;
+
+    private final CategoryChangeBroadcaster broadcaster;
+    private final ExecutorService executor;
+    private final long sendTimeoutNanos;
+    private final Set<Stream> streams = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "category-sse-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CategoryEventStreams(CategoryChangeBroadcaster broadcaster, CategoryEventsProperties properties) {
+        this.broadcaster = broadcaster;
+        this.executor = sendPool(properties.getSendThreads());
+        this.sendTimeoutNanos = properties.getSendTimeout().toNanos();
+        long period = properties.getHeartbeat().toMillis();
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, period, period, TimeUnit.MILLISECONDS);
+        long check = Math.max(1, properties.getSendTimeout().toMillis() / 2);
+        heartbeat.scheduleAtFixedRate(this::abortStalledSends, check, check, TimeUnit.MILLISECONDS);
+    }
+
+    private static ExecutorService sendPool(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(threads * QUEUE_PER_THREAD), runnable -> {
+            Thread thread = new Thread(runnable, "category-sse-send-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    public SseEmitter open() {
+        // no timeout: dead connections surface as a failed heartbeat write
+        SseEmitter emitter = new SseEmitter(0L);
+        Stream stream = new Stream(emitter);
+        stream.subscription = broadcaster.subscribe(subscription -> stream.schedule());
+        streams.add(stream);
+        emitter.onCompletion(stream::close);
+        emitter.onTimeout(stream::close);
+        emitter.onError(e -> stream.close());
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        streams.forEach(stream -> stream.emitter.complete());
+        executor.shutdownNow();
+    }
+
+    private void sendHeartbeats() {
+        for (Stream stream : streams) {
+            try {
+                executor.execute(() -> stream.send(SseEmitter.event().comment("keepalive")));
+            } catch (RejectedExecutionException e) {
+                // the pool is backed up already; the next heartbeat tries again
+                return;
+            }
+        }
+    }
+
+    private void abortStalledSends() {
+        long now = System.nanoTime();
+        for (Stream stream : streams) {
+            Thread sender = stream.sender;
+            if (sender != null && now - stream.sendStarted > sendTimeoutNanos) {
+                stream.abort(sender);
+            }
+        }
+    }
+
+    private final class Stream {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private CategoryChangeBroadcaster.Subscription subscription;
+        // the thread inside emitter.send and when it started, or null between sends
+        private volatile Thread sender;
+        private volatile long sendStarted;
+
+        private Stream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    logger.debug("Category event stream dropped, the send queue is full");
+                    close();
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+
+        private void drain() {
+            for (;;) {
+                if (subscription.takeOverflow() && !send(SseEmitter.event().name("resync").data("overflow"))) {
+                    return;
+                }
+                for (CategoryChangedEvent event : subscription.poll(DRAIN_BATCH)) {
+                    if (!send(SseEmitter.event().name("category").data(event, MediaType.APPLICATION_JSON))) {
+                        return;
+                    }
+                }
+                if (subscription.hasPending()) {
+                    continue;
+                }
+                scheduled.set(false);
+                // a change offered between the last poll and the reset above found us still scheduled
+                if (!subscription.hasPending() || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            sendStarted = System.nanoTime();
+            sender = Thread.currentThread();
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Category event stream closed: {}", e.getMessage());
+                close();
+                emitter.completeWithError(e);
+                return false;
+            } finally {
+                sender = null;
+                // a pending interrupt from abort must not reach the next stream's task
+                Thread.interrupted();
+            }
+        }
+
+        void abort(Thread stalled) {
+            logger.debug("Category event stream send timed out");
+            close();
+            emitter.completeWithError(new IOException("send timed out"));
+            if (sender == stalled) {
+                stalled.interrupt();
+            }
+        }
+
+        void close() {
+            if (streams.remove(this)) {
+                subscription.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.sample.category.changefeed;
+
+import com.sample.category.dto.CategoryChangeDTO;
+import com.sample.category.dto.CategoryChangesDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * R2DBC twin of {@link CategoryChangeLog}: same tables, same counter, so changes written by either
+ * stack land in one feed. Appends run on the caller's R2DBC transaction through {@link DatabaseClient}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCategoryChangeLog {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCategoryChangeLog(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Void> append(CategoryChangedEvent.Type type, Long categoryId, String categoryName) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(
+                        "insert into category_change (seq, category_id, type, name, changed_at) values (:seq, :categoryId, :type, :name, :changedAt)")
+                .bind("categoryId", categoryId)
+                .bind("type", type.name())
+                .bind("changedAt", Instant.now());
+        DatabaseClient.GenericExecuteSpec withName = type == CategoryChangedEvent.Type.DELETED || categoryName == null
+                ? insert.bindNull("name", String.class)
+                : insert.bind("name", categoryName);
+
+        return nextSeq()
+                .flatMap(seq -> withName.bind("seq", seq).fetch().rowsUpdated())
+                .then();
+    }
+
+    public Mono<CategoryChangesDTO> changesSince(Long since, int limit) {
+        if (since == null) {
+            return databaseClient.sql("select coalesce(max(seq), 0) from category_change")
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(head -> CategoryChangesDTO.builder().changes(List.of()).nextSince(head).build());
+        }
+        // one extra row tells us whether another page follows without a count query
+        return databaseClient.sql("select seq, category_id, type, name, changed_at from category_change where seq > :since order by seq limit :limit")
+                .bind("since", since)
+                .bind("limit", limit + 1)
+                .map(row -> CategoryChangeDTO.builder()
+                        .seq(row.get("seq", Long.class))
+                        .categoryId(row.get("category_id", Long.class))
+                        .type(CategoryChangedEvent.Type.valueOf(row.get("type", String.class)))
+                        .categoryName(row.get("name", String.class))
+                        .changedAt(row.get("changed_at", Instant.class))
+                        .build())
+                .all()
+                .collectList()
+                .map(changes -> {
+                    boolean hasMore = changes.size() > limit;
+                    List<CategoryChangeDTO> page = hasMore ? changes.subList(0, limit) : changes;
+                    return CategoryChangesDTO.builder()
+                            .changes(page)
+                            .nextSince(page.isEmpty() ? since : page.get(page.size() - 1).getSeq())
+                            .hasMore(hasMore)
+                            .build();
+                });
+    }
+
+    // the UPDATE row-locks the counter until commit, as on the JPA side
+    private Mono<Long> nextSeq() {
+        return databaseClient.sql("update category_change_seq set last_seq = last_seq + 1 where id = 1")
+                .fetch().rowsUpdated()
+                .flatMap(updated -> updated > 0
+                        ? Mono.just(updated)
+                        : Mono.error(new IllegalStateException(CategoryChangeLog.MISSING_SEQUENCE)))
+                .then(databaseClient.sql("select last_seq from category_change_seq where id = 1")
+                        .map(row -> row.get(0, Long.class))
+                        .one());
+    }
+}
@@ -0,0 +1,74 @@
+package com.sample.category.changefeed;
+
+import com.sample.category.config.CategoryEventsProperties;
+import com.sample.category.event.CategoryChangedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reactive side of {@code GET /api/categories/stream}. Netty writes are non-blocking, so changes are
+ * emitted on the publishing thread, but only as far as the connection has requested; the rest stays
+ * coalesced in the subscription buffer until demand returns.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCategoryEventStreams {
+
+    private static final int DRAIN_BATCH = 64;
+
+    private final CategoryChangeBroadcaster broadcaster;
+    private final Duration heartbeat;
+
+    public ReactiveCategoryEventStreams(CategoryChangeBroadcaster broadcaster, CategoryEventsProperties properties) {
+        this.broadcaster = broadcaster;
+        this.heartbeat = properties.getHeartbeat();
+    }
+
+    public Flux<ServerSentEvent<Object>> open() {
+        Flux<ServerSentEvent<Object>> changes = Flux.create(sink -> {
+            AtomicInteger wip = new AtomicInteger();
+            CategoryChangeBroadcaster.Subscription[] subscription = new CategoryChangeBroadcaster.Subscription[1];
+            Runnable drain = () -> {
+                // a change can be offered before subscribe() has returned; the explicit drain below covers it
+                if (subscription[0] == null || wip.getAndIncrement() != 0) {
+                    return;
+                }
+                int missed = 1;
+                do {
+                    if (subscription[0].takeOverflow()) {
+                        sink.next(ServerSentEvent.builder().event("resync").data((Object) "overflow").build());
+                    }
+                    long demand = sink.requestedFromDownstream();
+                    while (demand > 0) {
+                        List<CategoryChangedEvent> events = subscription[0].poll((int) Math.min(demand, DRAIN_BATCH));
+                        if (events.isEmpty()) {
+                            break;
+                        }
+                        for (CategoryChangedEvent event : events) {
+                            sink.next(ServerSentEvent.<Object>builder(event).event("category").build());
+                        }
+                        demand -= events.size();
+                    }
+                    missed = wip.addAndGet(-missed);
+                } while (missed != 0);
+            };
+            subscription[0] = broadcaster.subscribe(s -> drain.run());
+            sink.onRequest(n -> drain.run());
+            sink.onDispose(subscription[0]::cancel);
+            drain.run();
+        }, FluxSink.OverflowStrategy.BUFFER);
+
+        Flux<ServerSentEvent<Object>> keepAlive = Flux.interval(heartbeat, heartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.builder().comment("keepalive").build());
+
+        return Flux.merge(changes, keepAlive);
+    }
+}
@@ -0,0 +1,186 @@
+package com.sample.category.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.sample.category.dto.CategoryBatchResultDTO;
+import com.sample.category.dto.CategoryChangesDTO;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryMoveDTO;
+import com.sample.category.dto.CategoryNodeDTO;
+import com.sample.category.dto.CategoryPageDTO;
+import com.sample.category.response.ErrorResponse;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes the category payloads as protobuf ({@code application/x-protobuf}) against the
+ * published schema, {@code static/proto/category.proto}. Jackson maps each DTO onto its message by
+ * property name, so there are no generated classes to keep in step with the DTOs. A list body
+ * travels as the {@code items} field of its {@code *List} message, because a protobuf message
+ * cannot be a bare array.
+ * <p>
+ * Only the types bound below are handled; anything else is left to the other converters.
+ */
+public class CategoryProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+    public static final String SCHEMA_LOCATION = "static/proto/category.proto";
+
+    private final ObjectMapper objectMapper;
+    private final SerializationTimer timer;
+    private final Map<Class<?>, Binding> messages = new HashMap<>();
+    private final Map<Class<?>, Binding> lists = new HashMap<>();
+
+    /**
+     * @param objectMapper built on a {@link ProtobufFactory}, with the application's Jackson settings
+     */
+    public CategoryProtobufHttpMessageConverter(ObjectMapper objectMapper, SerializationTimer timer) {
+        super(APPLICATION_PROTOBUF, new MediaType("application", "protobuf"));
+        this.objectMapper = objectMapper;
+        this.timer = timer;
+
+        NativeProtobufSchema schema = loadSchema();
+        bind(schema, CategoryDTO.class, "Category");
+        bind(schema, CategoryPageDTO.class, "CategoryPage");
+        bind(schema, CategoryChangesDTO.class, "CategoryChanges");
+        bind(schema, CategoryNodeDTO.class, "CategoryNode");
+        bind(schema, CategoryMoveDTO.class, "CategoryMove");
+        bind(schema, ErrorResponse.class, "ErrorResponse");
+        bindList(schema, CategoryDTO.class, "CategoryList");
+        bindList(schema, CategoryNodeDTO.class, "CategoryNodeList");
+        bindList(schema, CategoryBatchResultDTO.class, "CategoryBatchResultList");
+        bindList(schema, Long.class, "IdList");
+    }
+
+    private static NativeProtobufSchema loadSchema() {
+        try (InputStream in = new ClassPathResource(SCHEMA_LOCATION).getInputStream()) {
+            return ProtobufSchemaLoader.std.loadNative(in, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load " + SCHEMA_LOCATION, e);
+        }
+    }
+
+    private void bind(NativeProtobufSchema schema, Class<?> type, String message) {
+        JavaType javaType = objectMapper.constructType(type);
+        messages.put(type, new Binding(javaType, schema.forType(message), false));
+    }
+
+    private void bindList(NativeProtobufSchema schema, Class<?> elementType, String message) {
+        JavaType javaType = objectMapper.getTypeFactory().constructParametricType(Items.class, elementType);
+        lists.put(elementType, new Binding(javaType, schema.forType(message), true));
+    }
+
+    private Binding bindingFor(Type type) {
+        JavaType javaType = objectMapper.constructType(type);
+        if (javaType.isCollectionLikeType()) {
+            return lists.get(javaType.getContentType().getRawClass());
+        }
+        return messages.get(javaType.getRawClass());
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return messages.containsKey(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return bindingFor(GenericTypeResolver.resolveType(type, contextClass)) != null && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return bindingFor(type != null ? type : clazz) != null && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        Binding binding = bindingFor(GenericTypeResolver.resolveType(type, contextClass));
+        try {
+            Object value = binding.reader.readValue(inputMessage.getBody());
+            return binding.list ? ((Items<?>) value).getItems() : value;
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf body: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Binding binding = bindingFor(type != null ? type : object.getClass());
+        if (binding == null) {
+            throw new HttpMessageNotWritableException("No protobuf message for " + object.getClass().getName());
+        }
+        Timer serialization = timer.timerFor(object);
+        long start = System.nanoTime();
+        try {
+            binding.writer.writeValue(outputMessage.getBody(), binding.list ? new Items<>((List<?>) object) : object);
+        } finally {
+            serialization.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private final class Binding {
+
+        private final ObjectReader reader;
+        private final ObjectWriter writer;
+        private final boolean list;
+
+        private Binding(JavaType javaType, ProtobufSchema schema, boolean list) {
+            this.reader = objectMapper.readerFor(javaType).with(schema);
+            // the schema declares instants as ISO-8601 strings, whatever the JSON settings say
+            this.writer = objectMapper.writerFor(javaType).with(schema).without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            this.list = list;
+        }
+    }
+
+    /**
+     * The {@code repeated items} field that carries a list body.
+     */
+    public static final class Items<T> {
+
+        private List<T> items;
+
+        public Items() {
+        }
+
+        Items(List<T> items) {
+            this.items = items;
+        }
+
+        public List<T> getItems() {
+            return items;
+        }
+
+        public void setItems(List<T> items) {
+            this.items = items;
+        }
+    }
+}
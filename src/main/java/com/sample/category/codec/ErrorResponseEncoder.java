@@ -0,0 +1,41 @@
+package com.sample.category.codec;
+
+import com.sample.category.response.ErrorResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * The reactive counterpart of {@link ErrorResponseHttpMessageConverter}: JSON error bodies from
+ * {@link ErrorResponse#toJson()}, registered ahead of the Jackson encoder.
+ */
+public class ErrorResponseEncoder extends AbstractEncoder<ErrorResponse> {
+
+    public ErrorResponseEncoder() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return ErrorResponse.class.isAssignableFrom(elementType.toClass()) && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends ErrorResponse> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        return Flux.from(inputStream).map(errorResponse -> encodeValue(errorResponse, bufferFactory, elementType, mimeType, hints));
+    }
+
+    @Override
+    public DataBuffer encodeValue(ErrorResponse errorResponse, DataBufferFactory bufferFactory,
+                                  ResolvableType valueType, MimeType mimeType, Map<String, Object> hints) {
+        return bufferFactory.wrap(errorResponse.toJson());
+    }
+}
@@ -0,0 +1,48 @@
+package com.sample.category.codec;
+
+import com.sample.category.response.ErrorResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link ErrorResponse} JSON from {@link ErrorResponse#toJson()} instead of through Jackson.
+ * Registered ahead of the Jackson converter, so only JSON error bodies take this path and the other
+ * formats are still negotiated as usual. Write-only.
+ */
+public class ErrorResponseHttpMessageConverter extends AbstractHttpMessageConverter<ErrorResponse> {
+
+    public ErrorResponseHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ErrorResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ErrorResponse readInternal(Class<? extends ErrorResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ErrorResponse bodies are not read", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(ErrorResponse errorResponse, MediaType contentType) {
+        // not known without encoding twice; the body is small enough to go out in one write
+        return null;
+    }
+
+    @Override
+    protected void writeInternal(ErrorResponse errorResponse, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(errorResponse.toJson());
+    }
+}
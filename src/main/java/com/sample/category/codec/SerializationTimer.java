@@ -0,0 +1,34 @@
+package com.sample.category.codec;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+
+/**
+ * The {@code category.serialization} timers of one response format. Two fixed series per format
+ * rather than one per body type, so the tag set stays bounded.
+ */
+public final class SerializationTimer {
+
+    private final Timer singleTimer;
+    private final Timer collectionTimer;
+
+    public SerializationTimer(MeterRegistry meterRegistry, String format) {
+        this.singleTimer = timer(meterRegistry, format, "single");
+        this.collectionTimer = timer(meterRegistry, format, "collection");
+    }
+
+    public Timer timerFor(Object body) {
+        return body instanceof Collection ? collectionTimer : singleTimer;
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String format, String body) {
+        return Timer.builder("category.serialization")
+                .description("Time spent writing response bodies")
+                .tag("format", format)
+                .tag("body", body)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -1,20 +1,15 @@
 package com.sample.category.config;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
-//import org.ModelMapper.ModelMapper;
-
 @Configuration
+@EnableConfigurationProperties({CategoryCacheProperties.class, CategorySnapshotProperties.class,
+        CategoryBatchingProperties.class})
 public class AppConfig {
 
-    @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
-    }
-
     @Bean
     public RestTemplate restTemplate() {
         return new RestTemplate();
@@ -0,0 +1,39 @@
+package com.sample.category.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "category.batching")
+public class CategoryBatchingProperties {
+
+    private boolean enabled;
+    // longest a getById miss waits for others to share its query; the price paid at low traffic
+    private Duration window = Duration.ofMillis(2);
+    // a batch this large goes out at once, without waiting for the window to close
+    private int maxSize = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+}
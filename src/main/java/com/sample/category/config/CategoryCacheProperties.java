@@ -0,0 +1,57 @@
+package com.sample.category.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "category.cache")
+public class CategoryCacheProperties {
+
+    private long maximumSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(10);
+    // misses are cached briefly: a category created through another instance stays hidden this long at most
+    private long negativeMaximumSize = 100_000;
+    private Duration negativeTtl = Duration.ofSeconds(30);
+    // how often the change feed is read to evict writes made on other instances
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public long getNegativeMaximumSize() {
+        return negativeMaximumSize;
+    }
+
+    public void setNegativeMaximumSize(long negativeMaximumSize) {
+        this.negativeMaximumSize = negativeMaximumSize;
+    }
+
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    public void setNegativeTtl(Duration negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+}
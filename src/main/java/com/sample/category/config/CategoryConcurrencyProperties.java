@@ -0,0 +1,97 @@
+package com.sample.category.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "category.concurrency")
+public class CategoryConcurrencyProperties {
+
+    private boolean enabled;
+    // where the limit starts; it then follows the measured latency between min-limit and max-limit
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    // share of the limit that low-priority calls (list scans) may hold; the rest stays free for the others
+    private double lowPriorityShare = 0.5;
+    // how much slower than the long-term average a call may get before the limit shrinks
+    private double tolerance = 1.5;
+    // calls that may wait for a slot at once; beyond that they are rejected right away
+    private int maxQueue = 50;
+    // longest a call waits for a slot before it is rejected
+    private Duration queueTimeout = Duration.ofMillis(20);
+    // sent as Retry-After on a 503
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getLowPriorityShare() {
+        return lowPriorityShare;
+    }
+
+    public void setLowPriorityShare(double lowPriorityShare) {
+        this.lowPriorityShare = lowPriorityShare;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public void setMaxQueue(int maxQueue) {
+        this.maxQueue = maxQueue;
+    }
+
+    public Duration getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    public void setQueueTimeout(Duration queueTimeout) {
+        this.queueTimeout = queueTimeout;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
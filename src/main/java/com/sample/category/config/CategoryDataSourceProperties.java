@@ -0,0 +1,95 @@
+package com.sample.category.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "category.datasource")
+public class CategoryDataSourceProperties {
+
+    // read replicas of spring.datasource; none means every query goes to the primary
+    private List<Replica> replicas = new ArrayList<>();
+    private Balance balance = Balance.ROUND_ROBIN;
+    // a replica further behind the primary than this gets no reads until it catches up
+    private Duration maxLag = Duration.ofSeconds(5);
+    // how often each replica's position in the change feed is compared with the primary's
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    public Balance getBalance() {
+        return balance;
+    }
+
+    public void setBalance(Balance balance) {
+        this.balance = balance;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public Duration getLagCheckInterval() {
+        return lagCheckInterval;
+    }
+
+    public void setLagCheckInterval(Duration lagCheckInterval) {
+        this.lagCheckInterval = lagCheckInterval;
+    }
+
+    public enum Balance {
+        ROUND_ROBIN, LEAST_CONNECTIONS
+    }
+
+    public static class Replica {
+
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.sample.category.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "category.events")
+public class CategoryEventsProperties {
+
+    // distinct categories a subscriber may have pending before it is told to resync instead
+    private int bufferSize = 256;
+    // comment line sent to idle streams so proxies keep them open and dead clients are noticed
+    private Duration heartbeat = Duration.ofSeconds(30);
+    // threads writing to subscribers, apart from the application executor
+    private int sendThreads = 8;
+    // a single write to a subscriber that takes longer ends its stream
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public Duration getHeartbeat() {
+        return heartbeat;
+    }
+
+    public void setHeartbeat(Duration heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+    public int getSendThreads() {
+        return sendThreads;
+    }
+
+    public void setSendThreads(int sendThreads) {
+        this.sendThreads = sendThreads;
+    }
+
+    public Duration getSendTimeout() {
+        return sendTimeout;
+    }
+
+    public void setSendTimeout(Duration sendTimeout) {
+        this.sendTimeout = sendTimeout;
+    }
+}
@@ -0,0 +1,45 @@
+package com.sample.category.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "category.logging")
+public class CategoryLoggingProperties {
+
+    // share of requests that get an access-log record; 5xx responses are always logged
+    private double accessLogSampleRate = 0.01;
+    private boolean async = false;
+    private int asyncQueueSize = 8192;
+    private boolean asyncNeverBlock = true;
+
+    public double getAccessLogSampleRate() {
+        return accessLogSampleRate;
+    }
+
+    public void setAccessLogSampleRate(double accessLogSampleRate) {
+        this.accessLogSampleRate = accessLogSampleRate;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public int getAsyncQueueSize() {
+        return asyncQueueSize;
+    }
+
+    public void setAsyncQueueSize(int asyncQueueSize) {
+        this.asyncQueueSize = asyncQueueSize;
+    }
+
+    public boolean isAsyncNeverBlock() {
+        return asyncNeverBlock;
+    }
+
+    public void setAsyncNeverBlock(boolean asyncNeverBlock) {
+        this.asyncNeverBlock = asyncNeverBlock;
+    }
+}
@@ -0,0 +1,60 @@
+package com.sample.category.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "category.snapshot")
+public class CategorySnapshotProperties {
+
+    private boolean enabled;
+    // memory-mapped snapshot file; without one the snapshot is loaded onto the heap from the database
+    private Path file;
+    // changed categories a restart may catch up on from the change feed before the file is rebuilt instead
+    private int maxReplay = 10_000;
+    // changes held on the heap over the file before they are folded into a new one
+    private int maxOverlay = 10_000;
+    // how often the change feed is read for writes made on other instances
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public void setFile(Path file) {
+        this.file = file;
+    }
+
+    public int getMaxReplay() {
+        return maxReplay;
+    }
+
+    public void setMaxReplay(int maxReplay) {
+        this.maxReplay = maxReplay;
+    }
+
+    public int getMaxOverlay() {
+        return maxOverlay;
+    }
+
+    public void setMaxOverlay(int maxOverlay) {
+        this.maxOverlay = maxOverlay;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+}
@@ -0,0 +1,33 @@
+package com.sample.category.config;
+
+import com.sample.category.limit.AdaptiveConcurrencyLimiter;
+import com.sample.category.limit.ConcurrencyLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Adaptive concurrency limit on the MVC category API; see {@link AdaptiveConcurrencyLimiter}. The
+ * WebFlux stack is not limited: its calls do not hold a thread while they wait.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "category.concurrency", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(CategoryConcurrencyProperties.class)
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitConfig(CategoryConcurrencyProperties properties, MeterRegistry meterRegistry) {
+        this.limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(limiter)).addPathPatterns("/api/categories/**");
+    }
+}
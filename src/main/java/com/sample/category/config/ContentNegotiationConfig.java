@@ -0,0 +1,41 @@
+package com.sample.category.config;
+
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.sample.category.codec.CategoryProtobufHttpMessageConverter;
+import com.sample.category.codec.ErrorResponseHttpMessageConverter;
+import com.sample.category.codec.SerializationTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Response formats of the MVC controllers besides JSON. Smile ({@code application/x-jackson-smile})
+ * and CBOR ({@code application/cbor}) come with Spring MVC once their Jackson modules are present;
+ * protobuf is added here. The protobuf converter goes last, so a request without {@code Accept}
+ * still gets JSON.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ContentNegotiationConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+    private final MeterRegistry meterRegistry;
+
+    public ContentNegotiationConfig(Jackson2ObjectMapperBuilder objectMapperBuilder, MeterRegistry meterRegistry) {
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new ErrorResponseHttpMessageConverter());
+        converters.add(new CategoryProtobufHttpMessageConverter(
+                objectMapperBuilder.factory(new ProtobufFactory()).build(),
+                new SerializationTimer(meterRegistry, "protobuf")));
+    }
+}
@@ -0,0 +1,17 @@
+package com.sample.category.config;
+
+import com.sample.category.changefeed.CategoryChangeBroadcaster;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CategoryEventsProperties.class)
+public class EventStreamConfig {
+
+    @Bean
+    public CategoryChangeBroadcaster categoryChangeBroadcaster(CategoryEventsProperties properties, MeterRegistry meterRegistry) {
+        return new CategoryChangeBroadcaster(properties.getBufferSize(), meterRegistry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.sample.category.config;
+
+import com.sample.category.logging.AccessLog;
+import com.sample.category.logging.AccessLogFilter;
+import com.sample.category.logging.AsyncLogAppenders;
+import com.sample.category.logging.ReactiveAccessLogFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CategoryLoggingProperties.class)
+public class LoggingConfig {
+
+    @Bean
+    public AccessLog accessLog(CategoryLoggingProperties properties) {
+        return new AccessLog(properties.getAccessLogSampleRate());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public AccessLogFilter accessLogFilter(AccessLog accessLog) {
+        return new AccessLogFilter(accessLog);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ReactiveAccessLogFilter reactiveAccessLogFilter(AccessLog accessLog) {
+        return new ReactiveAccessLogFilter(accessLog);
+    }
+
+    @Bean(initMethod = "install")
+    @ConditionalOnProperty(name = "category.logging.async", havingValue = "true")
+    public AsyncLogAppenders asyncLogAppenders(CategoryLoggingProperties properties) {
+        return new AsyncLogAppenders(properties.getAsyncQueueSize(), properties.isAsyncNeverBlock());
+    }
+}
@@ -0,0 +1,130 @@
+package com.sample.category.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sample.category.codec.SerializationTimer;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics that Boot does not record on its own: {@code @Timed} service operations and the time spent
+ * writing response bodies, per format. Repository query time comes from Boot's
+ * {@code spring.data.repository.invocations} timer.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Replaces Boot's JSON converter for the MVC controllers; the reactive stack writes through its own encoder.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new TimedJacksonHttpMessageConverter(objectMapper, new SerializationTimer(meterRegistry, "json"));
+    }
+
+    /**
+     * Replaces the Smile converter Spring MVC registers by default, which would not see the
+     * {@code spring.jackson.*} settings.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter(Jackson2ObjectMapperBuilder builder, MeterRegistry meterRegistry) {
+        return new TimedSmileHttpMessageConverter(builder.factory(new SmileFactory()).build(), new SerializationTimer(meterRegistry, "smile"));
+    }
+
+    /**
+     * Replaces the CBOR converter Spring MVC registers by default, for the same reason.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder builder, MeterRegistry meterRegistry) {
+        return new TimedCborHttpMessageConverter(builder.factory(new CBORFactory()).build(), new SerializationTimer(meterRegistry, "cbor"));
+    }
+
+    static class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+        private final SerializationTimer timer;
+
+        TimedJacksonHttpMessageConverter(ObjectMapper objectMapper, SerializationTimer timer) {
+            super(objectMapper);
+            this.timer = timer;
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                throws IOException, HttpMessageNotWritableException {
+            Timer serialization = timer.timerFor(object);
+            long start = System.nanoTime();
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                serialization.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    static class TimedSmileHttpMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+        private final SerializationTimer timer;
+
+        TimedSmileHttpMessageConverter(ObjectMapper objectMapper, SerializationTimer timer) {
+            super(objectMapper);
+            this.timer = timer;
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                throws IOException, HttpMessageNotWritableException {
+            Timer serialization = timer.timerFor(object);
+            long start = System.nanoTime();
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                serialization.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    static class TimedCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+        private final SerializationTimer timer;
+
+        TimedCborHttpMessageConverter(ObjectMapper objectMapper, SerializationTimer timer) {
+            super(objectMapper);
+            this.timer = timer;
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                throws IOException, HttpMessageNotWritableException {
+            Timer serialization = timer.timerFor(object);
+            long start = System.nanoTime();
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                serialization.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
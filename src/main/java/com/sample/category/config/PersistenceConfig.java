@@ -0,0 +1,73 @@
+package com.sample.category.config;
+
+import com.sample.category.datasource.ReadReplicas;
+import com.sample.category.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+/**
+ * The JPA side of persistence. R2DBC is only configured with the {@code reactive} profile; the default
+ * servlet configuration excludes its auto-configuration. With the profile on, Spring Boot backs off both
+ * the JDBC {@code DataSource} and the JPA transaction manager as soon as an R2DBC
+ * {@code ConnectionFactory} exists, while the snapshot, tree, index and change feed still read through
+ * JPA, so both are declared here from the usual {@code spring.datasource.*} properties. Without the
+ * profile they are the beans Spring Boot would have declared, plus the pool the replica routing wraps.
+ * <p>
+ * The JPA transaction manager is primary so plain {@code @Transactional} on the blocking service stays
+ * bound to JPA; the reactive service uses the R2DBC manager through its {@code TransactionalOperator}.
+ * <p>
+ * With {@code category.datasource.replicas} configured, JPA gets a routing {@code DataSource} in front
+ * of the primary pool instead; see {@link ReplicaRoutingDataSource}. The R2DBC side stays on the primary.
+ */
+@Configuration
+@EnableConfigurationProperties(CategoryDataSourceProperties.class)
+public class PersistenceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "category.datasource", name = "replicas[0].url")
+    public ReadReplicas readReplicas(HikariDataSource dataSource, CategoryDataSourceProperties properties,
+                                     MeterRegistry meterRegistry) {
+        return new ReadReplicas(dataSource, properties, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "category.datasource", name = "replicas[0].url")
+    public LazyConnectionDataSourceProxy routingDataSource(HikariDataSource dataSource, ReadReplicas readReplicas) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(dataSource, readReplicas));
+    }
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,23 @@
+package com.sample.category.config;
+
+import com.sample.category.codec.ErrorResponseEncoder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * The reactive endpoints negotiate JSON and Smile, which WebFlux registers on its own. CBOR and
+ * protobuf are only served by the MVC controllers: a custom WebFlux codec is consulted before the
+ * default JSON encoder and would become the answer to {@code Accept: *}{@code /*}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveContentNegotiationConfig implements WebFluxConfigurer {
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        // it only writes ErrorResponse as JSON, so being consulted first is what it is for
+        configurer.customCodecs().register(new ErrorResponseEncoder());
+    }
+}
@@ -1,38 +1,83 @@
 package com.sample.category.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sample.category.cache.CategoryListBody;
+import com.sample.category.changefeed.CategoryChangeWaiters;
+import com.sample.category.changefeed.CategoryEventStreams;
+import com.sample.category.codec.CategoryProtobufHttpMessageConverter;
+import com.sample.category.dto.CategoryBatchResultDTO;
+import com.sample.category.dto.CategoryChangesDTO;
 import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryListVersion;
+import com.sample.category.dto.CategoryMoveDTO;
+import com.sample.category.dto.CategoryNodeDTO;
+import com.sample.category.dto.CategoryPageDTO;
 import com.sample.category.exception.ApplicationException;
 import com.sample.category.exception.CategoryDataAccessException;
+import com.sample.category.limit.ConcurrencyPriority;
+import com.sample.category.limit.Priority;
 import com.sample.category.service.CategoryService;
+import com.sample.category.service.CategoryTreeService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/api/categories/")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CategoryController {
 
     private static final Logger logger = LoggerFactory.getLogger(CategoryController.class);
 
+    private static final List<MediaType> BINARY_FORMATS = List.of(new MediaType("application", "x-jackson-smile"),
+            MediaType.APPLICATION_CBOR, CategoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF);
+
     private final CategoryService categoryService;
+    private final CategoryTreeService categoryTreeService;
+    private final CategoryChangeWaiters changeWaiters;
+    private final CategoryEventStreams eventStreams;
+    private final ObjectMapper objectMapper;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CategoryTreeService categoryTreeService,
+                              CategoryChangeWaiters changeWaiters, CategoryEventStreams eventStreams,
+                              ObjectMapper objectMapper) {
         this.categoryService = categoryService;
+        this.categoryTreeService = categoryTreeService;
+        this.changeWaiters = changeWaiters;
+        this.eventStreams = eventStreams;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
     public ResponseEntity<CategoryDTO> saveCategory(@RequestBody @Valid CategoryDTO category) throws CategoryDataAccessException, ApplicationException {
-        logger.info("Request received to save the category with name {}", category.getCategoryName());
+        logger.debug("Request received to save the category with name {}", category.getCategoryName());
         CategoryDTO savedCategory = categoryService.save(category);
-        logger.info("Category saved successfully with name: {}", savedCategory.getCategoryName());
         URI location = ServletUriComponentsBuilder.fromCurrentRequest()
                 .path("/{id}")
                 .buildAndExpand(savedCategory.getCategoryId())
@@ -40,45 +85,304 @@ public class CategoryController {
         return ResponseEntity.created(location).body(savedCategory);
     }
 
+    @PostMapping("batch")
+    public ResponseEntity<List<CategoryBatchResultDTO>> saveCategories(@RequestBody List<CategoryDTO> categories) throws CategoryDataAccessException, ApplicationException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Request received to save a batch of {} categories", categories.size());
+        }
+        List<CategoryBatchResultDTO> results = categoryService.saveAll(categories);
+        return ResponseEntity.ok().body(results);
+    }
+
+    @PutMapping("batch")
+    public ResponseEntity<List<CategoryBatchResultDTO>> updateCategories(@RequestBody List<CategoryDTO> categories) throws CategoryDataAccessException, ApplicationException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Request received to update a batch of {} categories", categories.size());
+        }
+        List<CategoryBatchResultDTO> results = categoryService.updateAll(categories);
+        return ResponseEntity.ok().body(results);
+    }
+
+    @DeleteMapping("batch")
+    public ResponseEntity<List<CategoryBatchResultDTO>> deleteCategories(@RequestBody List<Long> ids) throws CategoryDataAccessException, ApplicationException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Request received to delete a batch of {} categories", ids.size());
+        }
+        List<CategoryBatchResultDTO> results = categoryService.deleteAllById(ids);
+        return ResponseEntity.ok().body(results);
+    }
+
     @PutMapping("{id}")
     public ResponseEntity<CategoryDTO> updateCategoryById(@PathVariable @Valid @Positive Long id,
-                                                     @RequestBody CategoryDTO category) throws CategoryDataAccessException, ApplicationException {
+                                                     @RequestBody @Valid CategoryDTO category) throws CategoryDataAccessException, ApplicationException {
 
-        logger.info("Request received to update the category with id {}", id);
+        logger.debug("Request received to update the category with id {}", id);
         CategoryDTO updatedCategory = categoryService.updateById(id,category);
 
         return ResponseEntity.ok().body(updatedCategory);
     }
 
+    /**
+     * Conditional GET: the validator comes from one aggregate query, so a matching
+     * {@code If-None-Match} / {@code If-Modified-Since} is answered with 304 before any row is
+     * loaded. The validator is read first; a write racing the list read only makes the next poll
+     * return 200 again.
+     * <p>
+     * JSON is sent from the bytes cached for the current list version, gzip-compressed when the
+     * client accepts it, so a 200 costs one aggregate query and a socket write. The 200 carries the
+     * {@code ETag} and {@code Last-Modified} of the body actually sent, which can be newer than the
+     * validator read first. Other formats are serialized per request and sent without validators.
+     */
+    @ConcurrencyPriority(Priority.LOW)
     @GetMapping
-    public ResponseEntity<List<CategoryDTO>> getAllCategories() throws CategoryDataAccessException, ApplicationException {
-        logger.info("Request received to fetch all categories");
-        List<CategoryDTO> categories = categoryService.getAll();
-        logger.info("Retrieved {} categories successfully", categories.size());
-        return ResponseEntity.ok().body(categories);
+    public ResponseEntity<?> getAllCategories(WebRequest webRequest, @RequestHeader HttpHeaders headers) throws CategoryDataAccessException, ApplicationException {
+        logger.debug("Request received to fetch all categories");
+        CategoryListVersion listVersion = categoryService.getListVersion();
+        boolean json = prefersJson(webRequest.getHeaderValues(HttpHeaders.ACCEPT));
+        boolean gzip = json && acceptsGzip(webRequest.getHeaderValues(HttpHeaders.ACCEPT_ENCODING));
+        // not webRequest.checkNotModified: it would pin listVersion's validators on the response even when
+        // the body below is built at a newer version
+        String eTag = gzip ? listVersion.gzipETag() : listVersion.eTag();
+        if (json && !listVersion.isEmpty() && notModified(headers, eTag, listVersion.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).lastModified(listVersion.lastModified()).build();
+        }
+        if (!json) {
+            // no validators: the rows are read separately from listVersion and may be newer
+            List<CategoryDTO> categories = categoryService.getAll();
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(categories);
+        }
+
+        CategoryListBody body = categoryService.getAllBody(listVersion);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .lastModified(body.version().lastModified())
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.eTag(body.version().gzipETag()).header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.eTag(body.version().eTag()).body(body.identity());
+    }
+
+    // RFC 9110 13.2.2: If-None-Match (weak comparison) wins over If-Modified-Since, which has second precision
+    private static boolean notModified(HttpHeaders request, String eTag, Instant lastModified) {
+        List<String> ifNoneMatch = request.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*") || tag.replaceFirst("^W/", "").equals(eTag));
+        }
+        long ifModifiedSince = request.getIfModifiedSince();
+        return ifModifiedSince != -1 && lastModified.getEpochSecond() * 1000 <= ifModifiedSince;
+    }
+
+    @ConcurrencyPriority(Priority.LOW)
+    @GetMapping(params = "limit")
+    public ResponseEntity<CategoryPageDTO> getCategoriesPage(@RequestParam(defaultValue = "0") Long after,
+                                                             @RequestParam int limit) throws CategoryDataAccessException, ApplicationException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Request received to fetch {} categories after id {}", limit, after);
+        }
+        CategoryPageDTO page = categoryService.getPage(after, limit);
+        return ResponseEntity.ok().body(page);
+    }
+
+    // without this, ?after=N alone would fall through to the full list and silently ignore the cursor
+    @GetMapping(params = {"after", "!limit"})
+    public ResponseEntity<CategoryPageDTO> getCategoriesPageWithoutLimit() throws ApplicationException {
+        throw new ApplicationException("limit is required with after", HttpStatus.BAD_REQUEST);
+    }
+
+    @ConcurrencyPriority(Priority.LOW)
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllCategories() {
+        logger.debug("Request received to stream all categories");
+        StreamingResponseBody body = outputStream -> {
+            AtomicBoolean wroteRow = new AtomicBoolean();
+            try (SequenceWriter writer = objectMapper.writerFor(CategoryDTO.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                categoryService.streamAll(category -> {
+                    try {
+                        writer.write(category);
+                        wroteRow.set(true);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+                // the separator only goes between rows; an empty table is an empty body
+                if (wroteRow.get()) {
+                    outputStream.write('\n');
+                }
+            } catch (ApplicationException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Incremental sync: changes after {@code since}, oldest first. With {@code wait} seconds and
+     * nothing new yet, the request is parked (no thread held) until a change commits or the wait ends.
+     */
+    @ConcurrencyPriority(Priority.UNLIMITED)
+    @GetMapping("changes")
+    public DeferredResult<CategoryChangesDTO> getChanges(@RequestParam(required = false) Long since,
+                                                         @RequestParam(defaultValue = "100") int limit,
+                                                         @RequestParam(defaultValue = "0") int wait) throws CategoryDataAccessException, ApplicationException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Request received to fetch {} category changes after {}", limit, since);
+        }
+        if (wait < 0 || wait > CategoryChangeWaiters.MAX_WAIT_SECONDS) {
+            throw new ApplicationException("wait must be between 0 and " + CategoryChangeWaiters.MAX_WAIT_SECONDS + " seconds", HttpStatus.BAD_REQUEST);
+        }
+
+        long seenCommits = changeWaiters.commitCount();
+        CategoryChangesDTO changes = categoryService.getChanges(since, limit);
+        if (since == null || wait == 0 || !changes.getChanges().isEmpty()) {
+            DeferredResult<CategoryChangesDTO> result = new DeferredResult<>();
+            result.setResult(changes);
+            return result;
+        }
+
+        DeferredResult<CategoryChangesDTO> result = new DeferredResult<>(Duration.ofSeconds(wait).toMillis());
+        changeWaiters.await(since, limit, seenCommits, result);
+        return result;
+    }
+
+    // "category" events after each committed change; "resync" when this client fell too far behind
+    @ConcurrencyPriority(Priority.UNLIMITED)
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges() {
+        logger.debug("Request received to stream category changes");
+        return eventStreams.open();
     }
 
     @GetMapping("{id}")
     public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable @Positive Long id) throws CategoryDataAccessException, ApplicationException {
-        logger.info("Request received to fetch category with id {}", id);
+        logger.debug("Request received to fetch category with id {}", id);
         CategoryDTO category = categoryService.getById(id);
-        logger.info("Category with id {} fetched successfully", id);
-        return ResponseEntity.ok().body(category);
+        // the framework answers a matching If-None-Match with 304 and skips serialization;
+        // the validator is shared by every format, so caches must key on Accept as well
+        return ResponseEntity.ok().eTag(eTag(category)).varyBy(HttpHeaders.ACCEPT).body(category);
     }
 
     @GetMapping("search")
     public ResponseEntity<CategoryDTO> getCategoryByName(@RequestParam String name) throws CategoryDataAccessException, ApplicationException {
-        logger.info("Request received to fetch category with name {}", name);
+        logger.debug("Request received to fetch category with name {}", name);
         CategoryDTO category = categoryService.getByName(name);
-        logger.info("Category with name {} fetched successfully", name);
         return ResponseEntity.ok().body(category);
     }
 
+    @GetMapping(value = "search", params = "prefix")
+    public ResponseEntity<List<CategoryDTO>> searchCategoriesByPrefix(@RequestParam String prefix,
+                                                                      @RequestParam(defaultValue = "10") int limit,
+                                                                      @RequestParam(defaultValue = "false") boolean fuzzy) throws CategoryDataAccessException, ApplicationException {
+        logger.debug("Request received to search categories with prefix {}", prefix);
+        List<CategoryDTO> categories = categoryService.searchByPrefix(prefix, limit, fuzzy);
+        return ResponseEntity.ok().body(categories);
+    }
+
+    @PostMapping("{id}/children")
+    public ResponseEntity<CategoryNodeDTO> saveChildCategory(@PathVariable @Positive Long id,
+                                                             @RequestBody @Valid CategoryDTO category) throws CategoryDataAccessException, ApplicationException {
+        logger.debug("Request received to save the category with name {} under category {}", category.getCategoryName(), id);
+        CategoryNodeDTO savedCategory = categoryTreeService.saveChild(id, category);
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/categories/{id}")
+                .buildAndExpand(savedCategory.getCategoryId())
+                .toUri();
+        return ResponseEntity.created(location).body(savedCategory);
+    }
+
+    @PutMapping("{id}/parent")
+    public ResponseEntity<CategoryNodeDTO> moveCategory(@PathVariable @Positive Long id,
+                                                        @RequestBody CategoryMoveDTO move) throws CategoryDataAccessException, ApplicationException {
+        logger.debug("Request received to move category with id {} under category {}", id, move.getParentId());
+        CategoryNodeDTO movedCategory = categoryTreeService.move(id, move.getParentId());
+        return ResponseEntity.ok().body(movedCategory);
+    }
+
+    @GetMapping("{id}/ancestors")
+    public ResponseEntity<List<CategoryNodeDTO>> getAncestors(@PathVariable @Positive Long id) throws CategoryDataAccessException, ApplicationException {
+        logger.debug("Request received to fetch ancestors of category with id {}", id);
+        return ResponseEntity.ok().body(categoryTreeService.getAncestors(id));
+    }
+
+    @ConcurrencyPriority(Priority.LOW)
+    @GetMapping("{id}/descendants")
+    public ResponseEntity<List<CategoryNodeDTO>> getDescendants(@PathVariable @Positive Long id) throws CategoryDataAccessException, ApplicationException {
+        logger.debug("Request received to fetch descendants of category with id {}", id);
+        return ResponseEntity.ok().body(categoryTreeService.getDescendants(id));
+    }
+
+    @ConcurrencyPriority(Priority.LOW)
+    @GetMapping("{id}/subtree")
+    public ResponseEntity<List<CategoryNodeDTO>> getSubtree(@PathVariable @Positive Long id,
+                                                            @RequestParam(defaultValue = "1") int depth) throws CategoryDataAccessException, ApplicationException {
+        logger.debug("Request received to fetch subtree of category with id {} down to {} levels", id, depth);
+        return ResponseEntity.ok().body(categoryTreeService.getSubtree(id, depth));
+    }
+
     @DeleteMapping("{id}")
     public ResponseEntity<String> deleteCategoryById(@PathVariable Long id) throws CategoryDataAccessException, ApplicationException {
-        logger.info("Request received to delete category with id {}", id);
+        logger.debug("Request received to delete category with id {}", id);
         categoryService.deleteById(id);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).body("category deleted successfully");
     }
 
+    // JSON is the first converter, so content negotiation picks it unless a binary format is preferred
+    private static boolean prefersJson(String[] accept) {
+        if (accept == null) {
+            return true;
+        }
+        List<MediaType> mediaTypes = new ArrayList<>();
+        try {
+            for (String value : accept) {
+                mediaTypes.addAll(MediaType.parseMediaTypes(value));
+            }
+            MimeTypeUtils.sortBySpecificity(mediaTypes);
+        } catch (InvalidMediaTypeException | InvalidMimeTypeException e) {
+            // left to content negotiation, which answers 406
+            return false;
+        }
+        // q=0 refuses what it names; a refused */* only rules out what the client did not list
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0 && !mediaType.isWildcardType() && mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+        }
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+            if (BINARY_FORMATS.stream().anyMatch(mediaType::includes)) {
+                return false;
+            }
+        }
+        return mediaTypes.isEmpty();
+    }
+
+    private static boolean acceptsGzip(String[] acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String value : acceptEncoding) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    // strong validator: the row version changes with every write to the category
+    private static String eTag(CategoryDTO category) {
+        return "\"" + category.getVersion() + "\"";
+    }
+
 }
@@ -0,0 +1,136 @@
+package com.sample.category.controller;
+
+import com.sample.category.changefeed.ReactiveCategoryEventStreams;
+import com.sample.category.dto.CategoryChangesDTO;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryPageDTO;
+import com.sample.category.exception.ApplicationException;
+import com.sample.category.service.ReactiveCategoryService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking version of {@link CategoryController} on the same paths. Served when the application
+ * runs as a reactive web application ({@code reactive} profile); errors go through the same
+ * {@code GlobalExceptionalHandler}.
+ */
+@RestController
+@RequestMapping("/api/categories/")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCategoryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCategoryController.class);
+
+    private final ReactiveCategoryService categoryService;
+    private final ReactiveCategoryEventStreams eventStreams;
+
+    public ReactiveCategoryController(ReactiveCategoryService categoryService, ReactiveCategoryEventStreams eventStreams) {
+        this.categoryService = categoryService;
+        this.eventStreams = eventStreams;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<CategoryDTO>> saveCategory(@RequestBody @Valid CategoryDTO category, UriComponentsBuilder uriBuilder) {
+        logger.debug("Request received to save the category with name {}", category.getCategoryName());
+        return categoryService.save(category)
+                .map(savedCategory -> ResponseEntity
+                        .created(uriBuilder.path("/api/categories/{id}").buildAndExpand(savedCategory.getCategoryId()).toUri())
+                        .body(savedCategory));
+    }
+
+    @PutMapping("{id}")
+    public Mono<CategoryDTO> updateCategoryById(@PathVariable @Positive Long id, @RequestBody @Valid CategoryDTO category) {
+        logger.debug("Request received to update the category with id {}", id);
+        return categoryService.updateById(id, category);
+    }
+
+    // application/json is written as one array; application/x-ndjson streams row by row with backpressure.
+    // The body Flux is lazy: when the validators match, the framework answers 304 and never subscribes to it.
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<CategoryDTO>>> getAllCategories() {
+        logger.debug("Request received to fetch all categories");
+        return categoryService.getListVersion()
+                .map(listVersion -> listVersion.isEmpty()
+                        ? ResponseEntity.ok().body(categoryService.getAll())
+                        : ResponseEntity.ok()
+                                .eTag(listVersion.eTag())
+                                .lastModified(listVersion.lastModified())
+                                .body(categoryService.getAll()));
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<CategoryPageDTO> getCategoriesPage(@RequestParam(defaultValue = "0") Long after, @RequestParam int limit) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Request received to fetch {} categories after id {}", limit, after);
+        }
+        return categoryService.getPage(after, limit);
+    }
+
+    @GetMapping(params = {"after", "!limit"})
+    public Mono<CategoryPageDTO> getCategoriesPageWithoutLimit() {
+        return Mono.error(new ApplicationException("limit is required with after", HttpStatus.BAD_REQUEST));
+    }
+
+    // no long-poll here: reactive consumers re-poll with the returned cursor
+    @GetMapping("changes")
+    public Mono<CategoryChangesDTO> getChanges(@RequestParam(required = false) Long since,
+                                               @RequestParam(defaultValue = "100") int limit) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Request received to fetch {} category changes after {}", limit, since);
+        }
+        return categoryService.getChanges(since, limit);
+    }
+
+    // "category" events after each committed change; "resync" when this client fell too far behind
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamChanges() {
+        logger.debug("Request received to stream category changes");
+        return eventStreams.open();
+    }
+
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<CategoryDTO>> getCategoryById(@PathVariable @Positive Long id) {
+        logger.debug("Request received to fetch category with id {}", id);
+        return categoryService.getById(id)
+                .map(category -> ResponseEntity.ok().eTag(eTag(category)).varyBy(HttpHeaders.ACCEPT).body(category));
+    }
+
+    @GetMapping("search")
+    public Mono<CategoryDTO> getCategoryByName(@RequestParam String name) {
+        logger.debug("Request received to fetch category with name {}", name);
+        return categoryService.getByName(name);
+    }
+
+    @GetMapping(value = "search", params = "prefix")
+    public Flux<CategoryDTO> searchCategoriesByPrefix(@RequestParam String prefix,
+                                                      @RequestParam(defaultValue = "10") int limit,
+                                                      @RequestParam(defaultValue = "false") boolean fuzzy) {
+        logger.debug("Request received to search categories with prefix {}", prefix);
+        return categoryService.searchByPrefix(prefix, limit, fuzzy);
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<String>> deleteCategoryById(@PathVariable Long id) {
+        logger.debug("Request received to delete category with id {}", id);
+        return categoryService.deleteById(id)
+                .then(Mono.just(ResponseEntity.status(HttpStatus.NO_CONTENT).body("category deleted successfully")));
+    }
+
+    // strong validator: the row version changes with every write to the category
+    private static String eTag(CategoryDTO category) {
+        return "\"" + category.getVersion() + "\"";
+    }
+
+}
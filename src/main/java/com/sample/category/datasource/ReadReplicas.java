@@ -0,0 +1,260 @@
+package com.sample.category.datasource;
+
+import com.sample.category.config.CategoryDataSourceProperties;
+import com.sample.category.event.CategoryChangedEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The read replicas configured under {@code category.datasource.replicas}, each with its own pool,
+ * and the choice of which one serves a read.
+ * <p>
+ * Replication lag is measured in the change feed rather than asked of the database, so it works the
+ * same on MySQL and on H2. Every {@code lag-check-interval} the primary's last change sequence is read
+ * and remembered with the time it was read. A replica that has applied sequence {@code n} holds
+ * everything the primary held at the last check that saw {@code n} or less. That time is the
+ * replica's {@code consistentAsOf}, and its lag is measured from it.
+ * <p>
+ * A replica serves reads only while its lag is within {@code max-lag} and it already holds the last
+ * write committed on this instance. Right after a write, reads therefore go to the primary until the
+ * next check sees a replica with that write. That keeps read-your-writes for a client of this
+ * instance. Writes committed on other instances are only bounded by {@code max-lag}. Checks start once
+ * the application is ready; until then, and whenever no replica qualifies, reads go to the primary.
+ */
+public class ReadReplicas {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicas.class);
+
+    static final String PRIMARY = "primary";
+
+    private static final String LAST_SEQ = "select coalesce(max(seq), 0) from category_change";
+
+    private final JdbcTemplate primary;
+    private final Replica[] replicas;
+    private final CategoryDataSourceProperties.Balance balance;
+    private final Duration maxLag;
+    private final Duration lagCheckInterval;
+    private final Counter primaryReads;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private volatile Instant lastLocalWrite = Instant.EPOCH;
+
+    // one check at a time: the scheduler's and any direct caller's; held across the JDBC queries
+    private final ReentrantLock lagCheckLock = new ReentrantLock();
+    // primary sequence by check time, oldest first; guarded by lagCheckLock
+    private final Deque<Observation> primaryHistory = new ArrayDeque<>();
+    private final ScheduledExecutorService lagChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "category-replica-lag");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReadReplicas(DataSource primary, CategoryDataSourceProperties properties, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.balance = properties.getBalance();
+        this.maxLag = properties.getMaxLag();
+        this.lagCheckInterval = properties.getLagCheckInterval();
+        this.primaryReads = readCounter(meterRegistry, PRIMARY);
+
+        List<CategoryDataSourceProperties.Replica> configured = properties.getReplicas();
+        this.replicas = new Replica[configured.size()];
+        for (int i = 0; i < replicas.length; i++) {
+            replicas[i] = new Replica("replica-" + (i + 1), configured.get(i), meterRegistry);
+            Gauge.builder("category.datasource.replica.lag", replicas[i], Replica::lagSeconds)
+                    .description("How far the replica is behind the primary, NaN while it is unreachable or beyond max-lag")
+                    .baseUnit("seconds")
+                    .tag("replica", replicas[i].name)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * @return the replica pools; {@link #route()} names them by {@link Replica#name}
+     */
+    Replica[] replicas() {
+        return replicas;
+    }
+
+    /**
+     * Picks where the next read goes.
+     *
+     * @return the name of a replica, or {@link #PRIMARY} when none is close enough to the primary
+     */
+    String route() {
+        Instant now = Instant.now();
+        Instant lagLimit = now.minus(maxLag);
+        Instant notBefore = lastLocalWrite.isAfter(lagLimit) ? lastLocalWrite : lagLimit;
+
+        Replica chosen = null;
+        if (balance == CategoryDataSourceProperties.Balance.LEAST_CONNECTIONS) {
+            int fewest = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                int active = replica.activeConnections();
+                if (replica.isCurrent(notBefore) && active < fewest) {
+                    chosen = replica;
+                    fewest = active;
+                }
+            }
+        } else {
+            int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.length);
+            for (int i = 0; i < replicas.length && chosen == null; i++) {
+                Replica replica = replicas[(start + i) % replicas.length];
+                if (replica.isCurrent(notBefore)) {
+                    chosen = replica;
+                }
+            }
+        }
+
+        if (chosen == null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        chosen.reads.increment();
+        return chosen.name;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLagChecks() {
+        long period = lagCheckInterval.toMillis();
+        lagChecks.scheduleAtFixedRate(this::checkLag, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    // every write, moves included, appends to the change feed that checkLag compares, and publishes this
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        lastLocalWrite = Instant.now();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lagChecks.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    void checkLag() {
+        lagCheckLock.lock();
+        try {
+            // taken before the query, so every write committed by then is in the sequence read
+            Instant checkedAt = Instant.now();
+            long primarySeq;
+            try {
+                primarySeq = primary.queryForObject(LAST_SEQ, Long.class);
+            } catch (DataAccessException e) {
+                logger.warn("Could not read the primary's change sequence, replica lag is not updated: {}", e.getMessage());
+                return;
+            }
+            primaryHistory.addLast(new Observation(primarySeq, checkedAt));
+            // one check older than max-lag is enough: a replica behind that is excluded either way
+            Instant horizon = checkedAt.minus(maxLag);
+            while (primaryHistory.size() > 1 && primaryHistory.peekFirst().checkedAt().isBefore(horizon)) {
+                primaryHistory.removeFirst();
+            }
+
+            for (Replica replica : replicas) {
+                try {
+                    long replicaSeq = replica.jdbc.queryForObject(LAST_SEQ, Long.class);
+                    replica.consistentAsOf = consistentAsOf(replicaSeq);
+                    replica.reachable = true;
+                } catch (DataAccessException e) {
+                    if (replica.reachable) {
+                        logger.warn("Replica {} is unreachable, its reads go elsewhere: {}", replica.name, e.getMessage());
+                    }
+                    replica.reachable = false;
+                    replica.consistentAsOf = null;
+                }
+            }
+        } finally {
+            lagCheckLock.unlock();
+        }
+    }
+
+    // the latest check whose primary sequence the replica has applied; null if it is behind all of them
+    private Instant consistentAsOf(long replicaSeq) {
+        for (Iterator<Observation> it = primaryHistory.descendingIterator(); it.hasNext(); ) {
+            Observation observation = it.next();
+            if (observation.seq() <= replicaSeq) {
+                return observation.checkedAt();
+            }
+        }
+        return null;
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("category.datasource.reads")
+                .description("Connections taken for reads outside a read-write transaction, by the pool that served them")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    static final class Replica {
+
+        final String name;
+        final HikariDataSource pool;
+        private final JdbcTemplate jdbc;
+        private final Counter reads;
+        private volatile Instant consistentAsOf;
+        private volatile boolean reachable = true;
+
+        private Replica(String name, CategoryDataSourceProperties.Replica properties, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(properties.getUrl())
+                    .username(properties.getUsername())
+                    .password(properties.getPassword())
+                    .build();
+            pool.setPoolName(name);
+            pool.setMaximumPoolSize(properties.getMaximumPoolSize());
+            // hikaricp.connections.* tagged pool=<name>, next to the primary's
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            this.jdbc = new JdbcTemplate(pool);
+            this.reads = readCounter(meterRegistry, name);
+        }
+
+        private boolean isCurrent(Instant notBefore) {
+            Instant asOf = consistentAsOf;
+            return asOf != null && !asOf.isBefore(notBefore);
+        }
+
+        private int activeConnections() {
+            // null until the pool has opened its first connection
+            HikariPoolMXBean pool = this.pool.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+
+        private double lagSeconds() {
+            Instant asOf = consistentAsOf;
+            return asOf == null ? Double.NaN : Duration.between(asOf, Instant.now()).toNanos() / 1e9;
+        }
+    }
+
+    private record Observation(long seq, Instant checkedAt) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.sample.category.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends a connection to the primary when it is taken inside a read-write transaction, and to
+ * {@link ReadReplicas#route()} otherwise. Every write in this service runs in a read-write
+ * transaction. A read outside one, or inside a read-only one, may go to a replica.
+ * <p>
+ * The decision is made when the physical connection is taken. That only sees the transaction if it
+ * happens after the transaction has begun, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}. Hibernate takes its
+ * connection while beginning.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReadReplicas readReplicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReadReplicas readReplicas) {
+        this.readReplicas = readReplicas;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadReplicas.PRIMARY, primary);
+        for (ReadReplicas.Replica replica : readReplicas.replicas()) {
+            targets.put(replica.name, replica.pool);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return ReadReplicas.PRIMARY;
+        }
+        return readReplicas.route();
+    }
+}
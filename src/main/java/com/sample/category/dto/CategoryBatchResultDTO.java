@@ -0,0 +1,50 @@
+package com.sample.category.dto;
+
+import lombok.*;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryBatchResultDTO {
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, NOT_FOUND, CONFLICT, INVALID
+    }
+
+    private int index;
+    private Long categoryId;
+    private Status status;
+    private String message;
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,59 @@
+package com.sample.category.dto;
+
+import com.sample.category.event.CategoryChangedEvent;
+import lombok.*;
+
+import java.time.Instant;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryChangeDTO {
+
+    private Long seq;
+    private Long categoryId;
+    private CategoryChangedEvent.Type type;
+    // null for DELETED tombstones
+    private String categoryName;
+    private Instant changedAt;
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public CategoryChangedEvent.Type getType() {
+        return type;
+    }
+
+    public void setType(CategoryChangedEvent.Type type) {
+        this.type = type;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,40 @@
+package com.sample.category.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryChangesDTO {
+
+    private List<CategoryChangeDTO> changes;
+    // cursor for the next call; equal to the request's since when nothing changed
+    private Long nextSince;
+    private boolean hasMore;
+
+    public List<CategoryChangeDTO> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<CategoryChangeDTO> changes) {
+        this.changes = changes;
+    }
+
+    public Long getNextSince() {
+        return nextSince;
+    }
+
+    public void setNextSince(Long nextSince) {
+        this.nextSince = nextSince;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
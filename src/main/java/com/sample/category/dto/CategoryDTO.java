@@ -1,5 +1,6 @@
 package com.sample.category.dto;
 
+import jakarta.validation.constraints.NotBlank;
 import lombok.*;
 
 @Builder
@@ -8,7 +9,9 @@ import lombok.*;
 public class CategoryDTO {
 
     private Long categoryId;
+    @NotBlank(message = "category name is required")
     private String categoryName;
+    private Long version;
 
     public Long getCategoryId() {
         return categoryId;
@@ -25,4 +28,12 @@ public class CategoryDTO {
     public void setCategoryName(String categoryName) {
         this.categoryName = categoryName;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,29 @@
+package com.sample.category.dto;
+
+import java.time.Instant;
+
+/**
+ * Validator for the full category list. The ETag is the row count and the last change-feed
+ * sequence: every committed write appends to the feed under the counter's row lock, so the sequence
+ * moves on with each one whatever the clock of the instance that made it. The latest
+ * {@code updated_at} only backs {@code Last-Modified}, which is as good as the instances' clocks.
+ * All three come from one aggregate query, so a conditional GET is answered without loading a
+ * single row.
+ */
+public record CategoryListVersion(long count, long seq, Instant lastModified) {
+
+    public boolean isEmpty() {
+        return count == 0 || lastModified == null;
+    }
+
+    public String eTag() {
+        return "\"" + count + "-" + seq + "\"";
+    }
+
+    /**
+     * The pre-compressed JSON body is a representation of its own, so it gets its own strong ETag.
+     */
+    public String gzipETag() {
+        return "\"" + count + "-" + seq + "-gz\"";
+    }
+}
@@ -0,0 +1,22 @@
+package com.sample.category.dto;
+
+import lombok.*;
+
+/**
+ * Body of {@code PUT /api/categories/{id}/parent}; a {@code null} parent makes the category a root.
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryMoveDTO {
+
+    private Long parentId;
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+}
@@ -0,0 +1,50 @@
+package com.sample.category.dto;
+
+import lombok.*;
+
+/**
+ * A category as a node of the hierarchy: {@code parentId} is {@code null} for a root and
+ * {@code depth} counts its ancestors, so a client can rebuild a tree from a flat list.
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryNodeDTO {
+
+    private Long categoryId;
+    private String categoryName;
+    private Long parentId;
+    private Integer depth;
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+}
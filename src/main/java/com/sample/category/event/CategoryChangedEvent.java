@@ -0,0 +1,35 @@
+package com.sample.category.event;
+
+/**
+ * Published by {@code CategoryService} for every successful mutation. Listeners that keep
+ * derived state (caches, indexes) should react after commit so they never observe a write
+ * that is later rolled back.
+ */
+public class CategoryChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final Long categoryId;
+    private final String categoryName;
+
+    public CategoryChangedEvent(Type type, Long categoryId, String categoryName) {
+        this.type = type;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+}
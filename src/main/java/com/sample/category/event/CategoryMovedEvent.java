@@ -0,0 +1,32 @@
+package com.sample.category.event;
+
+/**
+ * Published by {@code CategoryTreeService} when a category is placed under a new parent, including
+ * when it is created as a child. A {@code null} parent means it became a root. A moved category and
+ * each of its descendants get an {@code UPDATED} {@link CategoryChangedEvent} after this one; a
+ * created child gets this event first and its {@code CREATED} event after it.
+ */
+public class CategoryMovedEvent {
+
+    private final Long categoryId;
+    private final String categoryName;
+    private final Long parentId;
+
+    public CategoryMovedEvent(Long categoryId, String categoryName, Long parentId) {
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.parentId = parentId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+}
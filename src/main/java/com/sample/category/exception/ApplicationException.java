@@ -2,10 +2,14 @@ package com.sample.category.exception;
 
 import org.springframework.http.HttpStatus;
 
+/**
+ * Validation failures, conflicts and other 4xx outcomes are created without a stack trace;
+ * 5xx errors keep theirs for diagnosis.
+ */
 public class ApplicationException extends Exception {
     private final HttpStatus httpStatus;
     public ApplicationException(String string, HttpStatus httpStatus) {
-        super(string);
+        super(string, null, false, httpStatus.is5xxServerError());
         this.httpStatus = httpStatus;
     }
     public HttpStatus getHttpStatus() {
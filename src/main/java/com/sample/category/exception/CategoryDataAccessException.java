@@ -2,10 +2,13 @@ package com.sample.category.exception;
 
 import org.springframework.http.HttpStatus;
 
+/**
+ * Captures a stack trace only for server errors, like {@link ApplicationException}.
+ */
 public class CategoryDataAccessException extends RuntimeException {
     private final HttpStatus status;
     public CategoryDataAccessException(String string, HttpStatus httpStatus) {
-        super(string);
+        super(string, null, false, httpStatus.is5xxServerError());
         this.status = httpStatus;
     }
 
@@ -2,11 +2,15 @@ package com.sample.category.exception;
 
 import org.springframework.http.HttpStatus;
 
+/**
+ * Thrown for every miss, including ids probed by crawlers, so no stack trace or suppressed list is
+ * recorded: the handler only needs the message and the status.
+ */
 public class CategoryNotFoundException extends RuntimeException {
 
     private final HttpStatus status;
     public CategoryNotFoundException(String message,HttpStatus status) {
-        super(message);
+        super(message, null, false, false);
         this.status = status;
     }
 
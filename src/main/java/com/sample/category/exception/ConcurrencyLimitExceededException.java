@@ -0,0 +1,22 @@
+package com.sample.category.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a call is shed because the service is at its concurrency limit. Like
+ * {@link CategoryNotFoundException} it records no stack trace: under overload these are thrown by
+ * the thousand, and each must cost less than the call it replaces.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitExceededException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
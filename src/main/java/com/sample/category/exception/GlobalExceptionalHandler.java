@@ -1,49 +1,117 @@
 package com.sample.category.exception;
 
 import com.sample.category.response.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @RestControllerAdvice
 public class GlobalExceptionalHandler {
 
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Counter[]> errorCounters = new ConcurrentHashMap<>();
+
+    public GlobalExceptionalHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // the domain exceptions are the frequent ones (every 404); as JSON their bodies skip Jackson,
+    // see ErrorResponseHttpMessageConverter / ErrorResponseEncoder
     @ExceptionHandler(CategoryNotFoundException.class)
     public ResponseEntity<ErrorResponse> CategoryNotFoundExceptionHandler(CategoryNotFoundException e){
-          ErrorResponse errorResponse = new ErrorResponse(e.getStatus().value(),e.getMessage());
-          return ResponseEntity.status(e.getStatus()).body(errorResponse);
+          countError(e, e.getStatus());
+          return errorBody(e.getStatus(), e.getMessage());
     }
 
     @ExceptionHandler(CategoryDataAccessException.class)
     public ResponseEntity<ErrorResponse> CategorySaveExceptionHandler(CategoryDataAccessException e){
-          ErrorResponse errorResponse = new ErrorResponse(e.getStatus().value(),e.getMessage());
-          return ResponseEntity.status(e.getStatus()).body(errorResponse);
+          countError(e, e.getStatus());
+          return errorBody(e.getStatus(), e.getMessage());
+    }
+
+    // a shed call: Retry-After in whole seconds, as the header allows no fractions
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> concurrencyLimitExceededExceptionHandler(ConcurrencyLimitExceededException e) {
+        countError(e, HttpStatus.SERVICE_UNAVAILABLE);
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage()));
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ErrorResponse> constraintViolationExceptionHandler(ConstraintViolationException e) {
         ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Validation failed: " + e.getMessage());
+        countError(e, HttpStatus.BAD_REQUEST);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<ErrorResponse> methodArgumentTypeMismatchExceptionHandler(MethodArgumentTypeMismatchException e) {
         ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "id must be a number");
+        countError(e, HttpStatus.BAD_REQUEST);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> methodArgumentNotValidExceptionHandler(MethodArgumentNotValidException e) {
         ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Validation failed: " + e.getBindingResult().getFieldError().getDefaultMessage());
+        countError(e, HttpStatus.BAD_REQUEST);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    // WebFlux reports the same binding failures with its own exception types
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> webExchangeBindExceptionHandler(WebExchangeBindException e) {
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Validation failed: " + e.getBindingResult().getFieldError().getDefaultMessage());
+        countError(e, HttpStatus.BAD_REQUEST);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> serverWebInputExceptionHandler(ServerWebInputException e) {
+        String message = e.getCause() instanceof TypeMismatchException ? "id must be a number" : e.getReason();
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), message);
+        countError(e, HttpStatus.BAD_REQUEST);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
     @ExceptionHandler(ApplicationException.class)
     public ResponseEntity<ErrorResponse> applicationExceptionHandler(ApplicationException e) {
-        ErrorResponse errorResponse = new ErrorResponse(e.getHttpStatus().value(), e.getMessage());
-        return ResponseEntity.status(e.getHttpStatus()).body(errorResponse);
+        countError(e, e.getHttpStatus());
+        return errorBody(e.getHttpStatus(), e.getMessage());
+    }
+
+    private static ResponseEntity<ErrorResponse> errorBody(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(new ErrorResponse(status.value(), message));
+    }
+
+    /**
+     * One {@code category.errors} series per exception type and status, so an error spike can be
+     * alerted on without parsing logs. Counters are looked up once per type and status, not per error.
+     */
+    private void countError(Exception e, HttpStatus status) {
+        Counter[] byStatus = errorCounters.computeIfAbsent(e.getClass(), type -> new Counter[600]);
+        Counter counter = byStatus[status.value()];
+        if (counter == null) {
+            counter = meterRegistry.counter("category.errors",
+                    "exception", e.getClass().getSimpleName(),
+                    "status", String.valueOf(status.value()));
+            byStatus[status.value()] = counter;
+        }
+        counter.increment();
     }
 }
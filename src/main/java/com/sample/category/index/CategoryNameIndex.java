@@ -0,0 +1,496 @@
+package com.sample.category.index;
+
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.util.HeapSize;
+import com.sample.category.util.NameNormalizer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process autocomplete index over category names.
+ * <p>
+ * Entries live in three parallel arrays sorted by normalized name, so a prefix is a binary-searched
+ * range and readers never take a lock. Committed changes are queued and folded in off the writing
+ * thread, {@link #REBUILD_DELAY_MILLIS} later, all at once: one merge pass over the arrays and one
+ * prefix table per batch, so a burst of writes costs a single O(n) copy and search sees them a few
+ * milliseconds after commit.
+ * <p>
+ * The index is empty and {@linkplain #isReady() not ready} until {@link CategoryNameIndexLoader}
+ * fills it; callers fall back to the database until then.
+ */
+@Component
+public class CategoryNameIndex {
+
+    // one reference slot in each String[] plus the long id
+    private static final long SLOT_BYTES = 2 * HeapSize.REFERENCE_BYTES + 8;
+    // how long a change waits for others to share its rebuild
+    static final long REBUILD_DELAY_MILLIS = 20;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean ready;
+
+    // every lock in this service is a ReentrantLock, never synchronized: a virtual thread that blocks,
+    // or does I/O, while holding a monitor pins its carrier thread on Java 21
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // one rebuild at a time; the arrays are merged under it, outside writeLock
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final ScheduledExecutorService rebuilds = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "category-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // changes committed while a load is running, replayed once the loaded snapshot is installed
+    private List<CategoryChangedEvent> pending;
+    // changes committed since the last rebuild, and whether one is scheduled; guarded by writeLock
+    private List<CategoryChangedEvent> queued = new ArrayList<>();
+    private boolean rebuildScheduled;
+
+    public CategoryNameIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("category.index.size", this, index -> index.snapshot.size())
+                .description("Categories held in the in-memory name index")
+                .register(meterRegistry);
+        Gauge.builder("category.index.memory", this, index -> index.snapshot.bytes)
+                .description("Estimated heap retained by the in-memory name index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    public long estimatedBytes() {
+        return snapshot.bytes;
+    }
+
+    /**
+     * @return up to {@code limit} categories whose normalized name starts with the normalized prefix, in name order
+     */
+    public List<CategoryDTO> searchByPrefix(String prefix, int limit) {
+        Snapshot current = snapshot;
+        int[] range = current.range(NameNormalizer.normalize(prefix));
+        int to = Math.min(range[1], range[0] + limit);
+        List<CategoryDTO> categories = new ArrayList<>(Math.max(0, to - range[0]));
+        for (int i = range[0]; i < to; i++) {
+            categories.add(current.toDto(i));
+        }
+        return categories;
+    }
+
+    /**
+     * Exact prefix matches first, then names whose prefix is one insertion, deletion or substitution
+     * away from the query. Candidates are only built from characters that actually follow each
+     * position of the query in the index, the same walk a trie would do.
+     */
+    public List<CategoryDTO> searchByPrefixFuzzy(String prefix, int limit) {
+        Snapshot current = snapshot;
+        String key = NameNormalizer.normalize(prefix);
+
+        TreeSet<Integer> exact = new TreeSet<>();
+        current.collect(key, limit, exact);
+        if (exact.size() == limit) {
+            return toDtos(current, exact, limit);
+        }
+
+        TreeSet<Integer> fuzzy = new TreeSet<>();
+        for (int i = 0; i <= key.length(); i++) {
+            String head = key.substring(0, i);
+            int[] range = current.range(head);
+            if (range[0] == range[1]) {
+                // nothing starts with key[0, i), so no longer head can match either
+                break;
+            }
+            if (i < key.length()) {
+                current.collect(head + key.substring(i + 1), limit, fuzzy);
+            }
+            for (char c : current.nextChars(head, range)) {
+                current.collect(head + c + key.substring(i), limit, fuzzy);
+                if (i < key.length() && c != key.charAt(i)) {
+                    current.collect(head + c + key.substring(i + 1), limit, fuzzy);
+                }
+            }
+        }
+        fuzzy.removeAll(exact);
+
+        List<CategoryDTO> categories = toDtos(current, exact, limit);
+        for (Integer i : fuzzy) {
+            if (categories.size() == limit) {
+                break;
+            }
+            categories.add(current.toDto(i));
+        }
+        return categories;
+    }
+
+    private static List<CategoryDTO> toDtos(Snapshot snapshot, Collection<Integer> indexes, int limit) {
+        List<CategoryDTO> categories = new ArrayList<>(limit);
+        for (Integer i : indexes) {
+            categories.add(snapshot.toDto(i));
+        }
+        return categories;
+    }
+
+    void beginLoad() {
+        writeLock.lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void finishLoad(Collection<CategoryDTO> categories) {
+        List<Entry> entries = new ArrayList<>(categories.size());
+        for (CategoryDTO category : categories) {
+            entries.add(new Entry(NameNormalizer.normalize(category.getCategoryName()), category.getCategoryName(), category.getCategoryId()));
+        }
+        entries.sort((a, b) -> a.key.compareTo(b.key));
+
+        int size = entries.size();
+        String[] keys = new String[size];
+        String[] names = new String[size];
+        long[] ids = new long[size];
+        long bytes = 0;
+        for (int i = 0; i < size; i++) {
+            Entry entry = entries.get(i);
+            // fresh copies, allocated in key order, keep neighbouring keys close together on the heap
+            keys[i] = new String(entry.key.toCharArray());
+            names[i] = entry.key.equals(entry.name) ? keys[i] : new String(entry.name.toCharArray());
+            ids[i] = entry.id;
+            bytes += entryBytes(entry.key, entry.name);
+        }
+        // sorting and copying happen before taking the lock; only the swap and replay are exclusive
+        Snapshot loaded = new Snapshot(keys, names, ids, bytes).withPrefixTable();
+
+        writeLock.lock();
+        try {
+            snapshot = pending.isEmpty() ? loaded : loaded.apply(pending);
+            pending = null;
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void abortLoad() {
+        writeLock.lock();
+        try {
+            pending = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        writeLock.lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            } else if (ready) {
+                queued.add(event);
+                if (!rebuildScheduled) {
+                    rebuildScheduled = true;
+                    rebuilds.schedule(this::rebuild, REBUILD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Folds every queued change into a new snapshot. Runs on the rebuild thread; tests call it to
+     * see their changes without waiting.
+     */
+    void rebuild() {
+        rebuildLock.lock();
+        try {
+            List<CategoryChangedEvent> events;
+            writeLock.lock();
+            try {
+                events = queued;
+                queued = new ArrayList<>();
+                rebuildScheduled = false;
+            } finally {
+                writeLock.unlock();
+            }
+            if (!events.isEmpty()) {
+                snapshot = snapshot.apply(events);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilds.shutdownNow();
+    }
+
+    private static long entryBytes(String key, String name) {
+        // keys equal to their display name share one String instance
+        return SLOT_BYTES + HeapSize.of(key) + (key.equals(name) ? 0 : HeapSize.of(name));
+    }
+
+    private record Entry(String key, String name, long id) {
+    }
+
+    /**
+     * First {@link #DEPTH} levels of a trie over the sorted keys. Each node knows the index range of
+     * the keys under it, so short prefixes, where binary search touches the most cold strings,
+     * resolve without looking at a key.
+     */
+    private static final class PrefixNode {
+
+        static final int DEPTH = 3;
+
+        final int from;
+        final int to;
+        final char[] chars;
+        final PrefixNode[] children;
+
+        PrefixNode(int from, int to, char[] chars, PrefixNode[] children) {
+            this.from = from;
+            this.to = to;
+            this.chars = chars;
+            this.children = children;
+        }
+
+        static PrefixNode build(String[] keys, int depth, int from, int to) {
+            if (depth == DEPTH) {
+                return new PrefixNode(from, to, null, null);
+            }
+            StringBuilder chars = new StringBuilder();
+            List<PrefixNode> children = new ArrayList<>();
+            int start = from;
+            // keys that end at this depth sort first and have no child
+            while (start < to && keys[start].length() == depth) {
+                start++;
+            }
+            while (start < to) {
+                char c = keys[start].charAt(depth);
+                int end = start + 1;
+                while (end < to && keys[end].charAt(depth) == c) {
+                    end++;
+                }
+                chars.append(c);
+                children.add(build(keys, depth + 1, start, end));
+                start = end;
+            }
+            return new PrefixNode(from, to, chars.toString().toCharArray(), children.toArray(new PrefixNode[0]));
+        }
+
+        /**
+         * @return the deepest node on the path of {@code prefix}, or {@code null} when no key has that prefix
+         */
+        PrefixNode find(String prefix) {
+            PrefixNode node = this;
+            for (int depth = 0; depth < prefix.length() && node.chars != null; depth++) {
+                int child = Arrays.binarySearch(node.chars, prefix.charAt(depth));
+                if (child < 0) {
+                    return null;
+                }
+                node = node.children[child];
+            }
+            return node;
+        }
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new String[0], new String[0], new long[0], 0).withPrefixTable();
+
+        final String[] keys;
+        final String[] names;
+        final long[] ids;
+        final long bytes;
+        PrefixNode root;
+
+        Snapshot(String[] keys, String[] names, long[] ids, long bytes) {
+            this.keys = keys;
+            this.names = names;
+            this.ids = ids;
+            this.bytes = bytes;
+        }
+
+        // built by the writer before the snapshot is published, so readers never pay for it
+        Snapshot withPrefixTable() {
+            root = PrefixNode.build(keys, 0, 0, keys.length);
+            return this;
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        CategoryDTO toDto(int i) {
+            return CategoryDTO.builder()
+                    .categoryId(ids[i])
+                    .categoryName(names[i])
+                    .build();
+        }
+
+        /**
+         * @return {@code [from, to)} of the keys starting with {@code prefix}
+         */
+        int[] range(String prefix) {
+            PrefixNode node = root.find(prefix);
+            if (node == null) {
+                return new int[]{0, 0};
+            }
+            if (prefix.length() <= PrefixNode.DEPTH) {
+                return new int[]{node.from, node.to};
+            }
+            int from = lowerBound(prefix, node.from, node.to);
+            return new int[]{from, upperBound(prefix, from, node.to)};
+        }
+
+        /**
+         * @return the distinct characters that follow {@code head} in the keys of {@code range}
+         */
+        char[] nextChars(String head, int[] range) {
+            if (head.length() < PrefixNode.DEPTH) {
+                return root.find(head).chars;
+            }
+            StringBuilder chars = new StringBuilder();
+            int from = range[0];
+            while (from < range[1] && keys[from].length() == head.length()) {
+                from++;
+            }
+            while (from < range[1]) {
+                char c = keys[from].charAt(head.length());
+                chars.append(c);
+                from = upperBound(head + c, from, range[1]);
+            }
+            return chars.toString().toCharArray();
+        }
+
+        int lowerBound(String key, int from, int to) {
+            int index = Arrays.binarySearch(keys, from, to, key);
+            return index < 0 ? -index - 1 : index;
+        }
+
+        /**
+         * First index in {@code [from, to)} whose key does not start with {@code prefix}; keys
+         * before {@code from} must not sort after the prefix.
+         */
+        int upperBound(String prefix, int from, int to) {
+            int lo = from;
+            int hi = to;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].startsWith(prefix)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        void collect(String prefix, int limit, TreeSet<Integer> into) {
+            int[] range = range(prefix);
+            int end = Math.min(range[1], range[0] + limit);
+            for (int i = range[0]; i < end; i++) {
+                into.add(i);
+            }
+        }
+
+        /**
+         * Merges a batch of changes in one pass over the arrays. Only the last change to each id
+         * counts, and of two entries for one key the later wins: the unique constraint guarantees
+         * any other holder of a key is stale.
+         */
+        Snapshot apply(List<CategoryChangedEvent> events) {
+            Map<Long, CategoryChangedEvent> latest = new LinkedHashMap<>();
+            for (CategoryChangedEvent event : events) {
+                // re-inserted so the map iterates in order of each id's last change
+                latest.remove(event.getCategoryId());
+                latest.put(event.getCategoryId(), event);
+            }
+            long[] changed = new long[latest.size()];
+            int count = 0;
+            TreeMap<String, Entry> inserts = new TreeMap<>();
+            for (CategoryChangedEvent event : latest.values()) {
+                changed[count++] = event.getCategoryId();
+                if (event.getType() != CategoryChangedEvent.Type.DELETED) {
+                    String key = NameNormalizer.normalize(event.getCategoryName());
+                    inserts.put(key, new Entry(key, event.getCategoryName(), event.getCategoryId()));
+                }
+            }
+            Arrays.sort(changed);
+
+            int capacity = keys.length + inserts.size();
+            String[] newKeys = new String[capacity];
+            String[] newNames = new String[capacity];
+            long[] newIds = new long[capacity];
+            long newBytes = bytes;
+            for (Entry entry : inserts.values()) {
+                newBytes += entryBytes(entry.key, entry.name);
+            }
+            int to = 0;
+            Iterator<Entry> adds = inserts.values().iterator();
+            Entry add = adds.hasNext() ? adds.next() : null;
+            for (int i = 0; i < keys.length; i++) {
+                while (add != null && add.key.compareTo(keys[i]) < 0) {
+                    to = put(add, newKeys, newNames, newIds, to);
+                    add = adds.hasNext() ? adds.next() : null;
+                }
+                boolean replaced = add != null && add.key.equals(keys[i]);
+                if (replaced) {
+                    to = put(add, newKeys, newNames, newIds, to);
+                    add = adds.hasNext() ? adds.next() : null;
+                }
+                if (replaced || Arrays.binarySearch(changed, ids[i]) >= 0) {
+                    newBytes -= entryBytes(keys[i], names[i]);
+                    continue;
+                }
+                newKeys[to] = keys[i];
+                newNames[to] = names[i];
+                newIds[to] = ids[i];
+                to++;
+            }
+            for (; add != null; add = adds.hasNext() ? adds.next() : null) {
+                to = put(add, newKeys, newNames, newIds, to);
+            }
+            if (to < capacity) {
+                newKeys = Arrays.copyOf(newKeys, to);
+                newNames = Arrays.copyOf(newNames, to);
+                newIds = Arrays.copyOf(newIds, to);
+            }
+            return new Snapshot(newKeys, newNames, newIds, newBytes).withPrefixTable();
+        }
+
+        private static int put(Entry entry, String[] keys, String[] names, long[] ids, int at) {
+            keys[at] = entry.key;
+            names[at] = entry.key.equals(entry.name) ? entry.key : entry.name;
+            ids[at] = entry.id;
+            return at + 1;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.sample.category.index;
+
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.repository.CategoryRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Fills {@link CategoryNameIndex} once the application is up. Enabled with
+ * {@code category.index.enabled=true}; without it the index stays empty and search goes to the database.
+ */
+@Component
+@ConditionalOnProperty(prefix = "category.index", name = "enabled", havingValue = "true")
+public class CategoryNameIndexLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryNameIndexLoader.class);
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryNameIndex categoryNameIndex;
+
+    public CategoryNameIndexLoader(CategoryRepository categoryRepository, CategoryNameIndex categoryNameIndex) {
+        this.categoryRepository = categoryRepository;
+        this.categoryNameIndex = categoryNameIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void load() {
+        logger.info("Loading categories into the name index");
+        categoryNameIndex.beginLoad();
+
+        List<CategoryDTO> categories = new ArrayList<>();
+        try (Stream<CategoryDTO> stream = categoryRepository.streamAll()) {
+            stream.forEach(categories::add);
+        } catch (Exception e) {
+            categoryNameIndex.abortLoad();
+            logger.error("Could not load the name index, search stays on the database: {}", e.getMessage());
+            return;
+        }
+
+        categoryNameIndex.finishLoad(categories);
+        int size = categoryNameIndex.size();
+        long bytes = categoryNameIndex.estimatedBytes();
+        logger.info("Name index loaded with {} categories, ~{} bytes ({} bytes per entry)",
+                size, bytes, size == 0 ? 0 : bytes / size);
+    }
+}
@@ -0,0 +1,240 @@
+package com.sample.category.limit;
+
+import com.sample.category.config.CategoryConcurrencyProperties;
+import com.sample.category.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps the calls in flight at a limit that follows the service's latency, in the manner of a
+ * gradient limiter. Each completed call compares its latency with the long-term average of its
+ * priority, so a list scan is measured against other list scans rather than against single lookups.
+ * While calls stay within {@code tolerance} of that average, the limit grows by about its square
+ * root per call. As calls slow down, the limit shrinks in proportion, by at most half. So when the
+ * database stalls, the service holds fewer calls instead of queueing every request until it times
+ * out. It then grows back once latency recovers. The limit stays between {@code min-limit} and
+ * {@code max-limit}.
+ * <p>
+ * The limit only moves while at least half of what the call's priority may hold is in use. Below
+ * that the service is not what bounds the calls, so their latency says nothing about the limit, and
+ * a quiet instance does not let its tail-latency outliers wear the limit down.
+ * <p>
+ * Low-priority calls may hold only {@code low-priority-share} of the limit. A call that finds no
+ * free slot waits up to {@code queue-timeout}. Waiting high-priority calls get each freed slot
+ * before any low-priority call. A call is rejected when the wait runs out or {@code max-queue} calls
+ * are already waiting.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // samples averaged into the long-term latency; about ten seconds at a modest request rate
+    private static final int LONG_WINDOW = 600;
+    // weight of one new limit estimate, so a single slow call does not halve the limit
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double lowPriorityShare;
+    private final double tolerance;
+    private final int maxQueue;
+    private final long queueTimeoutNanos;
+    private final Duration retryAfter;
+    private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+
+    // guards the limit and in-flight counts; calls waiting for a slot park on the conditions
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition highSlotFree = lock.newCondition();
+    private final Condition lowSlotFree = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int highWaiting;
+    private int lowWaiting;
+    private final LongRtt highRtt = new LongRtt();
+    private final LongRtt lowRtt = new LongRtt();
+
+    public AdaptiveConcurrencyLimiter(CategoryConcurrencyProperties properties, MeterRegistry meterRegistry) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.limit = Math.min(maxLimit, Math.max(minLimit, properties.getInitialLimit()));
+        this.lowPriorityShare = properties.getLowPriorityShare();
+        this.tolerance = properties.getTolerance();
+        this.maxQueue = properties.getMaxQueue();
+        this.queueTimeoutNanos = properties.getQueueTimeout().toNanos();
+        this.retryAfter = properties.getRetryAfter();
+
+        Gauge.builder("category.concurrency.limit", this, AdaptiveConcurrencyLimiter::limit)
+                .description("Calls the controller currently lets run at once")
+                .register(meterRegistry);
+        Gauge.builder("category.concurrency.in.flight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Calls running now under the concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("category.concurrency.queue", this, AdaptiveConcurrencyLimiter::waiting)
+                .description("Calls waiting for a slot under the concurrency limit")
+                .register(meterRegistry);
+        for (Priority priority : new Priority[]{Priority.HIGH, Priority.LOW}) {
+            rejected.put(priority, Counter.builder("category.concurrency.rejected")
+                    .description("Calls answered with 503 because the concurrency limit was reached")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int waiting() {
+        lock.lock();
+        try {
+            return highWaiting + lowWaiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a slot, waiting up to {@code queue-timeout} for one.
+     *
+     * @return the start time to hand back to {@link #release(Priority, long)}
+     * @throws ConcurrencyLimitExceededException when no slot came free in time
+     */
+    public long acquire(Priority priority) {
+        boolean high = priority == Priority.HIGH;
+        lock.lock();
+        try {
+            if (mustWait(high, true)) {
+                await(priority, high);
+            }
+            inFlight++;
+            // the limit may have grown by more than one slot while this call waited
+            signalNext();
+            return System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Priority priority, long startedNanos) {
+        long rttNanos = System.nanoTime() - startedNanos;
+        lock.lock();
+        try {
+            if (priority == Priority.HIGH) {
+                sample(highRtt, (int) limit, rttNanos);
+            } else {
+                sample(lowRtt, lowLimit(), rttNanos);
+            }
+            inFlight--;
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void await(Priority priority, boolean high) {
+        if (highWaiting + lowWaiting >= maxQueue) {
+            throw reject(priority);
+        }
+        Condition slotFree = high ? highSlotFree : lowSlotFree;
+        long remaining = queueTimeoutNanos;
+        if (high) {
+            highWaiting++;
+        } else {
+            lowWaiting++;
+        }
+        try {
+            while (mustWait(high, false)) {
+                if (remaining <= 0) {
+                    throw reject(priority);
+                }
+                remaining = slotFree.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(priority);
+        } finally {
+            if (high) {
+                highWaiting--;
+            } else {
+                lowWaiting--;
+            }
+        }
+    }
+
+    // a newcomer also waits behind calls already queued at its priority or above
+    private boolean mustWait(boolean high, boolean newcomer) {
+        if (high) {
+            return inFlight >= (int) limit || (newcomer && highWaiting > 0);
+        }
+        return inFlight >= lowLimit() || highWaiting > 0 || (newcomer && lowWaiting > 0);
+    }
+
+    private void signalNext() {
+        if (highWaiting > 0) {
+            if (inFlight < (int) limit) {
+                highSlotFree.signal();
+            }
+        } else if (lowWaiting > 0 && inFlight < lowLimit()) {
+            lowSlotFree.signal();
+        }
+    }
+
+    private int lowLimit() {
+        return Math.max(1, (int) (limit * lowPriorityShare));
+    }
+
+    // cap is what the sampled call's priority may hold: the whole limit, or the low-priority share
+    private void sample(LongRtt longRtt, int cap, long rttNanos) {
+        double rtt = Math.max(1, rttNanos);
+        longRtt.add(rtt);
+        if (inFlight < cap / 2.0) {
+            // app-limited: the calls are not queueing here, so leave the limit where it is
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt.nanos / rtt));
+        double estimate = limit * gradient + Math.sqrt(limit);
+        limit = Math.min(maxLimit, Math.max(minLimit, limit * (1 - SMOOTHING) + estimate * SMOOTHING));
+    }
+
+    private ConcurrencyLimitExceededException reject(Priority priority) {
+        rejected.get(priority).increment();
+        return new ConcurrencyLimitExceededException("Service is overloaded, retry later", retryAfter);
+    }
+
+    // long-term latency of one priority; guarded by the limiter's lock
+    private static final class LongRtt {
+
+        private double nanos;
+        private long samples;
+
+        void add(double rtt) {
+            samples++;
+            // a plain average while warming up, then an exponential one over about LONG_WINDOW samples
+            double weight = samples < 10 ? 1.0 / samples : 2.0 / (LONG_WINDOW + 1);
+            nanos += (rtt - nanos) * weight;
+            if (nanos > 2 * rtt) {
+                // after a slow spell, let the average come back down quickly instead of over LONG_WINDOW calls
+                nanos *= 0.95;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.sample.category.limit;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs each MVC handler call under the {@link AdaptiveConcurrencyLimiter}, at the priority given by
+ * its {@link ConcurrencyPriority}. A rejected call never reaches the handler; its
+ * {@link com.sample.category.exception.ConcurrencyLimitExceededException} goes to the exception
+ * handlers like any other. A handler that streams its body (NDJSON) holds its slot until the async
+ * dispatch that ends the stream completes, not just until the handler returns.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String STARTED = ConcurrencyLimitInterceptor.class.getName() + ".started";
+    private static final String PRIORITY = ConcurrencyLimitInterceptor.class.getName() + ".priority";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Map<Method, Priority> priorities = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // an async or error dispatch belongs to a call that already holds its slot
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Priority priority = priorities.computeIfAbsent(handlerMethod.getMethod(), ConcurrencyLimitInterceptor::priorityOf);
+        if (priority == Priority.UNLIMITED) {
+            return true;
+        }
+        long started = limiter.acquire(priority);
+        request.setAttribute(STARTED, started);
+        request.setAttribute(PRIORITY, priority);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(STARTED) instanceof Long started) {
+            request.removeAttribute(STARTED);
+            limiter.release((Priority) request.getAttribute(PRIORITY), started);
+        }
+    }
+
+    private static Priority priorityOf(Method method) {
+        ConcurrencyPriority annotation = method.getAnnotation(ConcurrencyPriority.class);
+        return annotation == null ? Priority.HIGH : annotation.value();
+    }
+}
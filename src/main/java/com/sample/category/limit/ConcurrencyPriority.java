@@ -0,0 +1,18 @@
+package com.sample.category.limit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The {@link Priority} of a controller method. Methods without it are {@link Priority#HIGH}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConcurrencyPriority {
+
+    Priority value();
+}
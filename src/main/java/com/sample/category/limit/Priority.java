@@ -0,0 +1,16 @@
+package com.sample.category.limit;
+
+/**
+ * How a call is treated by {@link AdaptiveConcurrencyLimiter}.
+ */
+public enum Priority {
+
+    /** Writes and lookups of a single category; may use the whole limit and are let in first. */
+    HIGH,
+
+    /** Scans of the whole list or a whole subtree; held to a share of the limit and shed first. */
+    LOW,
+
+    /** Long-lived waits (long polls, event streams) that hold no database work; never limited. */
+    UNLIMITED
+}
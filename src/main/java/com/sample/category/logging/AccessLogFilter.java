@@ -0,0 +1,32 @@
+package com.sample.category.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet side of the sampled {@link AccessLog}.
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private final AccessLog accessLog;
+
+    public AccessLogFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            accessLog.record(request.getMethod(), request.getRequestURI(), response.getStatus(), start);
+        }
+    }
+}
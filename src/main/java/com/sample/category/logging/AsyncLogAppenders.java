@@ -0,0 +1,61 @@
+package com.sample.category.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Moves the appenders Spring Boot configured on the root logger (console, file, structured or plain)
+ * behind Logback {@link AsyncAppender}s. Request threads render the message and enqueue the event into
+ * a bounded array queue; the layout (pattern or JSON encoding) and the I/O run on the appender's
+ * worker thread. Stopping the logger context at shutdown drains the queues.
+ * <p>
+ * Caller data stays off, so no stack trace is captured per event. With {@code neverBlock} a full queue
+ * drops events instead of stalling requests; below 20% remaining capacity TRACE/DEBUG/INFO events are
+ * discarded first (Logback's default) so WARN and ERROR survive a burst.
+ */
+public class AsyncLogAppenders {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(AsyncLogAppenders.class);
+
+    private final int queueSize;
+    private final boolean neverBlock;
+
+    public AsyncLogAppenders(int queueSize, boolean neverBlock) {
+        this.queueSize = queueSize;
+        this.neverBlock = neverBlock;
+    }
+
+    public void install() {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            logger.warn("Async logging requested but the logging backend is not Logback; logging stays synchronous");
+            return;
+        }
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+        for (Iterator<Appender<ILoggingEvent>> it = root.iteratorForAppenders(); it.hasNext(); ) {
+            appenders.add(it.next());
+        }
+        for (Appender<ILoggingEvent> appender : appenders) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC-" + appender.getName());
+            async.setQueueSize(queueSize);
+            async.setNeverBlock(neverBlock);
+            async.setIncludeCallerData(false);
+            async.addAppender(appender);
+            async.start();
+            // attach the async wrapper first so no event is lost in between
+            root.addAppender(async);
+            root.detachAppender(appender);
+        }
+        logger.info("Logging asynchronously through {} appender(s), queue size {}", appenders.size(), queueSize);
+    }
+}
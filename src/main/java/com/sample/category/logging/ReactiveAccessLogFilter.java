@@ -0,0 +1,30 @@
+package com.sample.category.logging;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux side of the sampled {@link AccessLog}.
+ */
+public class ReactiveAccessLogFilter implements WebFilter {
+
+    private final AccessLog accessLog;
+
+    public ReactiveAccessLogFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            ServerHttpRequest request = exchange.getRequest();
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            accessLog.record(request.getMethod().name(), request.getPath().value(), status == null ? 200 : status.value(), start);
+        });
+    }
+}
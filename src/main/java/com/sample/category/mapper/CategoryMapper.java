@@ -0,0 +1,58 @@
+package com.sample.category.mapper;
+
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.model.Category;
+import com.sample.category.model.CategoryRow;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain field-by-field mapping between {@link Category} and {@link CategoryDTO}. No reflection
+ * or type-map lookups per call, so it is safe to use once per row on list endpoints.
+ */
+@Component
+public class CategoryMapper {
+
+    public CategoryDTO toDto(Category category) {
+        if (category == null) {
+            return null;
+        }
+        return new CategoryDTO(category.getCategoryId(), category.getCategoryName(), category.getVersion());
+    }
+
+    public CategoryDTO toDto(CategoryRow row) {
+        if (row == null) {
+            return null;
+        }
+        return new CategoryDTO(row.getCategoryId(), row.getCategoryName(), row.getVersion());
+    }
+
+    public Category toEntity(CategoryDTO categoryDTO) {
+        if (categoryDTO == null) {
+            return null;
+        }
+        return Category.builder()
+                .categoryId(categoryDTO.getCategoryId())
+                .categoryName(categoryDTO.getCategoryName())
+                .version(categoryDTO.getVersion())
+                .build();
+    }
+
+    public List<CategoryDTO> toDtoList(List<Category> categories) {
+        List<CategoryDTO> categoryDTOs = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            categoryDTOs.add(toDto(category));
+        }
+        return categoryDTOs;
+    }
+
+    public List<Category> toEntityList(List<CategoryDTO> categoryDTOs) {
+        List<Category> categories = new ArrayList<>(categoryDTOs.size());
+        for (CategoryDTO categoryDTO : categoryDTOs) {
+            categories.add(toEntity(categoryDTO));
+        }
+        return categories;
+    }
+}
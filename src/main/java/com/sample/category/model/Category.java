@@ -1,25 +1,62 @@
 package com.sample.category.model;
 
+import com.sample.category.util.NameNormalizer;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
 
 @Entity
-@Table(name = "category")
+@Table(name = "category",
+        uniqueConstraints = @UniqueConstraint(name = "uk_category_normalized_name", columnNames = "normalized_name"),
+        indexes = {
+                @Index(name = "idx_category_updated_at", columnList = "updated_at"),
+                @Index(name = "idx_category_parent_id", columnList = "parent_id"),
+                @Index(name = "idx_category_path", columnList = "path, depth")
+        })
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Category {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq")
+    @SequenceGenerator(name = "category_seq", sequenceName = "category_seq", allocationSize = 50)
     @Column(name = "id")
     private Long categoryId;
 
     @Column(name = "name")
     private String categoryName;
 
+    // lower-cased, trimmed copy of the name; backs case-insensitive and prefix lookups
+    @Column(name = "normalized_name", nullable = false)
+    private String normalizedName;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // last write time; together with the row count it answers conditional GETs on the list endpoint
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    // materialized path: the ids of all ancestors, root first, as "/1/5/" ("/" for a root). A subtree
+    // is one LIKE 'prefix%' range on idx_category_path; the category's own id is not part of it
+    @ColumnDefault("'/'")
+    @Column(name = "path", nullable = false, length = 512)
+    private String path;
+
+    // number of ancestors, so "n levels below" is a bound on the same index
+    @ColumnDefault("0")
+    @Column(name = "depth", nullable = false)
+    private Integer depth;
+
     public Long getCategoryId() {
         return categoryId;
     }
@@ -35,4 +72,62 @@ public class Category {
     public void setCategoryName(String categoryName) {
         this.categoryName = categoryName;
     }
+
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Prefix shared by the paths of every descendant of this category.
+     */
+    public String getSubtreePath() {
+        return path + categoryId + "/";
+    }
+
+    @PrePersist
+    @PreUpdate
+    void beforeWrite() {
+        if (path == null) {
+            path = "/";
+            depth = 0;
+        }
+        this.normalizedName = NameNormalizer.normalize(categoryName);
+        this.updatedAt = Instant.now();
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
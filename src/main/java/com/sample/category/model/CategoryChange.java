@@ -0,0 +1,77 @@
+package com.sample.category.model;
+
+import com.sample.category.event.CategoryChangedEvent;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * One row of the category change log. Written in the same transaction as the mutation it records;
+ * {@code seq} comes from {@link CategoryChangeSequence}, so it grows in commit order and consumers can
+ * resume from the last value they saw. Deletes are kept as tombstones with no name.
+ * <p>
+ * Rows are only ever inserted, so {@link #isNew()} is always true and {@code save} persists
+ * without the select a merge of an assigned id would cost.
+ */
+@Entity
+@Table(name = "category_change")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryChange implements Persistable<Long> {
+
+    @Id
+    @Column(name = "seq")
+    private Long seq;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    // plain VARCHAR rather than Hibernate's native ENUM, so new types need no schema change
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "type", nullable = false, length = 16)
+    private CategoryChangedEvent.Type type;
+
+    @Column(name = "name")
+    private String categoryName;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    @Override
+    public Long getId() {
+        return seq;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public CategoryChangedEvent.Type getType() {
+        return type;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.sample.category.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single-row counter behind {@link CategoryChange#getSeq()}. Writers bump it with an {@code UPDATE}, so
+ * the row lock is held until their transaction commits and a later writer always gets a larger value.
+ * An identity column would not give that: ids are handed out at insert time and can commit out of order,
+ * which lets a consumer step past a change that becomes visible later.
+ */
+@Entity
+@Table(name = "category_change_seq")
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryChangeSequence {
+
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Long getLastSeq() {
+        return lastSeq;
+    }
+}
@@ -0,0 +1,110 @@
+package com.sample.category.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+
+/**
+ * R2DBC mapping of the {@code category} table used by the reactive endpoints. The schema is owned
+ * by {@link Category}; this class only mirrors its columns.
+ */
+@Table("category")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRow {
+
+    @Id
+    @Column("id")
+    private Long categoryId;
+
+    @Column("name")
+    private String categoryName;
+
+    @Column("normalized_name")
+    private String normalizedName;
+
+    @Column("version")
+    private Long version;
+
+    @Column("updated_at")
+    private Instant updatedAt;
+
+    @Column("parent_id")
+    private Long parentId;
+
+    @Column("path")
+    private String path;
+
+    @Column("depth")
+    private Integer depth;
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    public void setNormalizedName(String normalizedName) {
+        this.normalizedName = normalizedName;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+}
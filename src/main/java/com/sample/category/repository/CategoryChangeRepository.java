@@ -0,0 +1,33 @@
+package com.sample.category.repository;
+
+import com.sample.category.dto.CategoryChangeDTO;
+import com.sample.category.model.CategoryChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategoryChangeRepository extends JpaRepository<CategoryChange, Long> {
+
+    // DTO projection straight off the primary key range; change rows are never attached
+    @Query("select new com.sample.category.dto.CategoryChangeDTO(c.seq, c.categoryId, c.type, c.categoryName, c.changedAt) "
+            + "from CategoryChange c where c.seq > :since order by c.seq")
+    List<CategoryChangeDTO> findChangesAfter(@Param("since") Long since, Limit limit);
+
+    @Query("select coalesce(max(c.seq), 0) from CategoryChange c")
+    long findLastSeq();
+
+    // row-locks the counter until commit; see CategoryChangeSequence
+    @Modifying
+    @Query("update CategoryChangeSequence s set s.lastSeq = s.lastSeq + :count where s.id = 1")
+    int advanceSequence(@Param("count") long count);
+
+    @Query("select s.lastSeq from CategoryChangeSequence s where s.id = 1")
+    long currentSequence();
+
+}
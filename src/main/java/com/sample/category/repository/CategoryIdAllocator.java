@@ -0,0 +1,11 @@
+package com.sample.category.repository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out category ids from the same {@code category_seq} that Hibernate allocates from.
+ */
+public interface CategoryIdAllocator {
+
+    Mono<Long> nextCategoryId();
+}
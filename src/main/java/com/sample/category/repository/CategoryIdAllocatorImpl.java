@@ -0,0 +1,43 @@
+package com.sample.category.repository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+/**
+ * Takes one whole pooled-lo block per id. Hibernate reads the sequence as "first id of a block of
+ * {@value #BLOCK_SIZE}", so using only the first value of a fresh block can never collide with ids
+ * the JPA side hands out. Blocks are not cached here: on MySQL the sequence is a table updated inside
+ * the caller's transaction, and a cached block would be reused after a rollback.
+ */
+class CategoryIdAllocatorImpl implements CategoryIdAllocator {
+
+    // must match allocationSize on Category's @SequenceGenerator
+    private static final int BLOCK_SIZE = 50;
+
+    private final DatabaseClient databaseClient;
+    private final boolean sequenceTable;
+
+    CategoryIdAllocatorImpl(DatabaseClient databaseClient, ConnectionFactory connectionFactory) {
+        this.databaseClient = databaseClient;
+        // MySQL has no sequences; Hibernate emulates category_seq with a one-row table there
+        this.sequenceTable = connectionFactory.getMetadata().getName().toLowerCase(Locale.ROOT).contains("mysql");
+    }
+
+    @Override
+    public Mono<Long> nextCategoryId() {
+        if (!sequenceTable) {
+            return databaseClient.sql("select next value for category_seq")
+                    .map(row -> row.get(0, Long.class))
+                    .one();
+        }
+        // LAST_INSERT_ID(expr) is per connection, and both statements share the caller's transaction
+        return databaseClient.sql("update category_seq set next_val = last_insert_id(next_val + " + BLOCK_SIZE + ")")
+                .then()
+                .then(databaseClient.sql("select last_insert_id() - " + BLOCK_SIZE)
+                        .map(row -> row.get(0, Long.class))
+                        .one());
+    }
+}
@@ -1,16 +1,113 @@
 package com.sample.category.repository;
 
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryListVersion;
+import com.sample.category.dto.CategoryNodeDTO;
 import com.sample.category.model.Category;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category,Long> {
 
-    Category findByCategoryName(String name);
+    Optional<Category> findByNormalizedName(String normalizedName);
+
+    List<Category> findByNormalizedNameIn(Collection<String> normalizedNames);
+
+    // LIKE 'prefix%' on the unique normalized_name index; wildcards in the prefix are escaped. Declared rather
+    // than derived: a derived query is rebuilt as a criteria query on every call, a declared one is translated once
+    @Query("select c from Category c where c.normalizedName like ?#{escape([0])}% escape ?#{escapeCharacter()} order by c.normalizedName")
+    List<Category> findByNormalizedNamePrefix(String prefix, Limit limit);
 
     //List<Category> findByIdAndCategoryName(Long id, String name);
 
+    List<Category> findByCategoryIdGreaterThanOrderByCategoryIdAsc(Long after, Limit limit);
+
+    // DTO projection: rows are not attached to the persistence context, so heap stays flat while streaming
+    @Query("select new com.sample.category.dto.CategoryDTO(c.categoryId, c.categoryName, c.version) from Category c order by c.categoryId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<CategoryDTO> streamAll();
+
+    // count, the change-feed head off its primary key and max(updated_at) off its index; back ETag / Last-Modified on the list endpoint
+    @Query("select new com.sample.category.dto.CategoryListVersion(count(c), (select coalesce(max(ch.seq), 0L) from CategoryChange ch), max(c.updatedAt)) from Category c")
+    CategoryListVersion findListVersion();
+
+    // bulk updates bypass entity callbacks, so the caller passes the new updated_at
+    @Modifying(clearAutomatically = true)
+    @Query("update Category c set c.categoryName = :name, c.normalizedName = :normalizedName, c.version = c.version + 1, c.updatedAt = :updatedAt where c.categoryId = :id")
+    int updateNameById(@Param("id") Long id, @Param("name") String name, @Param("normalizedName") String normalizedName, @Param("updatedAt") Instant updatedAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Category c set c.categoryName = :name, c.normalizedName = :normalizedName, c.version = c.version + 1, c.updatedAt = :updatedAt where c.categoryId = :id and c.version = :version")
+    int updateNameByIdAndVersion(@Param("id") Long id, @Param("name") String name, @Param("normalizedName") String normalizedName, @Param("version") Long version, @Param("updatedAt") Instant updatedAt);
+
+    @Query("select c.version from Category c where c.categoryId = :id")
+    Long findVersionById(@Param("id") Long id);
+
+    // rows migrated before normalized_name existed; the column is NOT NULL once 007 has run
+    @Query("select new com.sample.category.dto.CategoryDTO(c.categoryId, c.categoryName, c.version) from Category c where c.normalizedName is null order by c.categoryId")
+    List<CategoryDTO> findWithoutNormalizedName(Limit limit);
+
+    @Modifying
+    @Query("update Category c set c.normalizedName = :normalizedName where c.categoryId = :id")
+    int updateNormalizedNameById(@Param("id") Long id, @Param("normalizedName") String normalizedName);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Category c where c.categoryId = :id")
+    int deleteCategoryById(@Param("id") Long id);
+
+    // locked in id order, so two moves touching the same categories cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Category c where c.categoryId in :ids order by c.categoryId")
+    List<Category> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    boolean existsByParentId(Long parentId);
+
+    @Query("select distinct c.parentId from Category c where c.parentId in :ids")
+    List<Long> findParentIdsIn(@Param("ids") Collection<Long> ids);
+
+    // paths only hold digits and '/', so the prefix needs no LIKE escaping; range scan on idx_category_path
+    @Query("select new com.sample.category.dto.CategoryNodeDTO(c.categoryId, c.categoryName, c.parentId, c.depth) from Category c " +
+            "where c.path like concat(:pathPrefix, '%') and c.depth <= :maxDepth order by c.depth, c.categoryId")
+    List<CategoryNodeDTO> findNodesUnder(@Param("pathPrefix") String pathPrefix, @Param("maxDepth") int maxDepth);
+
+    @Query("select new com.sample.category.dto.CategoryNodeDTO(c.categoryId, c.categoryName, c.parentId, c.depth) from Category c " +
+            "where c.categoryId in :ids order by c.depth")
+    List<CategoryNodeDTO> findNodesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select max(c.depth) from Category c where c.path like concat(:pathPrefix, '%')")
+    Integer findMaxDepthUnder(@Param("pathPrefix") String pathPrefix);
+
+    @Query("select new com.sample.category.dto.CategoryNodeDTO(c.categoryId, c.categoryName, c.parentId, c.depth) from Category c order by c.categoryId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<CategoryNodeDTO> streamAllNodes();
+
+    // rewrites the path prefix of a whole subtree in one statement; each row is updated, so its version moves on
+    @Modifying(clearAutomatically = true)
+    @Query("update Category c set c.path = concat(:newPrefix, substring(c.path, :oldLength + 1)), c.depth = c.depth + :shift, " +
+            "c.version = c.version + 1, c.updatedAt = :updatedAt where c.path like concat(:oldPrefix, '%')")
+    int moveSubtree(@Param("oldPrefix") String oldPrefix, @Param("oldLength") int oldLength,
+                    @Param("newPrefix") String newPrefix, @Param("shift") int shift, @Param("updatedAt") Instant updatedAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Category c set c.parentId = :parentId, c.path = :path, c.depth = :depth, c.version = c.version + 1, c.updatedAt = :updatedAt " +
+            "where c.categoryId = :id")
+    int updateParentById(@Param("id") Long id, @Param("parentId") Long parentId, @Param("path") String path, @Param("depth") int depth,
+                         @Param("updatedAt") Instant updatedAt);
+
 }
@@ -0,0 +1,69 @@
+package com.sample.category.repository;
+
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.util.NameNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills {@code normalized_name} for rows that predate it, before the application accepts traffic.
+ * <p>
+ * {@code db/mysql/003-category-normalized-name.sql} only adds the column: SQL's {@code TRIM} and
+ * {@code LOWER} do not match {@link NameNormalizer} (Unicode whitespace, {@code İ}, final sigma), so
+ * rows normalized there could miss every lookup. Once this has run, {@code 007} makes the column
+ * NOT NULL and unique. After that the query here finds nothing without reading a row.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class NormalizedNameBackfill implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(NormalizedNameBackfill.class);
+
+    static final int BATCH_SIZE = 1000;
+
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public NormalizedNameBackfill(CategoryRepository categoryRepository, PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        backfill();
+    }
+
+    /**
+     * @return the number of rows filled in
+     */
+    public int backfill() {
+        int filled = 0;
+        Integer batch;
+        while ((batch = transactionTemplate.execute(status -> fillBatch())) > 0) {
+            filled += batch;
+        }
+        if (filled > 0) {
+            logger.info("Filled normalized_name for {} categories", filled);
+        }
+        return filled;
+    }
+
+    private int fillBatch() {
+        List<CategoryDTO> rows = categoryRepository.findWithoutNormalizedName(Limit.of(BATCH_SIZE));
+        for (CategoryDTO row : rows) {
+            categoryRepository.updateNormalizedNameById(row.getCategoryId(), NameNormalizer.normalize(row.getCategoryName()));
+        }
+        return rows.size();
+    }
+}
@@ -0,0 +1,51 @@
+package com.sample.category.repository;
+
+import com.sample.category.dto.CategoryListVersion;
+import com.sample.category.model.CategoryRow;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Non-blocking counterpart of {@link CategoryRepository} for the reactive endpoints. Queries mirror
+ * the JPA ones so both stacks hit the same indexes.
+ */
+@Repository
+public interface ReactiveCategoryRepository extends R2dbcRepository<CategoryRow, Long>, CategoryIdAllocator {
+
+    Mono<CategoryRow> findByNormalizedName(String normalizedName);
+
+    Mono<Boolean> existsByParentId(Long parentId);
+
+    Flux<CategoryRow> findAllByOrderByCategoryIdAsc();
+
+    Flux<CategoryRow> findByCategoryIdGreaterThanOrderByCategoryIdAsc(Long after, Limit limit);
+
+    Flux<CategoryRow> findByNormalizedNameStartingWithOrderByNormalizedNameAsc(String prefix, Limit limit);
+
+    @Query("select count(*) as count, (select coalesce(max(seq), 0) from category_change) as seq, max(updated_at) as last_modified from category")
+    Mono<CategoryListVersion> findListVersion();
+
+    @Modifying
+    @Query("update category set name = :name, normalized_name = :normalizedName, version = version + 1, updated_at = :updatedAt where id = :id")
+    Mono<Integer> updateNameById(@Param("id") Long id, @Param("name") String name, @Param("normalizedName") String normalizedName, @Param("updatedAt") Instant updatedAt);
+
+    @Modifying
+    @Query("update category set name = :name, normalized_name = :normalizedName, version = version + 1, updated_at = :updatedAt where id = :id and version = :version")
+    Mono<Integer> updateNameByIdAndVersion(@Param("id") Long id, @Param("name") String name, @Param("normalizedName") String normalizedName, @Param("version") Long version, @Param("updatedAt") Instant updatedAt);
+
+    @Query("select version from category where id = :id")
+    Mono<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from category where id = :id")
+    Mono<Integer> deleteCategoryById(@Param("id") Long id);
+
+}
@@ -1,15 +1,95 @@
 package com.sample.category.response;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
 public class ErrorResponse {
 
+    private static final DateTimeFormatter TIME_STAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+    private static final byte[][] PREFIXES = new byte[600][];
+    private static final byte[] TIME_STAMP_FIELD = "\",\"timeStamp\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static volatile CachedTimeStamp cachedTimeStamp = new CachedTimeStamp(0, "");
+
     private int status;
     private String message;
     private String timeStamp;
+    // the cached encoding of timeStamp, until a setter replaces it
+    private byte[] timeStampBytes;
+
+    public ErrorResponse() {
+    }
 
     public ErrorResponse(int status, String message) {
+        CachedTimeStamp now = cachedTimeStamp();
         this.status = status;
         this.message = message;
-        this.timeStamp = java.time.LocalDateTime.now().toString();
+        this.timeStamp = now.text;
+        this.timeStampBytes = now.bytes;
+    }
+
+    /**
+     * The JSON Jackson would write for this response, assembled from cached fragments. Written by
+     * the JSON converters on the hot error paths (mostly 404s) to skip the serializer.
+     */
+    public byte[] toJson() {
+        byte[] prefix = status >= 0 && status < PREFIXES.length ? PREFIXES[status] : null;
+        if (prefix == null) {
+            prefix = ("{\"status\":" + status + ",\"message\":\"").getBytes(StandardCharsets.UTF_8);
+            if (status >= 0 && status < PREFIXES.length) {
+                // benign race: concurrent callers compute the same bytes
+                PREFIXES[status] = prefix;
+            }
+        }
+        byte[] quotedMessage = JsonStringEncoder.getInstance().quoteAsUTF8(String.valueOf(message));
+        byte[] quotedTimeStamp = timeStampBytes != null ? timeStampBytes
+                : JsonStringEncoder.getInstance().quoteAsUTF8(String.valueOf(timeStamp));
+
+        byte[] json = new byte[prefix.length + quotedMessage.length + TIME_STAMP_FIELD.length + quotedTimeStamp.length + SUFFIX.length];
+        int offset = append(json, 0, prefix);
+        offset = append(json, offset, quotedMessage);
+        offset = append(json, offset, TIME_STAMP_FIELD);
+        offset = append(json, offset, quotedTimeStamp);
+        append(json, offset, SUFFIX);
+        return json;
+    }
+
+    private static int append(byte[] target, int offset, byte[] part) {
+        System.arraycopy(part, 0, target, offset, part.length);
+        return offset + part.length;
+    }
+
+    /**
+     * Millisecond-precision local time, formatted at most once per millisecond.
+     */
+    private static CachedTimeStamp cachedTimeStamp() {
+        long now = System.currentTimeMillis();
+        CachedTimeStamp cached = cachedTimeStamp;
+        if (cached.millis != now) {
+            String text = TIME_STAMP_FORMAT.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault()));
+            cached = new CachedTimeStamp(now, text);
+            cachedTimeStamp = cached;
+        }
+        return cached;
+    }
+
+    private static final class CachedTimeStamp {
+
+        final long millis;
+        final String text;
+        final byte[] bytes;
+
+        CachedTimeStamp(long millis, String text) {
+            this.millis = millis;
+            this.text = text;
+            this.bytes = text.getBytes(StandardCharsets.US_ASCII);
+        }
     }
 
     public int getStatus() {
@@ -34,5 +114,6 @@ public class ErrorResponse {
 
     public void setTimeStamp(String timeStamp) {
         this.timeStamp = timeStamp;
+        this.timeStampBytes = null;
     }
 }
@@ -1,61 +1,214 @@
 package com.sample.category.service;
 
+import com.sample.category.batch.CategoryIdBatcher;
+import com.sample.category.cache.CategoryCache;
+import com.sample.category.cache.CategoryListBody;
+import com.sample.category.cache.CategoryListBodyCache;
+import com.sample.category.changefeed.CategoryChangeLog;
+import com.sample.category.dto.CategoryBatchResultDTO;
+import com.sample.category.dto.CategoryChangesDTO;
 import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryListVersion;
+import com.sample.category.dto.CategoryPageDTO;
 import com.sample.category.exception.ApplicationException;
 import com.sample.category.exception.CategoryNotFoundException;
 import com.sample.category.exception.CategoryDataAccessException;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.index.CategoryNameIndex;
+import com.sample.category.mapper.CategoryMapper;
 import com.sample.category.model.Category;
 import com.sample.category.repository.CategoryRepository;
+import com.sample.category.snapshot.CategorySnapshot;
+import com.sample.category.util.NameNormalizer;
+import com.sample.category.util.SingleFlight;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class CategoryService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 1000;
+    public static final int MAX_SEARCH_LIMIT = 100;
+
     private CategoryRepository categoryRepository;
-    private ModelMapper modelMapper;
+    private CategoryMapper categoryMapper;
+    private CategoryCache categoryCache;
+    private CategoryListBodyCache categoryListBodyCache;
+    private CategoryNameIndex categoryNameIndex;
+    private CategorySnapshot categorySnapshot;
+    private CategoryIdBatcher categoryIdBatcher;
+    private CategoryChangeLog categoryChangeLog;
+    private ApplicationEventPublisher eventPublisher;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate primaryTransaction;
+    private Timer getAllMappingTimer;
+    private Timer getPageMappingTimer;
+    private Timer searchMappingTimer;
+    private SingleFlight<Long, CategoryDTO> idLookups;
+    private SingleFlight<String, CategoryDTO> nameLookups;
+    private SingleFlight<CategoryListVersion, CategoryListBody> listBuilds;
+    private final AtomicInteger lastGetAllSize = new AtomicInteger();
 
     private static final Logger logger = LoggerFactory.getLogger(CategoryService.class);
 
-    public CategoryService(CategoryRepository categoryRepository, ModelMapper modelMapper) {
+    // returned by readListBody when the replica it read is behind a list already sent
+    private static final CategoryListBody BEHIND = new CategoryListBody(null, null, null);
+
+    public CategoryService(CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+                           CategoryCache categoryCache, CategoryListBodyCache categoryListBodyCache,
+                           CategoryNameIndex categoryNameIndex,
+                           CategorySnapshot categorySnapshot, CategoryIdBatcher categoryIdBatcher,
+                           CategoryChangeLog categoryChangeLog, ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
         this.categoryRepository = categoryRepository;
-        this.modelMapper = modelMapper;
+        this.categoryMapper = categoryMapper;
+        this.categoryCache = categoryCache;
+        this.categoryListBodyCache = categoryListBodyCache;
+        this.categoryNameIndex = categoryNameIndex;
+        this.categorySnapshot = categorySnapshot;
+        this.categoryIdBatcher = categoryIdBatcher;
+        this.categoryChangeLog = categoryChangeLog;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // a read-write transaction is what routes a read to the primary
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.getAllMappingTimer = mappingTimer(meterRegistry, "getAll");
+        this.getPageMappingTimer = mappingTimer(meterRegistry, "getPage");
+        this.searchMappingTimer = mappingTimer(meterRegistry, "searchByPrefix");
+        this.idLookups = new SingleFlight<>(meterRegistry, "id");
+        this.nameLookups = new SingleFlight<>(meterRegistry, "name");
+        this.listBuilds = new SingleFlight<>(meterRegistry, "list");
+        Gauge.builder("category.service.result.size", lastGetAllSize, AtomicInteger::get)
+                .description("Number of categories returned by the last getAll")
+                .tag("operation", "getAll")
+                .register(meterRegistry);
     }
 
-    @Transactional
+    @Transactional(rollbackOn = ApplicationException.class)
+    @Timed(value = "category.service", histogram = true)
     public CategoryDTO save(CategoryDTO categoryDTO) throws CategoryDataAccessException, ApplicationException {
 
-        logger.info("Saving category with name {}", categoryDTO.getCategoryName());
+        logger.debug("Saving category with name {}", categoryDTO.getCategoryName());
 
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toEntity(categoryDTO);
+        // POST always creates; a client-supplied id or version would turn persist into a merge
+        category.setCategoryId(null);
+        category.setVersion(null);
 
         try {
 
-            categoryRepository.save(category);
-            return modelMapper.map(category,CategoryDTO.class);
+            // flush here so a duplicate name surfaces as a conflict instead of failing at commit
+            categoryRepository.saveAndFlush(category);
+            categoryChangeLog.append(CategoryChangedEvent.Type.CREATED, category.getCategoryId(), category.getCategoryName());
 
         }catch (DataAccessResourceFailureException e){
             logger.error("Database connection failure while saving category with name {}", categoryDTO.getCategoryName());
             throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (DataIntegrityViolationException e){
+            logger.warn("Category with name {} already exists", categoryDTO.getCategoryName());
+            throw new ApplicationException("category with name " + categoryDTO.getCategoryName() + " already exists", HttpStatus.CONFLICT);
         }catch (Exception e){
             logger.error("An unexpected error occurred while saving category with name {}: {}", categoryDTO.getCategoryName(), e.getMessage());
             throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
+        eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED,
+                category.getCategoryId(), category.getCategoryName()));
+        logger.info("Category with id {} saved successfully", category.getCategoryId());
+        return categoryMapper.toDto(category);
+
     }
 
+    /**
+     * Served from the in-memory snapshot once it is loaded, otherwise from the database.
+     */
+    @Timed(value = "category.service", histogram = true)
     public List<CategoryDTO> getAll() throws CategoryDataAccessException, ApplicationException {
 
-        logger.info("Fetching all categories");
+        logger.debug("Fetching all categories");
+        List<CategoryDTO> categoryDTOs = categorySnapshot.isReady() ? categorySnapshot.getAll() : findAll();
+
+        if(categoryDTOs.isEmpty()){
+            logger.debug("No categories found");
+            throw new CategoryNotFoundException("categories not found", HttpStatus.NOT_FOUND);
+        }
+
+        lastGetAllSize.set(categoryDTOs.size());
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found {} categories", categoryDTOs.size());
+        }
+        return categoryDTOs;
+
+    }
+
+    /**
+     * {@link #getAll()} as ready-to-send JSON for {@code listVersion}, built once per version and
+     * then served from memory. Concurrent requests for a version that is not built yet share one build.
+     * <p>
+     * A build reads the version again together with the rows, so the body always carries the version
+     * it was read at. With read replicas that can differ from {@code listVersion}, and the caller should
+     * send the body's own. It is never older than a body already built: a replica that is behind gets
+     * the newer body kept, or, once that has been dropped, the list is read on the primary.
+     */
+    @Timed(value = "category.service", histogram = true)
+    public CategoryListBody getAllBody(CategoryListVersion listVersion) throws CategoryDataAccessException, ApplicationException {
+
+        logger.debug("Fetching all categories as a response body");
+        CategoryListBody body = categoryListBodyCache.get(listVersion);
+        if (body != null) {
+            return body;
+        }
+
+        try {
+            body = listBuilds.load(listVersion, this::buildListBody);
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while fetching categories");
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while building the category list body: {}", e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (body == null) {
+            logger.debug("No categories found");
+            throw new CategoryNotFoundException("categories not found", HttpStatus.NOT_FOUND);
+        }
+        return body;
+    }
+
+    private List<CategoryDTO> findAll() throws CategoryDataAccessException, ApplicationException {
+
         List<Category> categories;
 
         try {
@@ -70,27 +223,98 @@ public class CategoryService {
             throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        if(categories.isEmpty()){
-            logger.warn("No categories found");
-            throw new CategoryNotFoundException("categories not found", HttpStatus.NOT_FOUND);
+        return getAllMappingTimer.record(() -> categoryMapper.toDtoList(categories));
+    }
+
+    /**
+     * Cheap validator for {@link #getAll()}: one aggregate query, no rows loaded or mapped. Lets
+     * polling clients be answered with 304 before the list is materialized.
+     */
+    @Timed(value = "category.service", histogram = true)
+    public CategoryListVersion getListVersion() throws CategoryDataAccessException, ApplicationException {
+
+        logger.debug("Fetching category list version");
+
+        try {
+            return categoryRepository.findListVersion();
+        }
+        catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while fetching category list version");
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        catch(Exception e){
+            logger.error("An unexpected error occurred while fetching category list version: {}", e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Timed(value = "category.service", histogram = true)
+    public CategoryPageDTO getPage(Long after, int limit) throws CategoryDataAccessException, ApplicationException {
+
+        if(limit < 1 || limit > MAX_PAGE_SIZE){
+            throw new ApplicationException("limit must be between 1 and " + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST);
         }
 
-        List<CategoryDTO> categoryDTOs = categories.stream().
-                map(product->modelMapper.map(product,CategoryDTO.class)).
-                toList();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Fetching {} categories after id {}", limit, after);
+        }
+        List<Category> categories;
 
-        logger.info("Found {} categories", categoryDTOs.size());
-        return categoryDTOs;
+        try {
+            // one extra row tells us whether another page follows without a count query
+            categories = categoryRepository.findByCategoryIdGreaterThanOrderByCategoryIdAsc(after, Limit.of(limit + 1));
+        }
+        catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while fetching categories after id {}", after);
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        catch(Exception e){
+            logger.error("An unexpected error occurred while fetching categories after id {}: {}", after, e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        boolean hasMore = categories.size() > limit;
+        List<Category> pageRows = hasMore ? categories.subList(0, limit) : categories;
+        List<CategoryDTO> categoryDTOs = getPageMappingTimer.record(() -> categoryMapper.toDtoList(pageRows));
 
+        Long nextCursor = hasMore ? categoryDTOs.get(categoryDTOs.size() - 1).getCategoryId() : null;
+        return CategoryPageDTO.builder()
+                .categories(categoryDTOs)
+                .nextCursor(nextCursor)
+                .build();
     }
 
+    @Transactional
+    public void streamAll(Consumer<CategoryDTO> consumer) throws CategoryDataAccessException, ApplicationException {
+
+        logger.debug("Streaming all categories");
+
+        try (Stream<CategoryDTO> categories = categoryRepository.streamAll()) {
+            categories.forEach(consumer);
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while streaming categories");
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while streaming categories: {}", e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Served from the in-memory snapshot once it is loaded; until then through the id cache.
+     * Concurrent cache misses for the same id share one query, and with batching enabled misses
+     * for different ids are merged into one {@code IN} query.
+     */
+    @Timed(value = "category.service", histogram = true)
     public CategoryDTO getById(Long id) throws CategoryDataAccessException, ApplicationException {
 
-        logger.info("Fetching category with id {}", id);
-        Optional<Category> category;
+        logger.debug("Fetching category with id {}", id);
+        CategoryDTO category;
 
         try {
-             category = categoryRepository.findById(id);
+             category = categorySnapshot.isReady()
+                     ? categorySnapshot.getById(id)
+                     : categoryCache.getById(id, key -> idLookups.load(key, this::findById));
         }catch (DataAccessResourceFailureException e){
             logger.error("Database connection failure while fetching category with id {}", id);
             throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
@@ -99,23 +323,26 @@ public class CategoryService {
             throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        if(category.isEmpty()){
-            logger.warn("Category with id {} not found", id);
+        if(category == null){
+            logger.debug("Category with id {} not found", id);
             throw new CategoryNotFoundException("category with id " + id + " not found",HttpStatus.NOT_FOUND);
         }
 
-        Category categoryFromDB = category.get();
-        logger.info("Category with id {} found", id);
+        logger.debug("Category with id {} found", id);
 
-        return modelMapper.map(categoryFromDB,CategoryDTO.class);
+        return category;
     }
 
+    /**
+     * Concurrent cache misses for the same name, in any letter case, share one query.
+     */
+    @Timed(value = "category.service", histogram = true)
     public CategoryDTO getByName(String name) throws CategoryDataAccessException, ApplicationException {
-        logger.info("Fetching category with name {}", name);
-        Category category;
+        logger.debug("Fetching category with name {}", name);
+        CategoryDTO category;
 
         try {
-            category = categoryRepository.findByCategoryName(name);
+            category = categoryCache.getByName(name, key -> nameLookups.load(NameNormalizer.normalize(key), this::findByNormalizedName));
         }catch (DataAccessResourceFailureException e){
             logger.error("Database connection failure while fetching category with name {}", name);
 
@@ -126,36 +353,129 @@ public class CategoryService {
         }
 
         if(category == null){
-            logger.warn("Category with name {} not found", name);
+            logger.debug("Category with name {} not found", name);
             throw new CategoryNotFoundException("category with name " + name + " not found",HttpStatus.NOT_FOUND);
         }
 
-        logger.info("Category with name {} found", name);
+        logger.debug("Category with name {} found", name);
 
-        return modelMapper.map(category,CategoryDTO.class);
+        return category;
 
     }
 
-    @Transactional
+    /**
+     * Served from the in-memory name index once it is loaded, otherwise from the database. Fuzzy
+     * matching needs the index; the database fallback answers with exact prefix matches only.
+     */
+    @Timed(value = "category.service", histogram = true)
+    public List<CategoryDTO> searchByPrefix(String prefix, int limit, boolean fuzzy) throws CategoryDataAccessException, ApplicationException {
+
+        if(isBlank(prefix)){
+            throw new ApplicationException("prefix must not be blank", HttpStatus.BAD_REQUEST);
+        }
+        if(limit < 1 || limit > MAX_SEARCH_LIMIT){
+            throw new ApplicationException("limit must be between 1 and " + MAX_SEARCH_LIMIT, HttpStatus.BAD_REQUEST);
+        }
+
+        logger.debug("Searching categories with prefix {}", prefix);
+
+        if(categoryNameIndex.isReady()){
+            return fuzzy ? categoryNameIndex.searchByPrefixFuzzy(prefix, limit) : categoryNameIndex.searchByPrefix(prefix, limit);
+        }
+
+        List<Category> categories;
+
+        try {
+            categories = categoryRepository.findByNormalizedNamePrefix(
+                    NameNormalizer.normalize(prefix), Limit.of(limit));
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while searching categories with prefix {}", prefix);
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while searching categories with prefix {}: {}", prefix, e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        return searchMappingTimer.record(() -> categoryMapper.toDtoList(categories));
+    }
+
+    /**
+     * Renames a category with a single conditional {@code UPDATE}. When the request carries a
+     * version the update only applies to that version, and a concurrent change is reported as 409.
+     * Without one, the new version is read back, so the response carries it either way.
+     */
+    @Transactional(rollbackOn = ApplicationException.class)
+    @Timed(value = "category.service", histogram = true)
     public CategoryDTO updateById(Long id,CategoryDTO categoryDTO) throws CategoryDataAccessException, ApplicationException {
 
-        logger.info("Updating category with id {}", id);
+        logger.debug("Updating category with id {}", id);
+
+        Long expectedVersion = categoryDTO.getVersion();
+        String normalizedName = NameNormalizer.normalize(categoryDTO.getCategoryName());
+        int updatedRows;
+        boolean exists = false;
+        Long newVersion = null;
+
+        try {
+            updatedRows = expectedVersion == null
+                    ? categoryRepository.updateNameById(id, categoryDTO.getCategoryName(), normalizedName, Instant.now())
+                    : categoryRepository.updateNameByIdAndVersion(id, categoryDTO.getCategoryName(), normalizedName, expectedVersion, Instant.now());
+            if (updatedRows > 0) {
+                categoryChangeLog.append(CategoryChangedEvent.Type.UPDATED, id, categoryDTO.getCategoryName());
+                // read back inside the transaction, under the row lock the update took
+                newVersion = expectedVersion == null ? categoryRepository.findVersionById(id) : expectedVersion + 1;
+            } else if (expectedVersion != null) {
+                // only a failed versioned update needs the extra read to tell a conflict from a miss
+                exists = categoryRepository.existsById(id);
+            }
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while updating category with id {}", id);
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (DataIntegrityViolationException e){
+            logger.warn("Category with name {} already exists", categoryDTO.getCategoryName());
+            throw new ApplicationException("category with name " + categoryDTO.getCategoryName() + " already exists", HttpStatus.CONFLICT);
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while updating category with id {}: {}", id, e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if(updatedRows == 0 && exists){
+            logger.warn("Category with id {} was modified concurrently", id);
+            throw new ApplicationException("category with id " + id + " was modified concurrently", HttpStatus.CONFLICT);
+        }
+        if(updatedRows == 0){
+            logger.debug("Category with id {} not found", id);
+            throw new CategoryNotFoundException("category with id " + id + " not found",HttpStatus.NOT_FOUND);
+        }
 
-        CategoryDTO categoryFromDb = getById(id);
-        categoryFromDb.setCategoryName(categoryDTO.getCategoryName());
-        CategoryDTO updatedCategory = save(categoryFromDb);
+        eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED,
+                id, categoryDTO.getCategoryName()));
 
         logger.info("Category with id {} updated successfully", id);
-        return updatedCategory;
+        return CategoryDTO.builder()
+                .categoryId(id)
+                .categoryName(categoryDTO.getCategoryName())
+                .version(newVersion)
+                .build();
     }
 
-    @Transactional
+    /**
+     * Only leaves can be deleted. The row is deleted before its children are counted, so a child
+     * being created under it concurrently either waits for this transaction or is counted.
+     */
+    @Transactional(rollbackOn = ApplicationException.class)
+    @Timed(value = "category.service", histogram = true)
     public void deleteById(Long id) throws CategoryDataAccessException, ApplicationException {
-        CategoryDTO categoryDTO = getById(id);
-        logger.info("Deleting category with id {}", id);
+        logger.debug("Deleting category with id {}", id);
+        int deletedRows;
+        boolean hasChildren = false;
 
         try {
-            categoryRepository.deleteById(id);
+            deletedRows = categoryRepository.deleteCategoryById(id);
+            hasChildren = deletedRows > 0 && categoryRepository.existsByParentId(id);
+            if (deletedRows > 0 && !hasChildren) {
+                categoryChangeLog.append(CategoryChangedEvent.Type.DELETED, id, null);
+            }
         } catch (DataAccessResourceFailureException e) {
             logger.error("Database connection failure while deleting category with id {}", id);
             throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
@@ -164,9 +484,360 @@ public class CategoryService {
             throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
+        if(deletedRows == 0){
+            logger.debug("Category with id {} not found", id);
+            throw new CategoryNotFoundException("category with id " + id + " not found",HttpStatus.NOT_FOUND);
+        }
+        if(hasChildren){
+            logger.debug("Category with id {} has child categories", id);
+            throw new ApplicationException("category with id " + id + " has child categories", HttpStatus.CONFLICT);
+        }
+
+        eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, id, null));
         logger.info("Category with id {} deleted successfully", id);
     }
 
+    @Transactional(rollbackOn = ApplicationException.class)
+    public List<CategoryBatchResultDTO> saveAll(List<CategoryDTO> categoryDTOs) throws CategoryDataAccessException, ApplicationException {
+
+        checkBatchSize(categoryDTOs.size());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Saving batch of {} categories", categoryDTOs.size());
+        }
+
+        CategoryBatchResultDTO[] results = new CategoryBatchResultDTO[categoryDTOs.size()];
+        List<Category> created = new ArrayList<>(categoryDTOs.size());
+        List<Integer> createdIndexes = new ArrayList<>(categoryDTOs.size());
+
+        try {
+            Set<String> takenNames = new HashSet<>();
+            for (Category existing : categoryRepository.findByNormalizedNameIn(namesOf(categoryDTOs))) {
+                takenNames.add(NameNormalizer.normalize(existing.getCategoryName()));
+            }
+
+            for (int i = 0; i < categoryDTOs.size(); i++) {
+                CategoryDTO categoryDTO = categoryDTOs.get(i);
+                if (categoryDTO == null || isBlank(categoryDTO.getCategoryName())) {
+                    results[i] = batchResult(i, null, CategoryBatchResultDTO.Status.INVALID, "category name is required");
+                    continue;
+                }
+                if (!takenNames.add(NameNormalizer.normalize(categoryDTO.getCategoryName()))) {
+                    results[i] = batchResult(i, null, CategoryBatchResultDTO.Status.CONFLICT,
+                            "category with name " + categoryDTO.getCategoryName() + " already exists");
+                    continue;
+                }
+                Category category = categoryMapper.toEntity(categoryDTO);
+                category.setCategoryId(null);
+                category.setVersion(null);
+                created.add(category);
+                createdIndexes.add(i);
+            }
+
+            // ids come from the pooled sequence, so these inserts go out as JDBC batches
+            categoryRepository.saveAllAndFlush(created);
+            categoryChangeLog.appendAll(changeEvents(CategoryChangedEvent.Type.CREATED, created));
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while saving batch of {} categories", categoryDTOs.size());
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while saving batch of {} categories: {}", categoryDTOs.size(), e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        for (int i = 0; i < created.size(); i++) {
+            Category category = created.get(i);
+            int index = createdIndexes.get(i);
+            results[index] = batchResult(index, category.getCategoryId(), CategoryBatchResultDTO.Status.CREATED, null);
+            eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED,
+                    category.getCategoryId(), category.getCategoryName()));
+        }
+
+        logger.info("Created {} of {} categories in batch", created.size(), categoryDTOs.size());
+        return Arrays.asList(results);
+    }
+
+    @Transactional(rollbackOn = ApplicationException.class)
+    public List<CategoryBatchResultDTO> updateAll(List<CategoryDTO> categoryDTOs) throws CategoryDataAccessException, ApplicationException {
+
+        checkBatchSize(categoryDTOs.size());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Updating batch of {} categories", categoryDTOs.size());
+        }
+
+        CategoryBatchResultDTO[] results = new CategoryBatchResultDTO[categoryDTOs.size()];
+        List<Category> updated = new ArrayList<>(categoryDTOs.size());
+
+        try {
+            Map<Long, Category> existingById = new HashMap<>();
+            for (Category existing : categoryRepository.findAllById(idsOf(categoryDTOs))) {
+                existingById.put(existing.getCategoryId(), existing);
+            }
+            Map<String, Long> idByName = new HashMap<>();
+            for (Category existing : categoryRepository.findByNormalizedNameIn(namesOf(categoryDTOs))) {
+                idByName.put(NameNormalizer.normalize(existing.getCategoryName()), existing.getCategoryId());
+            }
+
+            Set<Long> seenIds = new HashSet<>();
+            for (int i = 0; i < categoryDTOs.size(); i++) {
+                CategoryDTO categoryDTO = categoryDTOs.get(i);
+                if (categoryDTO == null || categoryDTO.getCategoryId() == null || isBlank(categoryDTO.getCategoryName())) {
+                    results[i] = batchResult(i, null, CategoryBatchResultDTO.Status.INVALID, "category id and name are required");
+                    continue;
+                }
+                Long id = categoryDTO.getCategoryId();
+                if (!seenIds.add(id)) {
+                    results[i] = batchResult(i, id, CategoryBatchResultDTO.Status.CONFLICT,
+                            "category with id " + id + " appears more than once in the batch");
+                    continue;
+                }
+                Category category = existingById.get(id);
+                if (category == null) {
+                    results[i] = batchResult(i, id, CategoryBatchResultDTO.Status.NOT_FOUND, "category with id " + id + " not found");
+                    continue;
+                }
+                Long owner = idByName.putIfAbsent(NameNormalizer.normalize(categoryDTO.getCategoryName()), id);
+                if (owner != null && !owner.equals(id)) {
+                    results[i] = batchResult(i, id, CategoryBatchResultDTO.Status.CONFLICT,
+                            "category with name " + categoryDTO.getCategoryName() + " already exists");
+                    continue;
+                }
+                category.setCategoryName(categoryDTO.getCategoryName());
+                updated.add(category);
+                results[i] = batchResult(i, id, CategoryBatchResultDTO.Status.UPDATED, null);
+            }
+
+            // dirty entities are flushed as one batched UPDATE statement group
+            categoryRepository.flush();
+            categoryChangeLog.appendAll(changeEvents(CategoryChangedEvent.Type.UPDATED, updated));
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while updating batch of {} categories", categoryDTOs.size());
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while updating batch of {} categories: {}", categoryDTOs.size(), e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        for (Category category : updated) {
+            eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED,
+                    category.getCategoryId(), category.getCategoryName()));
+        }
+
+        logger.info("Updated {} of {} categories in batch", updated.size(), categoryDTOs.size());
+        return Arrays.asList(results);
+    }
+
+    @Transactional(rollbackOn = ApplicationException.class)
+    public List<CategoryBatchResultDTO> deleteAllById(List<Long> ids) throws CategoryDataAccessException, ApplicationException {
+
+        checkBatchSize(ids.size());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Deleting batch of {} categories", ids.size());
+        }
+
+        CategoryBatchResultDTO[] results = new CategoryBatchResultDTO[ids.size()];
+        List<Category> deleted = new ArrayList<>(ids.size());
+        List<Long> raced;
+
+        try {
+            List<Long> requested = ids.stream().filter(Objects::nonNull).toList();
+            Map<Long, Category> existingById = new HashMap<>();
+            for (Category existing : categoryRepository.findAllById(requested)) {
+                existingById.put(existing.getCategoryId(), existing);
+            }
+            Set<Long> parents = new HashSet<>(categoryRepository.findParentIdsIn(requested));
+
+            for (int i = 0; i < ids.size(); i++) {
+                Long id = ids.get(i);
+                if (id == null) {
+                    results[i] = batchResult(i, null, CategoryBatchResultDTO.Status.INVALID, "category id is required");
+                    continue;
+                }
+                // remove() so a repeated id reports not-found instead of being deleted twice
+                Category category = existingById.remove(id);
+                if (category == null) {
+                    results[i] = batchResult(i, id, CategoryBatchResultDTO.Status.NOT_FOUND, "category with id " + id + " not found");
+                    continue;
+                }
+                // even when the children are in the same batch: leaves go first, in an earlier request
+                if (parents.contains(id)) {
+                    results[i] = batchResult(i, id, CategoryBatchResultDTO.Status.CONFLICT, "category with id " + id + " has child categories");
+                    continue;
+                }
+                deleted.add(category);
+                results[i] = batchResult(i, id, CategoryBatchResultDTO.Status.DELETED, null);
+            }
+
+            // a single DELETE ... WHERE id IN (...) beats a JDBC batch of per-row deletes
+            List<Long> deletedIds = deleted.stream().map(Category::getCategoryId).toList();
+            categoryRepository.deleteAllByIdInBatch(deletedIds);
+            // children created since the check above; the deleted rows are locked now, so none can follow
+            raced = deletedIds.isEmpty() ? List.of() : categoryRepository.findParentIdsIn(deletedIds);
+            if (raced.isEmpty()) {
+                categoryChangeLog.appendAll(changeEvents(CategoryChangedEvent.Type.DELETED, deleted));
+            }
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while deleting batch of {} categories", ids.size());
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while deleting batch of {} categories: {}", ids.size(), e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if(!raced.isEmpty()){
+            logger.warn("Categories {} got child categories while being deleted", raced);
+            throw new ApplicationException("categories " + raced + " have child categories", HttpStatus.CONFLICT);
+        }
+
+        for (Category category : deleted) {
+            eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED,
+                    category.getCategoryId(), category.getCategoryName()));
+        }
+
+        logger.info("Deleted {} of {} categories in batch", deleted.size(), ids.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Inserts, updates and tombstones committed after {@code since}, in commit order. Without
+     * {@code since} only the current head cursor is returned.
+     */
+    @Timed(value = "category.service", histogram = true)
+    public CategoryChangesDTO getChanges(Long since, int limit) throws CategoryDataAccessException, ApplicationException {
 
+        if(since != null && since < 0){
+            throw new ApplicationException("since must not be negative", HttpStatus.BAD_REQUEST);
+        }
+        if(limit < 1 || limit > MAX_PAGE_SIZE){
+            throw new ApplicationException("limit must be between 1 and " + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST);
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Fetching {} category changes after {}", limit, since);
+        }
+
+        try {
+            return categoryChangeLog.changesSince(since, limit);
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while fetching category changes after {}", since);
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while fetching category changes after {}: {}", since, e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * A lookup that started before this change committed may return the old row; callers arriving
+     * from now on start their own instead of joining it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        idLookups.forget(event.getCategoryId());
+        if (event.getCategoryName() != null) {
+            nameLookups.forget(NameNormalizer.normalize(event.getCategoryName()));
+        }
+    }
+
+    private CategoryDTO findById(Long id) {
+        if (categoryIdBatcher.isEnabled()) {
+            return categoryIdBatcher.load(id);
+        }
+        return categoryRepository.findById(id)
+                .map(categoryMapper::toDto)
+                .orElse(null);
+    }
+
+    private CategoryListBody buildListBody(CategoryListVersion requested) {
+        // one read-only transaction keeps the version and the rows on the same connection, and so on one replica
+        CategoryListBody body = readOnlyTransaction.execute(status -> readListBody(categoryListBodyCache.newestSeq()));
+        if (body == BEHIND) {
+            body = primaryTransaction.execute(status -> readListBody(-1));
+        }
+        return body;
+    }
+
+    /**
+     * @return the body of the list as read, {@code null} when it is empty, or {@link #BEHIND} when the
+     * list read is older than {@code notBefore} and no body at least that new is kept
+     */
+    private CategoryListBody readListBody(long notBefore) {
+        CategoryListVersion listVersion = categoryRepository.findListVersion();
+        CategoryListBody built = categoryListBodyCache.get(listVersion);
+        if (built != null) {
+            return built;
+        }
+        if (listVersion.seq() < notBefore) {
+            return BEHIND;
+        }
+        // a snapshot that has not yet caught up with listVersion would pack older rows under its ETag
+        List<CategoryDTO> categoryDTOs = categorySnapshot.isReady() && categorySnapshot.changeSeq() >= listVersion.seq()
+                ? categorySnapshot.getAll()
+                : getAllMappingTimer.record(() -> categoryMapper.toDtoList(categoryRepository.findAll()));
+        if (categoryDTOs.isEmpty()) {
+            return null;
+        }
+        lastGetAllSize.set(categoryDTOs.size());
+        return categoryListBodyCache.put(listVersion, categoryDTOs);
+    }
+
+    private CategoryDTO findByNormalizedName(String normalizedName) {
+        return categoryRepository.findByNormalizedName(normalizedName)
+                .map(categoryMapper::toDto)
+                .orElse(null);
+    }
+
+    private static List<CategoryChangedEvent> changeEvents(CategoryChangedEvent.Type type, List<Category> categories) {
+        List<CategoryChangedEvent> events = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            events.add(new CategoryChangedEvent(type, category.getCategoryId(), category.getCategoryName()));
+        }
+        return events;
+    }
+
+    private static Timer mappingTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("category.mapping")
+                .description("Time spent mapping entities to DTOs, apart from the query")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void checkBatchSize(int size) throws ApplicationException {
+        if(size > MAX_BATCH_SIZE){
+            throw new ApplicationException("batch size must not exceed " + MAX_BATCH_SIZE, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static List<String> namesOf(List<CategoryDTO> categoryDTOs) {
+        return categoryDTOs.stream()
+                .filter(Objects::nonNull)
+                .map(CategoryDTO::getCategoryName)
+                .filter(Objects::nonNull)
+                .map(NameNormalizer::normalize)
+                .distinct()
+                .toList();
+    }
+
+    private static List<Long> idsOf(List<CategoryDTO> categoryDTOs) {
+        return categoryDTOs.stream()
+                .filter(Objects::nonNull)
+                .map(CategoryDTO::getCategoryId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static CategoryBatchResultDTO batchResult(int index, Long id, CategoryBatchResultDTO.Status status, String message) {
+        return CategoryBatchResultDTO.builder()
+                .index(index)
+                .categoryId(id)
+                .status(status)
+                .message(message)
+                .build();
+    }
 
 }
@@ -0,0 +1,313 @@
+package com.sample.category.service;
+
+import com.sample.category.changefeed.CategoryChangeLog;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryNodeDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.event.CategoryMovedEvent;
+import com.sample.category.exception.ApplicationException;
+import com.sample.category.exception.CategoryDataAccessException;
+import com.sample.category.exception.CategoryNotFoundException;
+import com.sample.category.mapper.CategoryMapper;
+import com.sample.category.model.Category;
+import com.sample.category.repository.CategoryRepository;
+import com.sample.category.tree.CategoryTree;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parent/child operations on categories. The hierarchy is stored as a materialized path (see
+ * {@link Category#getPath()}), so ancestors are one primary-key {@code IN} query and a subtree,
+ * with or without a depth bound, is one range scan on {@code idx_category_path}. Once
+ * {@link CategoryTree} is loaded, reads are answered from memory instead.
+ */
+@Service
+public class CategoryTreeService {
+
+    // bounds the path at 24 ids of up to 19 digits, inside the 512-character column
+    public static final int MAX_DEPTH = 24;
+
+    private CategoryRepository categoryRepository;
+    private CategoryMapper categoryMapper;
+    private CategoryTree categoryTree;
+    private CategoryChangeLog categoryChangeLog;
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryTreeService.class);
+
+    public CategoryTreeService(CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+                               CategoryTree categoryTree, CategoryChangeLog categoryChangeLog,
+                               ApplicationEventPublisher eventPublisher) {
+        this.categoryRepository = categoryRepository;
+        this.categoryMapper = categoryMapper;
+        this.categoryTree = categoryTree;
+        this.categoryChangeLog = categoryChangeLog;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Creates a category directly under {@code parentId}. The parent row stays locked until commit,
+     * so it cannot be moved or deleted while the child's path is derived from it.
+     */
+    @Transactional(rollbackOn = ApplicationException.class)
+    @Timed(value = "category.service", histogram = true)
+    public CategoryNodeDTO saveChild(Long parentId, CategoryDTO categoryDTO) throws CategoryDataAccessException, ApplicationException {
+
+        logger.debug("Saving category with name {} under category {}", categoryDTO.getCategoryName(), parentId);
+
+        Category category = categoryMapper.toEntity(categoryDTO);
+        category.setCategoryId(null);
+        category.setVersion(null);
+        Category parent;
+
+        try {
+            parent = lockAll(List.of(parentId)).get(parentId);
+            if (parent != null && parent.getDepth() < MAX_DEPTH) {
+                category.setParentId(parentId);
+                category.setPath(parent.getSubtreePath());
+                category.setDepth(parent.getDepth() + 1);
+                categoryRepository.saveAndFlush(category);
+                categoryChangeLog.append(CategoryChangedEvent.Type.CREATED, category.getCategoryId(), category.getCategoryName());
+            }
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while saving category with name {}", categoryDTO.getCategoryName());
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (DataIntegrityViolationException e){
+            logger.warn("Category with name {} already exists", categoryDTO.getCategoryName());
+            throw new ApplicationException("category with name " + categoryDTO.getCategoryName() + " already exists", HttpStatus.CONFLICT);
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while saving category with name {}: {}", categoryDTO.getCategoryName(), e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if(parent == null){
+            logger.debug("Parent category with id {} not found", parentId);
+            throw new CategoryNotFoundException("category with id " + parentId + " not found", HttpStatus.NOT_FOUND);
+        }
+        if(parent.getDepth() >= MAX_DEPTH){
+            throw tooDeep();
+        }
+
+        // the tree places the child before the CREATED event would otherwise add it as a root
+        eventPublisher.publishEvent(new CategoryMovedEvent(category.getCategoryId(), category.getCategoryName(), parentId));
+        eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED,
+                category.getCategoryId(), category.getCategoryName()));
+        logger.info("Category with id {} saved under category {}", category.getCategoryId(), parentId);
+        return toNode(category);
+    }
+
+    /**
+     * Moves a category, with everything below it, under {@code parentId}, or to the top level when
+     * {@code parentId} is {@code null}. The whole subtree is re-pathed by one {@code UPDATE}. Every
+     * moved row gets a new version and an {@code UPDATED} change, so change-feed and SSE consumers,
+     * caches and the list ETag see the move like any other update.
+     */
+    @Transactional(rollbackOn = ApplicationException.class)
+    @Timed(value = "category.service", histogram = true)
+    public CategoryNodeDTO move(Long id, Long parentId) throws CategoryDataAccessException, ApplicationException {
+
+        logger.debug("Moving category with id {} under category {}", id, parentId);
+
+        Category category;
+        Category parent;
+        int height = 0;
+
+        try {
+            Map<Long, Category> locked = lockAll(parentId == null ? List.of(id) : List.of(id, parentId));
+            category = locked.get(id);
+            parent = parentId == null ? null : locked.get(parentId);
+            if (category != null && (parentId == null || parent != null) && !isUnder(parent, category)) {
+                Integer deepest = categoryRepository.findMaxDepthUnder(category.getSubtreePath());
+                height = deepest == null ? 0 : deepest - category.getDepth();
+            }
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while moving category with id {}", id);
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while moving category with id {}: {}", id, e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if(category == null || (parentId != null && parent == null)){
+            Long missing = category == null ? id : parentId;
+            logger.debug("Category with id {} not found", missing);
+            throw new CategoryNotFoundException("category with id " + missing + " not found", HttpStatus.NOT_FOUND);
+        }
+        if(isUnder(parent, category)){
+            throw new ApplicationException("category with id " + id + " cannot be moved under itself or its descendants", HttpStatus.BAD_REQUEST);
+        }
+        String path = parent == null ? "/" : parent.getSubtreePath();
+        int depth = parent == null ? 0 : parent.getDepth() + 1;
+        if(depth + height > MAX_DEPTH){
+            throw tooDeep();
+        }
+
+        String oldSubtree = category.getSubtreePath();
+        String newSubtree = path + id + "/";
+        List<CategoryChangedEvent> changes = new ArrayList<>();
+        changes.add(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, id, category.getCategoryName()));
+        try {
+            Instant now = Instant.now();
+            categoryRepository.moveSubtree(oldSubtree, oldSubtree.length(), newSubtree, depth - category.getDepth(), now);
+            categoryRepository.updateParentById(id, parentId, path, depth, now);
+            // read after the UPDATE, which has locked every row it moved
+            for (CategoryNodeDTO node : categoryRepository.findNodesUnder(newSubtree, Integer.MAX_VALUE)) {
+                changes.add(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, node.getCategoryId(), node.getCategoryName()));
+            }
+            categoryChangeLog.appendAll(changes);
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while moving category with id {}", id);
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while moving category with id {}: {}", id, e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        eventPublisher.publishEvent(new CategoryMovedEvent(id, category.getCategoryName(), parentId));
+        changes.forEach(eventPublisher::publishEvent);
+        logger.info("Category with id {} moved under category {} with {} descendants", id, parentId, changes.size() - 1);
+        return CategoryNodeDTO.builder()
+                .categoryId(id)
+                .categoryName(category.getCategoryName())
+                .parentId(parentId)
+                .depth(depth)
+                .build();
+    }
+
+    /**
+     * @return the ancestors of the category, root first; empty for a root
+     */
+    @Timed(value = "category.service", histogram = true)
+    public List<CategoryNodeDTO> getAncestors(Long id) throws CategoryDataAccessException, ApplicationException {
+
+        logger.debug("Fetching ancestors of category with id {}", id);
+
+        if(categoryTree.isReady()){
+            return orNotFound(categoryTree.ancestors(id), id);
+        }
+
+        try {
+            Category category = categoryRepository.findById(id).orElse(null);
+            if(category == null){
+                return orNotFound(null, id);
+            }
+            List<Long> ids = new ArrayList<>(category.getDepth());
+            for (String ancestor : category.getPath().split("/")) {
+                if (!ancestor.isEmpty()) {
+                    ids.add(Long.valueOf(ancestor));
+                }
+            }
+            return ids.isEmpty() ? List.of() : categoryRepository.findNodesByIdIn(ids);
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while fetching ancestors of category with id {}", id);
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (CategoryNotFoundException e){
+            throw e;
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while fetching ancestors of category with id {}: {}", id, e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * @return every category below this one, by depth then id
+     */
+    @Timed(value = "category.service", histogram = true)
+    public List<CategoryNodeDTO> getDescendants(Long id) throws CategoryDataAccessException, ApplicationException {
+
+        logger.debug("Fetching descendants of category with id {}", id);
+        List<CategoryNodeDTO> subtree = subtree(id, MAX_DEPTH);
+        return subtree.subList(1, subtree.size());
+    }
+
+    /**
+     * @return the category followed by the categories at most {@code levels} below it, by depth then id
+     */
+    @Timed(value = "category.service", histogram = true)
+    public List<CategoryNodeDTO> getSubtree(Long id, int levels) throws CategoryDataAccessException, ApplicationException {
+
+        if(levels < 0 || levels > MAX_DEPTH){
+            throw new ApplicationException("depth must be between 0 and " + MAX_DEPTH, HttpStatus.BAD_REQUEST);
+        }
+
+        logger.debug("Fetching subtree of category with id {} down to {} levels", id, levels);
+        return subtree(id, levels);
+    }
+
+    private List<CategoryNodeDTO> subtree(Long id, int levels) throws CategoryDataAccessException, ApplicationException {
+
+        if(categoryTree.isReady()){
+            return orNotFound(categoryTree.subtree(id, levels), id);
+        }
+
+        try {
+            Category category = categoryRepository.findById(id).orElse(null);
+            if(category == null){
+                return orNotFound(null, id);
+            }
+            List<CategoryNodeDTO> below = categoryRepository.findNodesUnder(category.getSubtreePath(), category.getDepth() + levels);
+            List<CategoryNodeDTO> subtree = new ArrayList<>(below.size() + 1);
+            subtree.add(toNode(category));
+            subtree.addAll(below);
+            return subtree;
+        }catch (DataAccessResourceFailureException e){
+            logger.error("Database connection failure while fetching subtree of category with id {}", id);
+            throw new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }catch (CategoryNotFoundException e){
+            throw e;
+        }catch (Exception e){
+            logger.error("An unexpected error occurred while fetching subtree of category with id {}: {}", id, e.getMessage());
+            throw new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * @return the categories among {@code ids} that exist by id, now locked until commit
+     */
+    private Map<Long, Category> lockAll(List<Long> ids) {
+        Map<Long, Category> locked = new HashMap<>();
+        for (Category category : categoryRepository.findAllByIdForUpdate(ids)) {
+            locked.put(category.getCategoryId(), category);
+        }
+        return locked;
+    }
+
+    private static boolean isUnder(Category parent, Category category) {
+        return parent != null && (parent.getCategoryId().equals(category.getCategoryId())
+                || parent.getPath().startsWith(category.getSubtreePath()));
+    }
+
+    private static <T> T orNotFound(T result, Long id) {
+        if(result == null){
+            logger.debug("Category with id {} not found", id);
+            throw new CategoryNotFoundException("category with id " + id + " not found", HttpStatus.NOT_FOUND);
+        }
+        return result;
+    }
+
+    private static ApplicationException tooDeep() {
+        return new ApplicationException("categories cannot be nested more than " + MAX_DEPTH + " levels deep", HttpStatus.BAD_REQUEST);
+    }
+
+    private static CategoryNodeDTO toNode(Category category) {
+        return CategoryNodeDTO.builder()
+                .categoryId(category.getCategoryId())
+                .categoryName(category.getCategoryName())
+                .parentId(category.getParentId())
+                .depth(category.getDepth())
+                .build();
+    }
+}
@@ -0,0 +1,270 @@
+package com.sample.category.service;
+
+import com.sample.category.changefeed.ReactiveCategoryChangeLog;
+import com.sample.category.dto.CategoryChangesDTO;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryListVersion;
+import com.sample.category.dto.CategoryPageDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.exception.ApplicationException;
+import com.sample.category.exception.CategoryDataAccessException;
+import com.sample.category.exception.CategoryNotFoundException;
+import com.sample.category.index.CategoryNameIndex;
+import com.sample.category.mapper.CategoryMapper;
+import com.sample.category.model.CategoryRow;
+import com.sample.category.repository.ReactiveCategoryRepository;
+import com.sample.category.snapshot.CategorySnapshot;
+import com.sample.category.util.NameNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Reactive twin of {@link CategoryService}: same limits, status codes and messages, so both stacks
+ * answer with the same {@code ErrorResponse} contract. Only active when the application runs as a
+ * reactive web application.
+ * <p>
+ * Change events are published after commit on a bounded-elastic thread rather than the Netty event
+ * loop that completed the R2DBC call. The response still waits for the listeners, so a client reads
+ * its own write from the snapshot and caches.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCategoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCategoryService.class);
+
+    private final ReactiveCategoryRepository categoryRepository;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final TransactionalOperator transactionalOperator;
+    private final CategoryMapper categoryMapper;
+    private final CategoryNameIndex categoryNameIndex;
+    private final CategorySnapshot categorySnapshot;
+    private final ReactiveCategoryChangeLog categoryChangeLog;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ReactiveCategoryService(ReactiveCategoryRepository categoryRepository, R2dbcEntityTemplate entityTemplate,
+                                   TransactionalOperator transactionalOperator, CategoryMapper categoryMapper,
+                                   CategoryNameIndex categoryNameIndex, CategorySnapshot categorySnapshot,
+                                   ReactiveCategoryChangeLog categoryChangeLog, ApplicationEventPublisher eventPublisher) {
+        this.categoryRepository = categoryRepository;
+        this.entityTemplate = entityTemplate;
+        this.transactionalOperator = transactionalOperator;
+        this.categoryMapper = categoryMapper;
+        this.categoryNameIndex = categoryNameIndex;
+        this.categorySnapshot = categorySnapshot;
+        this.categoryChangeLog = categoryChangeLog;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public Mono<CategoryDTO> save(CategoryDTO categoryDTO) {
+        logger.debug("Saving category with name {}", categoryDTO.getCategoryName());
+
+        // insert() rather than save(): the row already carries its id, which save() would treat as an update
+        Mono<CategoryRow> insert = categoryRepository.nextCategoryId()
+                .flatMap(id -> entityTemplate.insert(CategoryRow.builder()
+                        .categoryId(id)
+                        .categoryName(categoryDTO.getCategoryName())
+                        .normalizedName(NameNormalizer.normalize(categoryDTO.getCategoryName()))
+                        .version(0L)
+                        .updatedAt(Instant.now())
+                        .path("/")
+                        .depth(0)
+                        .build()))
+                .flatMap(row -> categoryChangeLog.append(CategoryChangedEvent.Type.CREATED, row.getCategoryId(), row.getCategoryName())
+                        .thenReturn(row));
+
+        return insert.as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> {
+                    logger.warn("Category with name {} already exists", categoryDTO.getCategoryName());
+                    return new ApplicationException("category with name " + categoryDTO.getCategoryName() + " already exists", HttpStatus.CONFLICT);
+                })
+                .onErrorMap(e -> translate(e, "saving category with name " + categoryDTO.getCategoryName()))
+                // the listeners merge arrays and take locks, which has no place on the event loop
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(row -> eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED,
+                        row.getCategoryId(), row.getCategoryName())))
+                .map(categoryMapper::toDto);
+    }
+
+    public Flux<CategoryDTO> getAll() {
+        logger.debug("Fetching all categories");
+        Flux<CategoryDTO> categories = categorySnapshot.isReady()
+                ? Flux.defer(() -> Flux.fromIterable(categorySnapshot.getAll()))
+                : categoryRepository.findAllByOrderByCategoryIdAsc()
+                        .onErrorMap(e -> translate(e, "fetching categories"))
+                        .map(categoryMapper::toDto);
+        return categories.switchIfEmpty(Flux.error(() -> new CategoryNotFoundException("categories not found", HttpStatus.NOT_FOUND)));
+    }
+
+    public Mono<CategoryListVersion> getListVersion() {
+        logger.debug("Fetching category list version");
+        return categoryRepository.findListVersion()
+                .onErrorMap(e -> translate(e, "fetching category list version"));
+    }
+
+    public Mono<CategoryPageDTO> getPage(Long after, int limit) {
+        if (limit < 1 || limit > CategoryService.MAX_PAGE_SIZE) {
+            return Mono.error(new ApplicationException("limit must be between 1 and " + CategoryService.MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST));
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Fetching {} categories after id {}", limit, after);
+        }
+        // one extra row tells us whether another page follows without a count query
+        return categoryRepository.findByCategoryIdGreaterThanOrderByCategoryIdAsc(after, Limit.of(limit + 1))
+                .onErrorMap(e -> translate(e, "fetching categories after id " + after))
+                .map(categoryMapper::toDto)
+                .collectList()
+                .map(categories -> {
+                    boolean hasMore = categories.size() > limit;
+                    List<CategoryDTO> page = hasMore ? categories.subList(0, limit) : categories;
+                    return CategoryPageDTO.builder()
+                            .categories(page)
+                            .nextCursor(hasMore ? page.get(page.size() - 1).getCategoryId() : null)
+                            .build();
+                });
+    }
+
+    public Mono<CategoryDTO> getById(Long id) {
+        logger.debug("Fetching category with id {}", id);
+        Mono<CategoryDTO> category = categorySnapshot.isReady()
+                ? Mono.fromSupplier(() -> categorySnapshot.getById(id))
+                : categoryRepository.findById(id)
+                        .onErrorMap(e -> translate(e, "fetching category with id " + id))
+                        .map(categoryMapper::toDto);
+        return category.switchIfEmpty(Mono.error(() -> new CategoryNotFoundException("category with id " + id + " not found", HttpStatus.NOT_FOUND)));
+    }
+
+    public Mono<CategoryDTO> getByName(String name) {
+        logger.debug("Fetching category with name {}", name);
+        return categoryRepository.findByNormalizedName(NameNormalizer.normalize(name))
+                .onErrorMap(e -> translate(e, "fetching category with name " + name))
+                .map(categoryMapper::toDto)
+                .switchIfEmpty(Mono.error(() -> new CategoryNotFoundException("category with name " + name + " not found", HttpStatus.NOT_FOUND)));
+    }
+
+    public Flux<CategoryDTO> searchByPrefix(String prefix, int limit, boolean fuzzy) {
+        if (prefix == null || prefix.isBlank()) {
+            return Flux.error(new ApplicationException("prefix must not be blank", HttpStatus.BAD_REQUEST));
+        }
+        if (limit < 1 || limit > CategoryService.MAX_SEARCH_LIMIT) {
+            return Flux.error(new ApplicationException("limit must be between 1 and " + CategoryService.MAX_SEARCH_LIMIT, HttpStatus.BAD_REQUEST));
+        }
+
+        logger.debug("Searching categories with prefix {}", prefix);
+
+        // the in-memory index never blocks, so it is safe to answer from on the event loop
+        if (categoryNameIndex.isReady()) {
+            return Flux.fromIterable(fuzzy ? categoryNameIndex.searchByPrefixFuzzy(prefix, limit) : categoryNameIndex.searchByPrefix(prefix, limit));
+        }
+
+        return categoryRepository.findByNormalizedNameStartingWithOrderByNormalizedNameAsc(NameNormalizer.normalize(prefix), Limit.of(limit))
+                .onErrorMap(e -> translate(e, "searching categories with prefix " + prefix))
+                .map(categoryMapper::toDto);
+    }
+
+    public Mono<CategoryDTO> updateById(Long id, CategoryDTO categoryDTO) {
+        logger.debug("Updating category with id {}", id);
+
+        Long expectedVersion = categoryDTO.getVersion();
+        String normalizedName = NameNormalizer.normalize(categoryDTO.getCategoryName());
+        Mono<Integer> update = expectedVersion == null
+                ? categoryRepository.updateNameById(id, categoryDTO.getCategoryName(), normalizedName, Instant.now())
+                : categoryRepository.updateNameByIdAndVersion(id, categoryDTO.getCategoryName(), normalizedName, expectedVersion, Instant.now());
+
+        return update
+                .flatMap(updatedRows -> {
+                    if (updatedRows > 0) {
+                        // read back inside the transaction, under the row lock the update took
+                        Mono<Long> version = expectedVersion == null
+                                ? categoryRepository.findVersionById(id)
+                                : Mono.just(expectedVersion + 1);
+                        return categoryChangeLog.append(CategoryChangedEvent.Type.UPDATED, id, categoryDTO.getCategoryName())
+                                .then(version);
+                    }
+                    // only a failed versioned update needs the extra read to tell a conflict from a miss
+                    Mono<Boolean> exists = expectedVersion == null ? Mono.just(false) : categoryRepository.existsById(id);
+                    return exists.flatMap(found -> Mono.error(found
+                            ? new ApplicationException("category with id " + id + " was modified concurrently", HttpStatus.CONFLICT)
+                            : new CategoryNotFoundException("category with id " + id + " not found", HttpStatus.NOT_FOUND)));
+                })
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> {
+                    logger.warn("Category with name {} already exists", categoryDTO.getCategoryName());
+                    return new ApplicationException("category with name " + categoryDTO.getCategoryName() + " already exists", HttpStatus.CONFLICT);
+                })
+                .onErrorMap(e -> translate(e, "updating category with id " + id))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(version -> eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED,
+                        id, categoryDTO.getCategoryName())))
+                .map(version -> CategoryDTO.builder()
+                        .categoryId(id)
+                        .categoryName(categoryDTO.getCategoryName())
+                        .version(version)
+                        .build());
+    }
+
+    public Mono<Void> deleteById(Long id) {
+        logger.debug("Deleting category with id {}", id);
+        // deleted before the children are counted, like the blocking service: only leaves can go
+        return categoryRepository.deleteCategoryById(id)
+                .flatMap(deletedRows -> deletedRows == 0
+                        ? Mono.just(deletedRows)
+                        : categoryRepository.existsByParentId(id).flatMap(hasChildren -> hasChildren
+                                ? Mono.error(new ApplicationException("category with id " + id + " has child categories", HttpStatus.CONFLICT))
+                                : categoryChangeLog.append(CategoryChangedEvent.Type.DELETED, id, null).thenReturn(deletedRows)))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(e -> translate(e, "deleting category with id " + id))
+                .flatMap(deletedRows -> deletedRows == 0
+                        ? Mono.error(new CategoryNotFoundException("category with id " + id + " not found", HttpStatus.NOT_FOUND))
+                        : Mono.just(deletedRows))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(deletedRows -> eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, id, null)))
+                .then();
+    }
+
+    public Mono<CategoryChangesDTO> getChanges(Long since, int limit) {
+        if (since != null && since < 0) {
+            return Mono.error(new ApplicationException("since must not be negative", HttpStatus.BAD_REQUEST));
+        }
+        if (limit < 1 || limit > CategoryService.MAX_PAGE_SIZE) {
+            return Mono.error(new ApplicationException("limit must be between 1 and " + CategoryService.MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST));
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Fetching {} category changes after {}", limit, since);
+        }
+        return categoryChangeLog.changesSince(since, limit)
+                .onErrorMap(e -> translate(e, "fetching category changes after " + since));
+    }
+
+    /**
+     * Same mapping the blocking service applies in its catch blocks; domain exceptions pass through.
+     */
+    private static Throwable translate(Throwable e, String action) {
+        if (e instanceof ApplicationException || e instanceof CategoryNotFoundException || e instanceof CategoryDataAccessException) {
+            return e;
+        }
+        if (e instanceof DataAccessResourceFailureException) {
+            logger.error("Database connection failure while {}", action);
+            return new CategoryDataAccessException("Database connection failure", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        logger.error("An unexpected error occurred while {}: {}", action, e.getMessage());
+        return new ApplicationException("Unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
@@ -0,0 +1,665 @@
+package com.sample.category.snapshot;
+
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.util.HeapSize;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The whole catalog in memory, for id lookups and the full list.
+ * <p>
+ * Categories live in parallel arrays sorted by id (primitive {@code long[]} ids and versions, and
+ * the names), so a lookup is one binary search over a contiguous array and the full list is a
+ * sequential walk. Readers never lock. Writers merge committed changes into fresh arrays and swap
+ * them in; all changes of one transaction are merged with a single copy.
+ * <p>
+ * For catalogs too large to keep on the heap, the loader can serve the rows from a memory-mapped
+ * {@link CategorySnapshotFile} instead; then only the changes since the file was written are held
+ * on the heap.
+ * <p>
+ * Writes made on this instance are merged as their events arrive. Writes made on other instances
+ * reach the snapshot through the change feed: {@link CategorySnapshotLoader} reads it from
+ * {@link #changeSeq()} on and hands the re-read rows to {@link #catchUp}.
+ * <p>
+ * The snapshot is empty and {@linkplain #isReady() not ready} until {@link CategorySnapshotLoader}
+ * fills it; callers use the cache and the database until then.
+ */
+@Component
+public class CategorySnapshot {
+
+    // long id, long version and one reference slot in the String[]
+    private static final long SLOT_BYTES = 8 + 8 + HeapSize.REFERENCE_BYTES;
+
+    private volatile Table table = HeapTable.EMPTY;
+    private volatile boolean ready;
+    // change-feed position the table has caught up with; this instance's own writes may be ahead of it
+    private volatile long changeSeq;
+
+    // serializes writers; readers only follow the volatile fields
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // ids changed while a load is running, read again once the loaded table is built
+    private Set<Long> pending;
+
+    public CategorySnapshot(MeterRegistry meterRegistry) {
+        Gauge.builder("category.snapshot.size", this, snapshot -> snapshot.table.size())
+                .description("Categories held in the in-memory snapshot")
+                .register(meterRegistry);
+        Gauge.builder("category.snapshot.memory", this, snapshot -> snapshot.table.heapBytes())
+                .description("Estimated heap retained by the in-memory snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("category.snapshot.mapped", this, snapshot -> snapshot.table.mappedBytes())
+                .description("Size of the memory-mapped snapshot file, outside the heap")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    public long estimatedBytes() {
+        return table.heapBytes();
+    }
+
+    public long mappedBytes() {
+        return table.mappedBytes();
+    }
+
+    /**
+     * @return changes held on the heap over a mapped snapshot file, 0 when the table is on the heap
+     */
+    public int overlaySize() {
+        return table.overlaySize();
+    }
+
+    /**
+     * @return the change-feed position every change up to which is in the snapshot
+     */
+    public long changeSeq() {
+        return changeSeq;
+    }
+
+    /**
+     * @return the category, or {@code null} when the catalog has no such id
+     */
+    public CategoryDTO getById(long id) {
+        return table.find(id);
+    }
+
+    /**
+     * @return every category in id order, as new DTOs the caller may modify
+     */
+    public List<CategoryDTO> getAll() {
+        return table.all();
+    }
+
+    void beginLoad() {
+        writeLock.lock();
+        try {
+            pending = new HashSet<>();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Installs the loaded rows. Ids that changed while the load ran may or may not be in them, so
+     * they are read again through {@code reread}; an id it does not return has been deleted.
+     */
+    void finishLoad(Builder loaded, Function<Collection<Long>, List<CategoryDTO>> reread) {
+        // trimming the arrays happens before taking the lock; only the re-read and swap are exclusive
+        install(loaded.build(), loaded.changeSeq, List.of(), reread);
+    }
+
+    /**
+     * Serves the catalog from a mapped snapshot file. {@code changed} are the ids the change feed
+     * lists after the file's change seq, up to {@code changeSeq}; they are read again together with
+     * the ids that changed while the file was being opened.
+     */
+    void finishLoad(CategorySnapshotFile file, long changeSeq, Collection<Long> changed,
+                    Function<Collection<Long>, List<CategoryDTO>> reread) {
+        install(new MappedTable(file, new TreeMap<>(), file.size(), 0), changeSeq, changed, reread);
+    }
+
+    private void install(Table loaded, long changeSeq, Collection<Long> changed,
+                         Function<Collection<Long>, List<CategoryDTO>> reread) {
+        writeLock.lock();
+        try {
+            Set<Long> missed = pending;
+            pending = null;
+            missed.addAll(changed);
+            Table built = loaded;
+            if (!missed.isEmpty()) {
+                TreeMap<Long, Entry> changes = new TreeMap<>();
+                for (Long id : missed) {
+                    changes.put(id, null);
+                }
+                for (CategoryDTO category : reread.apply(missed)) {
+                    changes.put(category.getCategoryId(), new Entry(category.getCategoryName(), category.getVersion()));
+                }
+                built = built.merge(changes);
+            }
+            table = built;
+            this.changeSeq = changeSeq;
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void abortLoad() {
+        writeLock.lock();
+        try {
+            pending = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Merges the rows the change feed listed up to {@code changeSeq}, as read again from the
+     * database; an id in {@code changed} without a row has been deleted. A row older than what the
+     * snapshot holds lost a race with a write on this instance and is skipped. The reverse race, a
+     * delete on this instance merged after the rows were read, is undone by the next call, which
+     * finds the delete in the feed.
+     */
+    void catchUp(long changeSeq, Collection<Long> changed, List<CategoryDTO> rows) {
+        writeLock.lock();
+        try {
+            if (!ready || changeSeq <= this.changeSeq) {
+                return;
+            }
+            TreeMap<Long, Entry> changes = new TreeMap<>();
+            for (Long id : changed) {
+                changes.put(id, null);
+            }
+            for (CategoryDTO category : rows) {
+                Entry current = table.entryOf(category.getCategoryId());
+                if (current != null && current.version() > category.getVersion()) {
+                    changes.remove(category.getCategoryId());
+                } else {
+                    changes.put(category.getCategoryId(), new Entry(category.getCategoryName(), category.getVersion()));
+                }
+            }
+            if (!changes.isEmpty()) {
+                table = table.merge(changes);
+            }
+            this.changeSeq = changeSeq;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the catalog as it is now to a new snapshot file at {@code path} and serves from that,
+     * so the overlay starts empty again. The file is written without the lock; changes merged in the
+     * meantime are carried over into the new overlay.
+     *
+     * @return {@code false} when the table is not served from a file
+     */
+    boolean compact(Path path) throws IOException {
+        // the position first: the table read after it holds at least every change up to it
+        long seq = changeSeq;
+        if (!(table instanceof MappedTable written)) {
+            return false;
+        }
+        CategorySnapshotFile file;
+        try (CategorySnapshotFile.Writer writer = CategorySnapshotFile.writer(path)) {
+            written.writeTo(writer);
+            file = writer.commit(seq);
+        }
+        writeLock.lock();
+        try {
+            if (!(table instanceof MappedTable current) || current.file != written.file) {
+                // reloaded while the file was written
+                return false;
+            }
+            table = current.rebase(file, written.overlay);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Inside a transaction the events are collected and merged once it commits, so a batch of a
+     * thousand rows costs one array copy rather than a thousand. Events published outside a
+     * transaction (the reactive service publishes after its commit) are applied straight away.
+     */
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionChanges().add(event);
+        } else {
+            apply(List.of(event));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CategoryChangedEvent> transactionChanges() {
+        List<CategoryChangedEvent> events = (List<CategoryChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (events != null) {
+            return events;
+        }
+        List<CategoryChangedEvent> collected = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, collected);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CategorySnapshot.this);
+                if (status == STATUS_COMMITTED) {
+                    apply(collected);
+                }
+            }
+        });
+        return collected;
+    }
+
+    private void apply(List<CategoryChangedEvent> events) {
+        writeLock.lock();
+        try {
+            if (pending != null) {
+                for (CategoryChangedEvent event : events) {
+                    pending.add(event.getCategoryId());
+                }
+            } else if (ready) {
+                table = table.apply(events);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static long entryBytes(String name) {
+        return SLOT_BYTES + HeapSize.of(name);
+    }
+
+    /**
+     * A category as it will be after a change; {@code null} in place of an entry marks a delete.
+     */
+    private record Entry(String name, long version) {
+    }
+
+    /**
+     * Collects rows that arrive in id order into growing arrays, without a {@link CategoryDTO}
+     * per row staying reachable. {@code changeSeq} is the change-feed position the rows were read at.
+     */
+    static final class Builder {
+
+        private final long changeSeq;
+        private long[] ids;
+        private String[] names;
+        private long[] versions;
+        private int size;
+        private long bytes;
+
+        Builder(int expectedSize, long changeSeq) {
+            this.changeSeq = changeSeq;
+            int capacity = Math.max(16, expectedSize);
+            ids = new long[capacity];
+            names = new String[capacity];
+            versions = new long[capacity];
+        }
+
+        void add(CategoryDTO category) {
+            long id = category.getCategoryId();
+            if (size > 0 && id <= ids[size - 1]) {
+                throw new IllegalStateException("categories must arrive in ascending id order, got " + id + " after " + ids[size - 1]);
+            }
+            if (size == ids.length) {
+                int capacity = size + (size >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                versions = Arrays.copyOf(versions, capacity);
+            }
+            ids[size] = id;
+            names[size] = category.getCategoryName();
+            versions[size] = category.getVersion();
+            bytes += entryBytes(category.getCategoryName());
+            size++;
+        }
+
+        private HeapTable build() {
+            return new HeapTable(Arrays.copyOf(ids, size), Arrays.copyOf(names, size), Arrays.copyOf(versions, size),
+                    HeapTable.HEADER_BYTES + bytes);
+        }
+    }
+
+    /**
+     * An immutable view of the catalog; writers derive a new one and publish it.
+     */
+    private abstract static class Table {
+
+        abstract int size();
+
+        // retained on the heap; a mapped file adds its pages outside of it
+        abstract long heapBytes();
+
+        long mappedBytes() {
+            return 0;
+        }
+
+        int overlaySize() {
+            return 0;
+        }
+
+        /**
+         * @return the category, or {@code null} when there is no such id
+         */
+        abstract CategoryDTO find(long id);
+
+        abstract List<CategoryDTO> all();
+
+        abstract Entry entryOf(long id);
+
+        abstract Table merge(TreeMap<Long, Entry> changes);
+
+        /**
+         * Folds the events into per-id changes first; the database bumps the version by one on
+         * every update, so an update carries the version forward from the row it replaces.
+         */
+        Table apply(List<CategoryChangedEvent> events) {
+            TreeMap<Long, Entry> changes = new TreeMap<>();
+            for (CategoryChangedEvent event : events) {
+                long id = event.getCategoryId();
+                switch (event.getType()) {
+                    case CREATED -> changes.put(id, new Entry(event.getCategoryName(), 0));
+                    case UPDATED -> {
+                        Entry current = changes.containsKey(id) ? changes.get(id) : entryOf(id);
+                        if (current != null) {
+                            changes.put(id, new Entry(event.getCategoryName(), current.version() + 1));
+                        }
+                    }
+                    case DELETED -> changes.put(id, null);
+                }
+            }
+            return changes.isEmpty() ? this : merge(changes);
+        }
+
+        static CategoryDTO toDto(long id, String name, long version) {
+            return CategoryDTO.builder()
+                    .categoryId(id)
+                    .categoryName(name)
+                    .version(version)
+                    .build();
+        }
+    }
+
+    private static final class HeapTable extends Table {
+
+        static final long HEADER_BYTES = 3 * HeapSize.ARRAY_HEADER_BYTES;
+        static final HeapTable EMPTY = new HeapTable(new long[0], new String[0], new long[0], HEADER_BYTES);
+
+        final long[] ids;
+        final String[] names;
+        final long[] versions;
+        final long bytes;
+
+        HeapTable(long[] ids, String[] names, long[] versions, long bytes) {
+            this.ids = ids;
+            this.names = names;
+            this.versions = versions;
+            this.bytes = bytes;
+        }
+
+        @Override
+        int size() {
+            return ids.length;
+        }
+
+        @Override
+        long heapBytes() {
+            return bytes;
+        }
+
+        @Override
+        CategoryDTO find(long id) {
+            int at = Arrays.binarySearch(ids, id);
+            return at < 0 ? null : toDto(ids[at], names[at], versions[at]);
+        }
+
+        @Override
+        List<CategoryDTO> all() {
+            List<CategoryDTO> categories = new ArrayList<>(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                categories.add(toDto(ids[i], names[i], versions[i]));
+            }
+            return categories;
+        }
+
+        @Override
+        Entry entryOf(long id) {
+            int at = Arrays.binarySearch(ids, id);
+            return at < 0 ? null : new Entry(names[at], versions[at]);
+        }
+
+        /**
+         * One pass over the current arrays, copying the runs between changed ids in bulk.
+         */
+        @Override
+        Table merge(TreeMap<Long, Entry> changes) {
+            int size = ids.length;
+            for (Map.Entry<Long, Entry> change : changes.entrySet()) {
+                boolean present = Arrays.binarySearch(ids, change.getKey()) >= 0;
+                size += (change.getValue() != null ? 1 : 0) - (present ? 1 : 0);
+            }
+
+            long[] mergedIds = new long[size];
+            String[] mergedNames = new String[size];
+            long[] mergedVersions = new long[size];
+            long mergedBytes = bytes;
+            int from = 0;
+            int to = 0;
+            for (Map.Entry<Long, Entry> change : changes.entrySet()) {
+                long id = change.getKey();
+                int at = Arrays.binarySearch(ids, from, ids.length, id);
+                int end = at < 0 ? -at - 1 : at;
+                copy(from, end, mergedIds, mergedNames, mergedVersions, to);
+                to += end - from;
+                from = end;
+                if (at >= 0) {
+                    mergedBytes -= entryBytes(names[at]);
+                    from++;
+                }
+                Entry entry = change.getValue();
+                if (entry != null) {
+                    mergedIds[to] = id;
+                    mergedNames[to] = entry.name();
+                    mergedVersions[to] = entry.version();
+                    mergedBytes += entryBytes(entry.name());
+                    to++;
+                }
+            }
+            copy(from, ids.length, mergedIds, mergedNames, mergedVersions, to);
+            return new HeapTable(mergedIds, mergedNames, mergedVersions, mergedBytes);
+        }
+
+        private void copy(int from, int end, long[] toIds, String[] toNames, long[] toVersions, int to) {
+            System.arraycopy(ids, from, toIds, to, end - from);
+            System.arraycopy(names, from, toNames, to, end - from);
+            System.arraycopy(versions, from, toVersions, to, end - from);
+        }
+    }
+
+    /**
+     * A {@link CategorySnapshotFile} read in place, plus the changes committed since it was written.
+     * Only the overlay lives on the heap, and a write copies the overlay rather than the catalog.
+     * Once it holds {@code category.snapshot.max-overlay} changes, the loader folds it into a new
+     * file, which bounds both its size and the cost of that copy.
+     */
+    private static final class MappedTable extends Table {
+
+        // TreeMap node, boxed key and Entry record, roughly
+        private static final long OVERLAY_ENTRY_BYTES = 40 + 16 + 24;
+
+        final CategorySnapshotFile file;
+        final TreeMap<Long, Entry> overlay;
+        final int size;
+        final long bytes;
+
+        MappedTable(CategorySnapshotFile file, TreeMap<Long, Entry> overlay, int size, long bytes) {
+            this.file = file;
+            this.overlay = overlay;
+            this.size = size;
+            this.bytes = bytes;
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        long heapBytes() {
+            return bytes;
+        }
+
+        @Override
+        long mappedBytes() {
+            return file.fileBytes();
+        }
+
+        @Override
+        int overlaySize() {
+            return overlay.size();
+        }
+
+        @Override
+        CategoryDTO find(long id) {
+            Entry entry = entryOf(id);
+            return entry == null ? null : toDto(id, entry.name(), entry.version());
+        }
+
+        @Override
+        Entry entryOf(long id) {
+            if (overlay.containsKey(id)) {
+                return overlay.get(id);
+            }
+            int at = file.indexOf(id);
+            return at < 0 ? null : new Entry(file.name(at), file.version(at));
+        }
+
+        /**
+         * Walks the file and the overlay side by side, both in id order.
+         */
+        @Override
+        List<CategoryDTO> all() {
+            List<CategoryDTO> categories = new ArrayList<>(size);
+            forEach(categories::add);
+            return categories;
+        }
+
+        void writeTo(CategorySnapshotFile.Writer writer) throws IOException {
+            try {
+                forEach(category -> {
+                    try {
+                        writer.add(category);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void forEach(Consumer<CategoryDTO> categories) {
+            Iterator<Map.Entry<Long, Entry>> changes = overlay.entrySet().iterator();
+            Map.Entry<Long, Entry> change = next(changes);
+            for (int i = 0; i < file.size(); i++) {
+                long id = file.id(i);
+                while (change != null && change.getKey() < id) {
+                    addChanged(categories, change);
+                    change = next(changes);
+                }
+                if (change != null && change.getKey() == id) {
+                    addChanged(categories, change);
+                    change = next(changes);
+                } else {
+                    categories.accept(toDto(id, file.name(i), file.version(i)));
+                }
+            }
+            for (; change != null; change = next(changes)) {
+                addChanged(categories, change);
+            }
+        }
+
+        private static Map.Entry<Long, Entry> next(Iterator<Map.Entry<Long, Entry>> changes) {
+            return changes.hasNext() ? changes.next() : null;
+        }
+
+        private static void addChanged(Consumer<CategoryDTO> categories, Map.Entry<Long, Entry> change) {
+            Entry entry = change.getValue();
+            if (entry != null) {
+                categories.accept(toDto(change.getKey(), entry.name(), entry.version()));
+            }
+        }
+
+        @Override
+        Table merge(TreeMap<Long, Entry> changes) {
+            TreeMap<Long, Entry> merged = new TreeMap<>(overlay);
+            int mergedSize = size;
+            long mergedBytes = bytes;
+            for (Map.Entry<Long, Entry> change : changes.entrySet()) {
+                long id = change.getKey();
+                boolean present = entryOf(id) != null;
+                if (overlay.containsKey(id)) {
+                    mergedBytes -= overlayBytes(overlay.get(id));
+                }
+                merged.put(id, change.getValue());
+                mergedBytes += overlayBytes(change.getValue());
+                mergedSize += (change.getValue() != null ? 1 : 0) - (present ? 1 : 0);
+            }
+            return new MappedTable(file, merged, mergedSize, mergedBytes);
+        }
+
+        /**
+         * The same catalog over {@code rewritten}, a file holding this table as it was with
+         * {@code folded} as its overlay. Overlays are copied on write, so an entry still identical to
+         * the folded one is in the file and only the changes merged since stay on the heap.
+         */
+        MappedTable rebase(CategorySnapshotFile rewritten, TreeMap<Long, Entry> folded) {
+            TreeMap<Long, Entry> remaining = new TreeMap<>();
+            long remainingBytes = 0;
+            for (Map.Entry<Long, Entry> change : overlay.entrySet()) {
+                Long id = change.getKey();
+                if (!folded.containsKey(id) || folded.get(id) != change.getValue()) {
+                    remaining.put(id, change.getValue());
+                    remainingBytes += overlayBytes(change.getValue());
+                }
+            }
+            return new MappedTable(rewritten, remaining, size, remainingBytes);
+        }
+
+        private static long overlayBytes(Entry entry) {
+            return OVERLAY_ENTRY_BYTES + (entry == null ? 0 : HeapSize.of(entry.name()));
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.sample.category.snapshot;
+
+import com.sample.category.dto.CategoryDTO;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The catalog snapshot as a file, read in place through a memory mapping:
+ * <pre>
+ * header  magic "CATSNAP1" (8) | format (4) | count (4) | change seq (8) | names offset (8)
+ * index   count x [id (8) | version (8) | name offset (4) | name length (4)], ascending id
+ * names   UTF-8 bytes of every name, in index order
+ * </pre>
+ * The fixed-width index is binary searched in the mapped pages, and only the name of a hit is
+ * decoded, so the catalog costs no heap and no GC time however large it is. {@code change seq}
+ * is the change-feed head the rows were read at; a restart catches up from there.
+ * <p>
+ * A {@code MappedByteBuffer} addresses at most 2 GB, which caps the file at roughly 40 million
+ * categories.
+ */
+final class CategorySnapshotFile {
+
+    private static final long MAGIC = 0x434154534E415031L; // "CATSNAP1"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int ENTRY_BYTES = 24;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final long changeSeq;
+    private final int namesOffset;
+
+    private CategorySnapshotFile(ByteBuffer buffer, int size, long changeSeq, int namesOffset) {
+        this.buffer = buffer;
+        this.size = size;
+        this.changeSeq = changeSeq;
+        this.namesOffset = namesOffset;
+    }
+
+    static CategorySnapshotFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("not a category snapshot file: " + path + " is " + length + " bytes");
+            }
+            // the mapping stays valid after the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getLong(0) != MAGIC || buffer.getInt(8) != FORMAT) {
+                throw new IOException("not a category snapshot file: " + path);
+            }
+            int size = buffer.getInt(12);
+            long namesOffset = buffer.getLong(24);
+            if (size < 0 || namesOffset != HEADER_BYTES + (long) size * ENTRY_BYTES || namesOffset > length) {
+                throw new IOException("truncated category snapshot file: " + path);
+            }
+            return new CategorySnapshotFile(buffer, size, buffer.getLong(16), (int) namesOffset);
+        }
+    }
+
+    static Writer writer(Path target) throws IOException {
+        return new Writer(target);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long changeSeq() {
+        return changeSeq;
+    }
+
+    long fileBytes() {
+        return buffer.capacity();
+    }
+
+    long id(int i) {
+        return buffer.getLong(HEADER_BYTES + i * ENTRY_BYTES);
+    }
+
+    long version(int i) {
+        return buffer.getLong(HEADER_BYTES + i * ENTRY_BYTES + 8);
+    }
+
+    String name(int i) {
+        int entry = HEADER_BYTES + i * ENTRY_BYTES;
+        byte[] bytes = new byte[buffer.getInt(entry + 20)];
+        buffer.get(namesOffset + buffer.getInt(entry + 16), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the index of {@code id}, or {@code -(insertion point) - 1} like {@code Arrays.binarySearch}
+     */
+    int indexOf(long id) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long midId = id(mid);
+            if (midId < id) {
+                lo = mid + 1;
+            } else if (midId > id) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    /**
+     * Streams rows in ascending id order into two part files (index and names), so memory use does
+     * not depend on the row count, then joins them behind the header and moves the result into place
+     * atomically. A crash midway leaves the previous file untouched.
+     */
+    static final class Writer implements Closeable {
+
+        private final Path target;
+        private final Path indexPart;
+        private final Path namesPart;
+        private final DataOutputStream index;
+        private final OutputStream names;
+        private int count;
+        private long namesBytes;
+        private long lastId = Long.MIN_VALUE;
+        private boolean closed;
+
+        private Writer(Path target) throws IOException {
+            Path directory = target.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            this.target = target;
+            this.indexPart = Files.createTempFile(directory, target.getFileName().toString(), ".index");
+            this.namesPart = Files.createTempFile(directory, target.getFileName().toString(), ".names");
+            this.index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPart), 1 << 16));
+            this.names = new BufferedOutputStream(Files.newOutputStream(namesPart), 1 << 16);
+        }
+
+        void add(CategoryDTO category) throws IOException {
+            long id = category.getCategoryId();
+            if (id <= lastId) {
+                throw new IllegalStateException("categories must arrive in ascending id order, got " + id + " after " + lastId);
+            }
+            byte[] name = category.getCategoryName().getBytes(StandardCharsets.UTF_8);
+            if (HEADER_BYTES + (long) (count + 1) * ENTRY_BYTES + namesBytes + name.length > Integer.MAX_VALUE) {
+                throw new IOException("category snapshot would exceed 2 GB at " + count + " categories");
+            }
+            index.writeLong(id);
+            index.writeLong(category.getVersion());
+            index.writeInt((int) namesBytes);
+            index.writeInt(name.length);
+            names.write(name);
+            namesBytes += name.length;
+            lastId = id;
+            count++;
+        }
+
+        /**
+         * Finishes the file, records the change-feed head the rows were read at, and opens it.
+         */
+        CategorySnapshotFile commit(long changeSeq) throws IOException {
+            flushParts();
+            Path joined = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+            try (FileChannel out = FileChannel.open(joined, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putLong(MAGIC)
+                        .putInt(FORMAT)
+                        .putInt(count)
+                        .putLong(changeSeq)
+                        .putLong(HEADER_BYTES + (long) count * ENTRY_BYTES)
+                        .flip();
+                while (header.hasRemaining()) {
+                    out.write(header);
+                }
+                append(out, indexPart);
+                append(out, namesPart);
+                out.force(true);
+            } catch (IOException e) {
+                Files.deleteIfExists(joined);
+                throw e;
+            } finally {
+                close();
+            }
+            Files.move(joined, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return open(target);
+        }
+
+        /**
+         * Drops the part files; the target is only replaced by {@link #commit(long)}.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                flushParts();
+            } finally {
+                Files.deleteIfExists(indexPart);
+                Files.deleteIfExists(namesPart);
+            }
+        }
+
+        private void flushParts() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                index.close();
+            } finally {
+                names.close();
+            }
+        }
+
+        private void append(FileChannel out, Path part) throws IOException {
+            try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                long size = in.size();
+                for (long position = 0; position < size; ) {
+                    position += in.transferTo(position, size - position, out);
+                }
+            }
+        }
+    }
+}
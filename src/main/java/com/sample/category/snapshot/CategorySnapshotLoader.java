@@ -0,0 +1,285 @@
+package com.sample.category.snapshot;
+
+import com.sample.category.changefeed.CategoryChangeLog;
+import com.sample.category.config.CategorySnapshotProperties;
+import com.sample.category.dto.CategoryChangeDTO;
+import com.sample.category.dto.CategoryChangesDTO;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.mapper.CategoryMapper;
+import com.sample.category.model.Category;
+import com.sample.category.repository.CategoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Fills {@link CategorySnapshot} during startup. Runners finish before Spring Boot reports the
+ * application ready, so {@code /actuator/health/readiness} stays {@code OUT_OF_SERVICE} until the
+ * load is done and a load balancer keeps traffic away from the cold instance; anything that arrives
+ * earlier is served from the database. Enabled with {@code category.snapshot.enabled=true}.
+ * <p>
+ * With {@code category.snapshot.file} set, the catalog is served from that file through a memory
+ * mapping instead of the heap. A restart reopens the file and only re-reads the categories the
+ * change feed lists after the file was written; when that is more than
+ * {@code category.snapshot.max-replay}, or the file is missing or unreadable, it is rebuilt from the
+ * database first.
+ * <p>
+ * Once loaded, the snapshot follows writes made on other instances: every
+ * {@code category.snapshot.poll-interval} the loader reads the change feed from the snapshot's
+ * position and re-reads the categories it lists. When the changes held on the heap over a snapshot
+ * file pass {@code category.snapshot.max-overlay}, the file is rewritten from the snapshot itself.
+ */
+@Component
+@ConditionalOnProperty(prefix = "category.snapshot", name = "enabled", havingValue = "true")
+public class CategorySnapshotLoader implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorySnapshotLoader.class);
+
+    // keeps the IN list of a re-read at a size every database plans well
+    private static final int REREAD_CHUNK = 1000;
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+    private final CategoryChangeLog categoryChangeLog;
+    private final CategorySnapshot categorySnapshot;
+    private final CategorySnapshotProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer loadTimer;
+    private final ScheduledExecutorService catchUps = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "category-snapshot-catch-up");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CategorySnapshotLoader(CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+                                  CategoryChangeLog categoryChangeLog, CategorySnapshot categorySnapshot,
+                                  CategorySnapshotProperties properties, PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.categoryRepository = categoryRepository;
+        this.categoryMapper = categoryMapper;
+        this.categoryChangeLog = categoryChangeLog;
+        this.categorySnapshot = categorySnapshot;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.loadTimer = Timer.builder("category.snapshot.load")
+                .description("Time taken to load the category snapshot at startup")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        load();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startCatchUp() {
+        long period = properties.getPollInterval().toMillis();
+        catchUps.scheduleWithFixedDelay(this::pollChangeFeed, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // a poll still running would otherwise query the database while the context closes it (and drops a create-drop schema)
+    @PreDestroy
+    public void stopCatchUp() throws InterruptedException {
+        catchUps.shutdownNow();
+        if (!catchUps.awaitTermination(5, TimeUnit.SECONDS)) {
+            logger.warn("Snapshot catch-up did not stop within 5s");
+        }
+    }
+
+    private void pollChangeFeed() {
+        try {
+            catchUp();
+        } catch (Exception e) {
+            // the next poll starts from the same position
+            logger.warn("Could not read the change feed into the snapshot: {}", e.getMessage());
+            return;
+        }
+        Path path = properties.getFile();
+        if (path != null && categorySnapshot.overlaySize() > properties.getMaxOverlay()) {
+            compact(path);
+        }
+    }
+
+    private void compact(Path path) {
+        logger.info("Folding {} changes into a new snapshot file {}", categorySnapshot.overlaySize(), path);
+        try {
+            categorySnapshot.compact(path);
+        } catch (IOException e) {
+            // the overlay keeps serving; the next poll tries again
+            logger.warn("Could not rewrite the snapshot file: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Merges every change the feed lists after the snapshot's position, a page at a time. Each page
+     * and its rows are read in one transaction, so both come from the same replica.
+     */
+    public void catchUp() {
+        if (!categorySnapshot.isReady()) {
+            return;
+        }
+        boolean more = true;
+        while (more) {
+            more = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                CategoryChangesDTO page = categoryChangeLog.changesSince(categorySnapshot.changeSeq(), REREAD_CHUNK);
+                if (page.getChanges().isEmpty()) {
+                    return false;
+                }
+                Set<Long> ids = new HashSet<>();
+                for (CategoryChangeDTO change : page.getChanges()) {
+                    ids.add(change.getCategoryId());
+                }
+                categorySnapshot.catchUp(page.getNextSince(), ids, reread(ids));
+                return page.isHasMore();
+            }));
+        }
+    }
+
+    public void load() {
+        Path path = properties.getFile();
+        logger.info("Loading categories into the snapshot{}", path == null ? "" : " file " + path);
+        long start = System.nanoTime();
+        categorySnapshot.beginLoad();
+
+        try {
+            if (path == null) {
+                loadOntoHeap();
+            } else {
+                loadMapped(path);
+            }
+        } catch (Exception e) {
+            categorySnapshot.abortLoad();
+            logger.error("Could not load the category snapshot, reads stay on the database: {}", e.getMessage());
+            return;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        loadTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        int size = categorySnapshot.size();
+        long bytes = categorySnapshot.estimatedBytes();
+        logger.info("Snapshot loaded with {} categories in {} ms, ~{} heap bytes, {} mapped bytes",
+                size, TimeUnit.NANOSECONDS.toMillis(elapsed), bytes, categorySnapshot.mappedBytes());
+    }
+
+    private void loadOntoHeap() {
+        CategorySnapshot.Builder loaded = transactionTemplate.execute(status -> {
+            // the head, read with the rows, is where catching up on other instances' writes starts
+            long changeSeq = categoryChangeLog.changesSince(null, 1).getNextSince();
+            // counted in the same transaction as the stream, so the arrays are sized once
+            CategorySnapshot.Builder builder = new CategorySnapshot.Builder(
+                    Math.toIntExact(categoryRepository.count()), changeSeq);
+            try (Stream<CategoryDTO> stream = categoryRepository.streamAll()) {
+                stream.forEach(builder::add);
+            }
+            return builder;
+        });
+        // outside the load transaction: its repeatable-read view would hide the changes being re-read
+        categorySnapshot.finishLoad(loaded, this::reread);
+    }
+
+    private void loadMapped(Path path) {
+        CategorySnapshotFile file = openExisting(path);
+        // the rows are re-read after this, so they are at least as new as the head
+        long head = categoryChangeLog.changesSince(null, 1).getNextSince();
+        if (file != null && file.changeSeq() > head) {
+            // written against another database, or one restored from an older backup
+            logger.warn("The snapshot file is ahead of the change feed, rebuilding it");
+            file = null;
+        }
+        Set<Long> changed = file == null ? null : changedSince(file.changeSeq(), properties.getMaxReplay());
+        if (changed == null) {
+            file = writeFile(path);
+            head = file.changeSeq();
+            changed = changedSince(head, Integer.MAX_VALUE);
+        }
+        categorySnapshot.finishLoad(file, head, changed, this::reread);
+    }
+
+    private CategorySnapshotFile openExisting(Path path) {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return CategorySnapshotFile.open(path);
+        } catch (IOException e) {
+            logger.warn("Could not open the snapshot file, rebuilding it: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private CategorySnapshotFile writeFile(Path path) {
+        logger.info("Writing the snapshot file {} from the database", path);
+        return transactionTemplate.execute(status -> {
+            // head first: every change after it is re-read later, even if the rows below already include it
+            long changeSeq = categoryChangeLog.changesSince(null, 1).getNextSince();
+            try (CategorySnapshotFile.Writer writer = CategorySnapshotFile.writer(path);
+                 Stream<CategoryDTO> stream = categoryRepository.streamAll()) {
+                for (Iterator<CategoryDTO> rows = stream.iterator(); rows.hasNext(); ) {
+                    writer.add(rows.next());
+                }
+                return writer.commit(changeSeq);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * @return the ids the change feed lists after {@code seq}, or {@code null} when there are more than {@code limit}
+     */
+    private Set<Long> changedSince(long seq, int limit) {
+        Set<Long> ids = new HashSet<>();
+        long since = seq;
+        CategoryChangesDTO page;
+        do {
+            page = categoryChangeLog.changesSince(since, REREAD_CHUNK);
+            for (CategoryChangeDTO change : page.getChanges()) {
+                ids.add(change.getCategoryId());
+            }
+            if (ids.size() > limit) {
+                logger.info("More than {} categories changed since the snapshot file was written", limit);
+                return null;
+            }
+            since = page.getNextSince();
+        } while (page.isHasMore());
+        return ids;
+    }
+
+    private List<CategoryDTO> reread(Collection<Long> ids) {
+        List<Long> remaining = new ArrayList<>(ids);
+        List<CategoryDTO> categories = new ArrayList<>(remaining.size());
+        for (int from = 0; from < remaining.size(); from += REREAD_CHUNK) {
+            List<Long> chunk = remaining.subList(from, Math.min(from + REREAD_CHUNK, remaining.size()));
+            for (Category category : categoryRepository.findAllById(chunk)) {
+                categories.add(categoryMapper.toDto(category));
+            }
+        }
+        return categories;
+    }
+}
@@ -0,0 +1,307 @@
+package com.sample.category.tree;
+
+import com.sample.category.dto.CategoryNodeDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.event.CategoryMovedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The category hierarchy held in memory as linked nodes, so ancestor and subtree queries walk
+ * pointers instead of reaching the database. A query only visits the nodes it returns.
+ * <p>
+ * Committed changes are applied in place. A move re-links one node, and its descendants follow
+ * because depths are derived from the parent chain, not stored. A delete unlinks one leaf. That is
+ * why this uses a read/write lock rather than the copy-on-write tables of the snapshot and name index:
+ * copying half a million nodes for every move would cost more than the reads save.
+ * <p>
+ * Empty and {@linkplain #isReady() not ready} until {@link CategoryTreeLoader} has filled it; until
+ * then the hierarchy is read from the database. Writes made on other instances are not seen.
+ */
+@Component
+public class CategoryTree {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryTree.class);
+
+    private static final Comparator<Node> BY_ID = Comparator.comparingLong(node -> node.id);
+
+    // readers share the lock while walking; a writer holds it only to re-link a node
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private volatile boolean ready;
+
+    // changes committed while the load runs, replayed on top of it; null when no load is running
+    private List<Object> pending;
+
+    public CategoryTree(MeterRegistry meterRegistry) {
+        Gauge.builder("category.tree.size", this, CategoryTree::size)
+                .description("Categories held in the in-memory hierarchy")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the ancestors of {@code id}, root first, or {@code null} when there is no such category
+     */
+    public List<CategoryNodeDTO> ancestors(long id) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            if (node == null) {
+                return null;
+            }
+            CategoryNodeDTO[] ancestors = new CategoryNodeDTO[depthOf(node)];
+            int depth = ancestors.length;
+            for (Node parent = node.parent; parent != null; parent = parent.parent) {
+                depth--;
+                ancestors[depth] = toDto(parent, depth);
+            }
+            return Arrays.asList(ancestors);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return {@code id} and its descendants down to {@code levels} below it, by depth then id, or
+     *         {@code null} when there is no such category
+     */
+    public List<CategoryNodeDTO> subtree(long id, int levels) {
+        lock.readLock().lock();
+        try {
+            Node root = nodes.get(id);
+            if (root == null) {
+                return null;
+            }
+            int depth = depthOf(root);
+            List<CategoryNodeDTO> subtree = new ArrayList<>();
+            subtree.add(toDto(root, depth));
+
+            List<Node> level = List.of(root);
+            for (int below = 1; below <= levels && !level.isEmpty(); below++) {
+                List<Node> next = new ArrayList<>();
+                for (Node node : level) {
+                    if (node.children != null) {
+                        next.addAll(node.children);
+                    }
+                }
+                // each child list is in id order, but one level spans many parents
+                next.sort(BY_ID);
+                for (Node node : next) {
+                    subtree.add(toDto(node, depth + below));
+                }
+                level = next;
+            }
+            return subtree;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param rows every category, in id order
+     */
+    void finishLoad(List<CategoryNodeDTO> rows) {
+        lock.writeLock().lock();
+        try {
+            nodes.clear();
+            for (CategoryNodeDTO row : rows) {
+                nodes.put(row.getCategoryId(), new Node(row.getCategoryId(), row.getCategoryName()));
+            }
+            // linking in id order leaves every child list sorted without a sort
+            for (CategoryNodeDTO row : rows) {
+                Node parent = row.getParentId() == null ? null : nodes.get(row.getParentId());
+                if (parent != null) {
+                    parent.append(nodes.get(row.getCategoryId()));
+                }
+            }
+            List<Object> missed = pending;
+            pending = null;
+            missed.forEach(this::apply);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void abortLoad() {
+        lock.writeLock().lock();
+        try {
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        record(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryMoved(CategoryMovedEvent event) {
+        record(event);
+    }
+
+    private void record(Object change) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(change);
+            } else if (ready) {
+                apply(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Object change) {
+        if (change instanceof CategoryMovedEvent moved) {
+            move(moved);
+            return;
+        }
+        CategoryChangedEvent event = (CategoryChangedEvent) change;
+        Long id = event.getCategoryId();
+        switch (event.getType()) {
+            // a created child was already placed by its CategoryMovedEvent
+            case CREATED -> nodes.computeIfAbsent(id, key -> new Node(key, event.getCategoryName()));
+            case UPDATED -> {
+                Node node = nodes.get(id);
+                if (node != null) {
+                    node.name = event.getCategoryName();
+                }
+            }
+            case DELETED -> {
+                Node node = nodes.remove(id);
+                if (node != null) {
+                    unlink(node);
+                }
+            }
+        }
+    }
+
+    private void move(CategoryMovedEvent event) {
+        Node node = nodes.computeIfAbsent(event.getCategoryId(), key -> new Node(key, event.getCategoryName()));
+        Node parent = event.getParentId() == null ? null : nodes.get(event.getParentId());
+        for (Node ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            if (ancestor == node) {
+                // the service rejects these; never link a cycle that would hang every walk
+                logger.warn("Ignoring move of category {} under its own descendant {}", node.id, parent.id);
+                return;
+            }
+        }
+        if (node.parent != null) {
+            node.parent.remove(node);
+        }
+        if (parent != null) {
+            parent.insert(node);
+        }
+    }
+
+    private void unlink(Node node) {
+        if (node.parent != null) {
+            node.parent.remove(node);
+        }
+        // deletes are refused while children exist; should one slip through, they become roots
+        if (node.children != null) {
+            for (Node child : node.children) {
+                child.parent = null;
+            }
+        }
+    }
+
+    private static int depthOf(Node node) {
+        int depth = 0;
+        for (Node parent = node.parent; parent != null; parent = parent.parent) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static CategoryNodeDTO toDto(Node node, int depth) {
+        return CategoryNodeDTO.builder()
+                .categoryId(node.id)
+                .categoryName(node.name)
+                .parentId(node.parent == null ? null : node.parent.id)
+                .depth(depth)
+                .build();
+    }
+
+    private static final class Node {
+
+        private final long id;
+        private String name;
+        private Node parent;
+        // null for a leaf, which most nodes of a deep taxonomy are
+        private List<Node> children;
+
+        private Node(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        private void append(Node child) {
+            if (children == null) {
+                children = new ArrayList<>(4);
+            }
+            children.add(child);
+            child.parent = this;
+        }
+
+        private void insert(Node child) {
+            if (children == null) {
+                children = new ArrayList<>(4);
+            }
+            int at = Collections.binarySearch(children, child, BY_ID);
+            children.add(at < 0 ? -at - 1 : at, child);
+            child.parent = this;
+        }
+
+        private void remove(Node child) {
+            int at = Collections.binarySearch(children, child, BY_ID);
+            if (at >= 0) {
+                children.remove(at);
+            }
+            if (children.isEmpty()) {
+                children = null;
+            }
+            child.parent = null;
+        }
+    }
+}
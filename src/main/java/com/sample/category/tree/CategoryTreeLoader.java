@@ -0,0 +1,56 @@
+package com.sample.category.tree;
+
+import com.sample.category.dto.CategoryNodeDTO;
+import com.sample.category.repository.CategoryRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Fills {@link CategoryTree} once the application is up. Enabled with
+ * {@code category.tree.enabled=true}; without it hierarchy queries go to the database.
+ */
+@Component
+@ConditionalOnProperty(prefix = "category.tree", name = "enabled", havingValue = "true")
+public class CategoryTreeLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryTreeLoader.class);
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryTree categoryTree;
+
+    public CategoryTreeLoader(CategoryRepository categoryRepository, CategoryTree categoryTree) {
+        this.categoryRepository = categoryRepository;
+        this.categoryTree = categoryTree;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void load() {
+        logger.info("Loading the category hierarchy");
+        long start = System.nanoTime();
+        categoryTree.beginLoad();
+
+        List<CategoryNodeDTO> rows = new ArrayList<>();
+        try (Stream<CategoryNodeDTO> stream = categoryRepository.streamAllNodes()) {
+            stream.forEach(rows::add);
+        } catch (Exception e) {
+            categoryTree.abortLoad();
+            logger.error("Could not load the category hierarchy, it stays on the database: {}", e.getMessage());
+            return;
+        }
+
+        categoryTree.finishLoad(rows);
+        logger.info("Category hierarchy loaded with {} categories in {} ms",
+                categoryTree.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,33 @@
+package com.sample.category.util;
+
+/**
+ * Rough retained-heap arithmetic for the in-memory structures, assuming a 64-bit JVM with
+ * compressed oops and compact strings.
+ */
+public final class HeapSize {
+
+    public static final long REFERENCE_BYTES = 4;
+    public static final long ARRAY_HEADER_BYTES = 16;
+    private static final long STRING_HEADER_BYTES = 24;
+
+    private HeapSize() {
+    }
+
+    /**
+     * @return the String object plus its backing array; Latin-1 values take one byte per char
+     */
+    public static long of(String value) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING_HEADER_BYTES + align(ARRAY_HEADER_BYTES + (long) value.length() * bytesPerChar);
+    }
+
+    public static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,13 @@
+package com.sample.category.util;
+
+import java.util.Locale;
+
+public final class NameNormalizer {
+
+    private NameNormalizer() {
+    }
+
+    public static String normalize(String name) {
+        return name == null ? null : name.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,89 @@
+package com.sample.category.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent loads of the same key into one. The first caller runs the loader; callers
+ * that arrive while it is in flight wait for it and get the same result, {@code null} and
+ * exceptions included. Nothing is kept once the load finishes, so this is not a cache.
+ * <p>
+ * Coordination is one {@code putIfAbsent} on a {@link ConcurrentHashMap}, which only contends on
+ * the bin of the key; loads of different keys never wait for each other.
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter shared;
+
+    /**
+     * @param lookup tag value that tells the flights of one registry apart, e.g. {@code id} or {@code name}
+     */
+    public SingleFlight(MeterRegistry meterRegistry, String lookup) {
+        this.loads = Counter.builder("category.lookup.loads")
+                .description("Lookups that ran their database query")
+                .tag("lookup", lookup)
+                .register(meterRegistry);
+        this.shared = Counter.builder("category.lookup.coalesced")
+                .description("Lookups that shared an identical query already in flight instead of running their own")
+                .tag("lookup", lookup)
+                .register(meterRegistry);
+        Gauge.builder("category.lookup.in.flight", inFlight, Map::size)
+                .description("Distinct lookups currently running")
+                .tag("lookup", lookup)
+                .register(meterRegistry);
+    }
+
+    public V load(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            shared.increment();
+            return await(running);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.apply(key);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Lets later callers of {@code key} start a fresh load instead of joining the one in flight,
+     * which may have read the row before a write that has since committed. Callers already waiting
+     * still get its result.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // rethrow what the loader threw, so callers handle it exactly as if they had run it
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+-- Pooled id allocation for category. MySQL has no sequences, so Hibernate emulates
+-- category_seq with a single-row table. With the pooled-lo optimizer the stored value is
+-- the first id of the next block, so seeding it past MAX(id) keeps every existing id valid.
+CREATE TABLE category_seq (next_val BIGINT NOT NULL);
+
+INSERT INTO category_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM category;
@@ -0,0 +1,2 @@
+-- Optimistic-lock version for category; existing rows start at 0.
+ALTER TABLE category ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+-- Normalized (stripped, lower-cased) name for case-insensitive and prefix lookups.
+-- The binary collation makes the unique index compare exactly what the service normalizes,
+-- and keeps LIKE 'prefix%' an index range scan.
+-- Names are required; a row without one gets a placeholder so that it can be normalized.
+UPDATE category SET name = CONCAT('category ', id) WHERE name IS NULL;
+
+ALTER TABLE category ADD COLUMN normalized_name VARCHAR(255) COLLATE utf8mb4_bin NULL;
+
+-- No SQL backfill: TRIM/LOWER differ from NameNormalizer (String.strip, toLowerCase(Locale.ROOT)).
+-- The application fills the column at startup (NormalizedNameBackfill); then apply 007.
@@ -0,0 +1,5 @@
+-- Last write time per row, used as the list validator (count + max(updated_at)) for conditional GETs.
+-- Existing rows get the migration time; the application sets the column on every insert and update.
+ALTER TABLE category ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+CREATE INDEX idx_category_updated_at ON category (updated_at);
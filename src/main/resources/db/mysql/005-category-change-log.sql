@@ -0,0 +1,17 @@
+-- Change log behind GET /api/categories/changes. Rows are written in the same transaction as the
+-- category mutation; seq comes from the one-row counter below, whose row lock is held until commit,
+-- so seq order is commit order and a consumer never steps past a change that is still in flight.
+CREATE TABLE category_change (
+    seq         BIGINT       NOT NULL PRIMARY KEY,
+    category_id BIGINT       NOT NULL,
+    type        VARCHAR(16)  NOT NULL,
+    name        VARCHAR(255) NULL,
+    changed_at  DATETIME(6)  NOT NULL
+);
+
+CREATE TABLE category_change_seq (
+    id       INT    NOT NULL PRIMARY KEY,
+    last_seq BIGINT NOT NULL
+);
+
+INSERT INTO category_change_seq (id, last_seq) VALUES (1, 0);
@@ -0,0 +1,12 @@
+-- Parent/child hierarchy as a materialized path. path lists the ancestor ids, root first ("/1/5/",
+-- "/" for a root), so all descendants of a category are one range scan on idx_category_path:
+-- path LIKE '<path><id>/%', bounded by depth for "n levels below". ascii keeps the index key small.
+-- Existing categories become roots.
+ALTER TABLE category
+    ADD COLUMN parent_id BIGINT NULL,
+    ADD COLUMN path VARCHAR(512) CHARACTER SET ascii COLLATE ascii_bin NOT NULL DEFAULT '/',
+    ADD COLUMN depth INT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_category_parent_id ON category (parent_id);
+
+CREATE INDEX idx_category_path ON category (path, depth);
@@ -0,0 +1,6 @@
+-- Run after a release with NormalizedNameBackfill has started once against this database (see 003).
+-- Names that normalize alike must be resolved first; this lists them:
+--   SELECT normalized_name, COUNT(*) FROM category GROUP BY normalized_name HAVING COUNT(*) > 1;
+ALTER TABLE category MODIFY normalized_name VARCHAR(255) COLLATE utf8mb4_bin NOT NULL;
+
+CREATE UNIQUE INDEX uk_category_normalized_name ON category (normalized_name);
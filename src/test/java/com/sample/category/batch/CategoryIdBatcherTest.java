@@ -0,0 +1,110 @@
+package com.sample.category.batch;
+
+import com.sample.category.config.CategoryBatchingProperties;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.mapper.CategoryMapper;
+import com.sample.category.model.Category;
+import com.sample.category.repository.CategoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CategoryIdBatcherTest {
+
+    private final CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void categoryIdBatcher_fullBatch_isSentAsOneQueryWithoutWaitingForTheWindow() throws Exception {
+
+        CategoryIdBatcher batcher = batcher(Duration.ofSeconds(30), 3);
+        when(categoryRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(category(1L, "Books"), category(2L, "Toys")));
+
+        List<Future<CategoryDTO>> calls = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            long categoryId = id;
+            calls.add(executor.submit(() -> batcher.load(categoryId)));
+        }
+
+        Assertions.assertThat(calls.get(0).get(5, TimeUnit.SECONDS).getCategoryName()).isEqualTo("Books");
+        Assertions.assertThat(calls.get(1).get(5, TimeUnit.SECONDS).getCategoryName()).isEqualTo("Toys");
+        Assertions.assertThat(calls.get(2).get(5, TimeUnit.SECONDS)).isNull();
+        verify(categoryRepository, times(1)).findAllById(Mockito.argThat(ids -> containsExactly(ids, 1L, 2L, 3L)));
+        Assertions.assertThat(meterRegistry.get("category.batch.size").summary().totalAmount()).isEqualTo(3);
+        Assertions.assertThat(meterRegistry.get("category.batch.delay").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    public void categoryIdBatcher_loneCaller_isSentWhenTheWindowCloses() {
+
+        CategoryIdBatcher batcher = batcher(Duration.ofMillis(20), 100);
+        when(categoryRepository.findAllById(anyIterable())).thenReturn(List.of(category(7L, "Garden")));
+
+        Assertions.assertThat(batcher.load(7L).getCategoryName()).isEqualTo("Garden");
+        Assertions.assertThat(batcher.load(7L).getCategoryName()).isEqualTo("Garden");
+
+        verify(categoryRepository, times(2)).findAllById(any());
+        Assertions.assertThat(meterRegistry.get("category.batch.delay").timer().max(TimeUnit.MILLISECONDS))
+                .isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    public void categoryIdBatcher_queryFailure_isRethrownToEveryCaller() {
+
+        CategoryIdBatcher batcher = batcher(Duration.ofSeconds(30), 2);
+        when(categoryRepository.findAllById(anyIterable()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        Future<CategoryDTO> first = executor.submit(() -> batcher.load(1L));
+        Future<CategoryDTO> second = executor.submit(() -> batcher.load(2L));
+
+        for (Future<CategoryDTO> call : List.of(first, second)) {
+            Assertions.assertThatThrownBy(() -> call.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(DataAccessResourceFailureException.class);
+        }
+        verify(categoryRepository, times(1)).findAllById(any());
+    }
+
+    private CategoryIdBatcher batcher(Duration window, int maxSize) {
+        CategoryBatchingProperties properties = new CategoryBatchingProperties();
+        properties.setEnabled(true);
+        properties.setWindow(window);
+        properties.setMaxSize(maxSize);
+        return new CategoryIdBatcher(categoryRepository, new CategoryMapper(), properties, meterRegistry);
+    }
+
+    private static boolean containsExactly(Iterable<Long> ids, Long... expected) {
+        List<Long> actual = new ArrayList<>();
+        ids.forEach(actual::add);
+        return actual.size() == expected.length && actual.containsAll(List.of(expected));
+    }
+
+    private static Category category(Long id, String name) {
+        return Category.builder().categoryId(id).categoryName(name).version(0L).build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.sample.category.cache;
+
+import com.sample.category.changefeed.CategoryChangeLog;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.exception.CategoryNotFoundException;
+import com.sample.category.repository.CategoryRepository;
+import com.sample.category.service.CategoryService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+// the scheduled poll only takes the head; the test polls itself
+@SpringBootTest(properties = "category.cache.poll-interval=1h")
+public class CategoryCacheFeedTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryCacheFeed categoryCacheFeed;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryChangeLog categoryChangeLog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void categoryCacheFeed_poll_evictsWritesFromOtherInstances() throws Exception {
+
+        CategoryDTO saved = categoryService.save(CategoryDTO.builder().categoryName("Feed Books").build());
+        categoryCacheFeed.poll();
+        Assertions.assertThat(categoryService.getById(saved.getCategoryId()).getCategoryName()).isEqualTo("Feed Books");
+
+        // what another instance's rename leaves behind here: the row and the feed change, no local event
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            categoryRepository.updateNameById(saved.getCategoryId(), "Feed Comics", "feed comics", Instant.now());
+            categoryChangeLog.append(CategoryChangedEvent.Type.UPDATED, saved.getCategoryId(), "Feed Comics");
+        });
+        Assertions.assertThat(categoryService.getById(saved.getCategoryId()).getCategoryName()).isEqualTo("Feed Books");
+
+        categoryCacheFeed.poll();
+
+        Assertions.assertThat(categoryService.getById(saved.getCategoryId()).getCategoryName()).isEqualTo("Feed Comics");
+        Assertions.assertThat(categoryService.getByName("feed comics").getCategoryId()).isEqualTo(saved.getCategoryId());
+        Assertions.assertThatThrownBy(() -> categoryService.getByName("Feed Books"))
+                .isInstanceOf(CategoryNotFoundException.class);
+    }
+}
@@ -0,0 +1,58 @@
+package com.sample.category.changefeed;
+
+import com.sample.category.event.CategoryChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CategoryChangeBroadcasterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CategoryChangeBroadcaster broadcaster = new CategoryChangeBroadcaster(3, meterRegistry);
+
+    @Test
+    public void categoryChangeBroadcaster_repeatedChanges_coalesceToLatestPerCategory() {
+
+        AtomicInteger signals = new AtomicInteger();
+        CategoryChangeBroadcaster.Subscription subscription = broadcaster.subscribe(s -> signals.incrementAndGet());
+
+        broadcaster.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 1L, "Books"));
+        broadcaster.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 2L, "Toys"));
+        broadcaster.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 1L, "Novels"));
+
+        Assertions.assertThat(signals.get()).isEqualTo(1);
+        Assertions.assertThat(subscription.poll(10))
+                .extracting(CategoryChangedEvent::getCategoryName)
+                .containsExactly("Toys", "Novels");
+        Assertions.assertThat(meterRegistry.get("category.events.coalesced").counter().count()).isEqualTo(1);
+
+        broadcaster.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, 2L, null));
+        Assertions.assertThat(signals.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void categoryChangeBroadcaster_slowSubscriber_overflowsToResync() {
+
+        CategoryChangeBroadcaster.Subscription slow = broadcaster.subscribe(s -> { });
+        CategoryChangeBroadcaster.Subscription fast = broadcaster.subscribe(s -> { });
+
+        for (long id = 1; id <= 4; id++) {
+            broadcaster.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, id, "Category " + id));
+            if (id < 4) {
+                fast.poll(10);
+            }
+        }
+        broadcaster.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 5L, "Category 5"));
+
+        Assertions.assertThat(slow.takeOverflow()).isTrue();
+        Assertions.assertThat(slow.poll(10)).isEmpty();
+        Assertions.assertThat(slow.takeOverflow()).isFalse();
+        Assertions.assertThat(fast.takeOverflow()).isFalse();
+        Assertions.assertThat(fast.poll(10)).extracting(CategoryChangedEvent::getCategoryId).containsExactly(4L, 5L);
+
+        slow.cancel();
+        Assertions.assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,70 @@
+package com.sample.category.changefeed;
+
+import com.sample.category.dto.CategoryChangeDTO;
+import com.sample.category.dto.CategoryChangesDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(CategoryChangeLog.class)
+public class CategoryChangeLogTest {
+
+    @Autowired
+    private CategoryChangeLog categoryChangeLog;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    public void categoryChangeLog_changesSince_returnsPagesInSequenceOrder() {
+
+        long head = categoryChangeLog.changesSince(null, 10).getNextSince();
+
+        categoryChangeLog.append(CategoryChangedEvent.Type.CREATED, 1L, "Books");
+        categoryChangeLog.appendAll(List.of(
+                new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 1L, "Novels"),
+                new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 2L, "Toys")));
+        categoryChangeLog.append(CategoryChangedEvent.Type.DELETED, 2L, "Toys");
+
+        CategoryChangesDTO first = categoryChangeLog.changesSince(head, 3);
+        CategoryChangesDTO second = categoryChangeLog.changesSince(first.getNextSince(), 3);
+        CategoryChangesDTO empty = categoryChangeLog.changesSince(second.getNextSince(), 3);
+
+        Assertions.assertThat(first.getChanges()).extracting(CategoryChangeDTO::getSeq)
+                .containsExactly(head + 1, head + 2, head + 3);
+        Assertions.assertThat(first.getChanges()).extracting(CategoryChangeDTO::getCategoryName)
+                .containsExactly("Books", "Novels", "Toys");
+        Assertions.assertThat(first.isHasMore()).isTrue();
+
+        CategoryChangeDTO tombstone = second.getChanges().get(0);
+        Assertions.assertThat(second.getChanges()).hasSize(1);
+        Assertions.assertThat(tombstone.getType()).isEqualTo(CategoryChangedEvent.Type.DELETED);
+        Assertions.assertThat(tombstone.getCategoryId()).isEqualTo(2L);
+        Assertions.assertThat(tombstone.getCategoryName()).isNull();
+        Assertions.assertThat(second.isHasMore()).isFalse();
+
+        Assertions.assertThat(empty.getChanges()).isEmpty();
+        Assertions.assertThat(empty.getNextSince()).isEqualTo(head + 4);
+        Assertions.assertThat(categoryChangeLog.changesSince(null, 10).getNextSince()).isEqualTo(head + 4);
+    }
+
+    @Test
+    public void categoryChangeLog_append_failsWithoutSequenceRow() {
+
+        entityManager.getEntityManager().createNativeQuery("delete from category_change_seq").executeUpdate();
+
+        Assertions.assertThatThrownBy(() -> categoryChangeLog.append(CategoryChangedEvent.Type.CREATED, 1L, "Books"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("category_change_seq");
+    }
+}
@@ -0,0 +1,65 @@
+package com.sample.category.changefeed;
+
+import com.sample.category.dto.CategoryChangeDTO;
+import com.sample.category.dto.CategoryChangesDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.service.CategoryService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CategoryChangeWaitersTest {
+
+    private final CategoryService categoryService = mock(CategoryService.class);
+    private final CategoryChangeWaiters changeWaiters = new CategoryChangeWaiters(categoryService, new TaskExecutorAdapter(Runnable::run));
+
+    @Test
+    public void categoryChangeWaiters_commit_completesWaitersOnSameCursorWithOneRead() throws Exception {
+
+        when(categoryService.getChanges(5L, 20)).thenReturn(changes(6L, 7L));
+        DeferredResult<CategoryChangesDTO> first = new DeferredResult<>();
+        DeferredResult<CategoryChangesDTO> second = new DeferredResult<>();
+        changeWaiters.await(5L, 20, changeWaiters.commitCount(), first);
+        changeWaiters.await(5L, 1, changeWaiters.commitCount(), second);
+
+        changeWaiters.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 6L, "Books"));
+
+        Assertions.assertThat(((CategoryChangesDTO) first.getResult()).getChanges()).hasSize(2);
+        CategoryChangesDTO trimmed = (CategoryChangesDTO) second.getResult();
+        Assertions.assertThat(trimmed.getChanges()).extracting(CategoryChangeDTO::getSeq).containsExactly(6L);
+        Assertions.assertThat(trimmed.getNextSince()).isEqualTo(6L);
+        Assertions.assertThat(trimmed.isHasMore()).isTrue();
+        Assertions.assertThat(changeWaiters.size()).isZero();
+        verify(categoryService, times(1)).getChanges(5L, 20);
+    }
+
+    @Test
+    public void categoryChangeWaiters_commitBeforeParking_isNotMissed() throws Exception {
+
+        long seenCommits = changeWaiters.commitCount();
+        changeWaiters.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, 6L, null));
+        when(categoryService.getChanges(5L, 20)).thenReturn(changes(6L));
+
+        DeferredResult<CategoryChangesDTO> result = new DeferredResult<>();
+        changeWaiters.await(5L, 20, seenCommits, result);
+
+        Assertions.assertThat(result.hasResult()).isTrue();
+    }
+
+    private static CategoryChangesDTO changes(Long... seqs) {
+        List<CategoryChangeDTO> changes = new ArrayList<>();
+        for (Long seq : seqs) {
+            changes.add(CategoryChangeDTO.builder().seq(seq).categoryId(seq).type(CategoryChangedEvent.Type.CREATED).build());
+        }
+        return CategoryChangesDTO.builder().changes(changes).nextSince(seqs[seqs.length - 1]).build();
+    }
+}
@@ -0,0 +1,104 @@
+package com.sample.category.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.sample.category.dto.CategoryBatchResultDTO;
+import com.sample.category.dto.CategoryChangeDTO;
+import com.sample.category.dto.CategoryChangesDTO;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryMoveDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.response.ErrorResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.util.List;
+
+public class CategoryProtobufHttpMessageConverterTest {
+
+    private static final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private static final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(new ProtobufFactory()).build();
+
+    private final CategoryProtobufHttpMessageConverter converter =
+            new CategoryProtobufHttpMessageConverter(objectMapper, new SerializationTimer(meterRegistry, "protobuf"));
+
+    @Test
+    public void categoryProtobufConverter_categoryList_roundTripsAndIsSmallerThanJson() throws Exception {
+
+        List<CategoryDTO> categories = List.of(
+                CategoryDTO.builder().categoryId(1L).categoryName("Books").version(3L).build(),
+                CategoryDTO.builder().categoryId(300L).categoryName("Toys").build());
+        JavaType listType = listOf(CategoryDTO.class);
+
+        byte[] body = write(categories, listType);
+        List<CategoryDTO> read = (List<CategoryDTO>) converter.read(listType, null, new MockHttpInputMessage(body));
+
+        Assertions.assertThat(read).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(categories);
+        // unset stays unset rather than becoming 0
+        Assertions.assertThat(read.get(1).getVersion()).isNull();
+        Assertions.assertThat(body.length).isLessThan(new ObjectMapper().writeValueAsBytes(categories).length / 2);
+        Assertions.assertThat(meterRegistry.get("category.serialization").tags("format", "protobuf", "body", "collection").timer().count())
+                .isPositive();
+    }
+
+    @Test
+    public void categoryProtobufConverter_enumsInstantsAndErrors_roundTrip() throws Exception {
+
+        CategoryChangesDTO changes = CategoryChangesDTO.builder()
+                .changes(List.of(CategoryChangeDTO.builder().seq(7L).categoryId(1L).type(CategoryChangedEvent.Type.DELETED)
+                        .changedAt(Instant.parse("2025-03-01T10:15:30.123Z")).build()))
+                .nextSince(7L)
+                .hasMore(true)
+                .build();
+        CategoryChangesDTO readChanges = roundTrip(changes, CategoryChangesDTO.class);
+        Assertions.assertThat(readChanges).usingRecursiveComparison().isEqualTo(changes);
+
+        List<CategoryBatchResultDTO> results = List.of(CategoryBatchResultDTO.builder()
+                .index(0).status(CategoryBatchResultDTO.Status.CONFLICT).message("duplicate").build());
+        JavaType resultsType = listOf(CategoryBatchResultDTO.class);
+        Assertions.assertThat(converter.read(resultsType, null, new MockHttpInputMessage(write(results, resultsType))))
+                .usingRecursiveComparison().isEqualTo(results);
+
+        ErrorResponse error = new ErrorResponse(404, "category with id 9 not found");
+        Assertions.assertThat(roundTrip(error, ErrorResponse.class))
+                .extracting(ErrorResponse::getStatus, ErrorResponse::getMessage, ErrorResponse::getTimeStamp)
+                .containsExactly(404, "category with id 9 not found", error.getTimeStamp());
+    }
+
+    @Test
+    public void categoryProtobufConverter_requestBodies_andUnboundTypes() throws Exception {
+
+        JavaType idsType = listOf(Long.class);
+        Assertions.assertThat(converter.read(idsType, null, new MockHttpInputMessage(write(List.of(1L, 2L, 3L), idsType))))
+                .isEqualTo(List.of(1L, 2L, 3L));
+        // a move to the root is an empty message
+        Assertions.assertThat(roundTrip(new CategoryMoveDTO(), CategoryMoveDTO.class).getParentId()).isNull();
+
+        Assertions.assertThat(converter.canWrite(String.class, String.class, CategoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF)).isFalse();
+        Assertions.assertThat(converter.canRead(listOf(String.class), null, CategoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF)).isFalse();
+        Assertions.assertThat(converter.canWrite(CategoryDTO.class, CategoryDTO.class, CategoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF)).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T roundTrip(T value, Class<T> type) throws Exception {
+        return (T) converter.read(type, null, new MockHttpInputMessage(write(value, type)));
+    }
+
+    private byte[] write(Object value, Type type) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(value, type, CategoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF, output);
+        return output.getBodyAsBytes();
+    }
+
+    private static JavaType listOf(Class<?> elementType) {
+        return objectMapper.getTypeFactory().constructCollectionType(List.class, elementType);
+    }
+}
@@ -1,34 +1,74 @@
 package com.sample.category.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sample.category.cache.CategoryListBody;
+import com.sample.category.cache.CategoryListBodyCache;
+import com.sample.category.changefeed.CategoryChangeWaiters;
+import com.sample.category.changefeed.CategoryEventStreams;
+import com.sample.category.codec.CategoryProtobufHttpMessageConverter;
+import com.sample.category.codec.SerializationTimer;
+import com.sample.category.dto.CategoryBatchResultDTO;
+import com.sample.category.dto.CategoryChangeDTO;
+import com.sample.category.dto.CategoryChangesDTO;
 import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryListVersion;
+import com.sample.category.dto.CategoryMoveDTO;
+import com.sample.category.dto.CategoryNodeDTO;
+import com.sample.category.dto.CategoryPageDTO;
+import com.sample.category.exception.ApplicationException;
 import com.sample.category.exception.CategoryDataAccessException;
 import com.sample.category.model.Category;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.exception.CategoryNotFoundException;
+import com.sample.category.exception.ConcurrencyLimitExceededException;
+import com.sample.category.response.ErrorResponse;
 import com.sample.category.service.CategoryService;
+import com.sample.category.service.CategoryTreeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = CategoryController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import(SimpleMeterRegistry.class)
 @ExtendWith(MockitoExtension.class)
 public class CategoryControllerTest {
 
@@ -38,11 +78,20 @@ public class CategoryControllerTest {
     @MockitoBean
     private CategoryService categoryService;
 
+    @MockitoBean
+    private CategoryTreeService categoryTreeService;
+
+    @MockitoBean
+    private CategoryChangeWaiters changeWaiters;
+
+    @MockitoBean
+    private CategoryEventStreams eventStreams;
+
     @Autowired
     private ObjectMapper objectMapper;
 
-    @MockitoBean
-    private ModelMapper modelMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     private Category category;
 
@@ -76,6 +125,75 @@ public class CategoryControllerTest {
                 .andExpect(jsonPath("$.categoryName").value("Test Category"));
     }
 
+    @Test
+    public void categoryController_saveChildCategory_returnCreatedNode() throws CategoryDataAccessException, Exception {
+        CategoryNodeDTO child = CategoryNodeDTO.builder().categoryId(2L).categoryName("Fiction").parentId(1L).depth(1).build();
+
+        when(categoryTreeService.saveChild(eq(1L), any(CategoryDTO.class))).thenReturn(child);
+
+        mockMvc.perform(post("/api/categories/1/children")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(CategoryDTO.builder().categoryName("Fiction").build())))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "http://localhost/api/categories/2"))
+                .andExpect(jsonPath("$.parentId").value(1))
+                .andExpect(jsonPath("$.depth").value(1));
+    }
+
+    @Test
+    public void categoryController_hierarchy_returnNodesAndMovedCategory() throws CategoryDataAccessException, Exception {
+        List<CategoryNodeDTO> subtree = List.of(
+                CategoryNodeDTO.builder().categoryId(1L).categoryName("Books").depth(0).build(),
+                CategoryNodeDTO.builder().categoryId(2L).categoryName("Fiction").parentId(1L).depth(1).build());
+
+        when(categoryTreeService.getSubtree(1L, 2)).thenReturn(subtree);
+        when(categoryTreeService.move(2L, 5L))
+                .thenReturn(CategoryNodeDTO.builder().categoryId(2L).categoryName("Fiction").parentId(5L).depth(1).build());
+
+        mockMvc.perform(get("/api/categories/1/subtree").param("depth", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].categoryName").value("Fiction"))
+                .andExpect(jsonPath("$[1].depth").value(1));
+        mockMvc.perform(put("/api/categories/2/parent")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(CategoryMoveDTO.builder().parentId(5L).build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.parentId").value(5));
+    }
+
+    @Test
+    public void categoryController_saveCategories_returnPerItemResults() throws CategoryDataAccessException, Exception {
+        CategoryDTO duplicate = CategoryDTO.builder().categoryName("Test Category").build();
+        List<CategoryBatchResultDTO> results = List.of(
+                CategoryBatchResultDTO.builder().index(0).categoryId(1L).status(CategoryBatchResultDTO.Status.CREATED).build(),
+                CategoryBatchResultDTO.builder().index(1).status(CategoryBatchResultDTO.Status.CONFLICT).build());
+
+        when(categoryService.saveAll(any())).thenReturn(results);
+
+        mockMvc.perform(post("/api/categories/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(categoryDTO, duplicate))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].categoryId").value(1))
+                .andExpect(jsonPath("$[1].status").value("CONFLICT"));
+    }
+
+    @Test
+    public void categoryController_deleteCategories_returnPerItemResults() throws CategoryDataAccessException, Exception {
+        List<CategoryBatchResultDTO> results = List.of(
+                CategoryBatchResultDTO.builder().index(0).categoryId(1L).status(CategoryBatchResultDTO.Status.DELETED).build(),
+                CategoryBatchResultDTO.builder().index(1).categoryId(9L).status(CategoryBatchResultDTO.Status.NOT_FOUND).build());
+
+        when(categoryService.deleteAllById(List.of(1L, 9L))).thenReturn(results);
+
+        mockMvc.perform(delete("/api/categories/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1,9]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+    }
+
     @Test
     public void categoryController_updateCategoryById_returnUpdatedCategory() throws CategoryDataAccessException, Exception {
        CategoryDTO updatedCategory = CategoryDTO.builder()
@@ -98,13 +216,180 @@ public class CategoryControllerTest {
         CategoryDTO categoryDTO1 = CategoryDTO.builder().categoryId(2L).categoryName("Category").build();
 
 
-        when(categoryService.getAll()).thenReturn(Arrays.asList(categoryDTO,categoryDTO1));
+        CategoryListVersion version = new CategoryListVersion(2, 7, Instant.ofEpochSecond(1_700_000_000, 123_456_000));
+        when(categoryService.getListVersion()).thenReturn(version);
+        when(categoryService.getAllBody(version)).thenReturn(listBody(version, categoryDTO, categoryDTO1));
 
         mockMvc.perform(get("/api/categories/"))
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[1].categoryName").value("Category"))
+                .andExpect(header().string("ETag", "\"2-7\""))
+                .andExpect(header().string("Last-Modified", "Tue, 14 Nov 2023 22:13:20 GMT"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(status().isOk());
+
+        verify(categoryService, never()).getAll();
+    }
+
+    @Test
+    public void categoryController_getAllCategories_acceptGzip_returnCompressedBody() throws CategoryDataAccessException, Exception {
+        CategoryListVersion version = new CategoryListVersion(1, 6, Instant.ofEpochSecond(1_700_000_000));
+        CategoryListBody body = listBody(version, categoryDTO);
+        when(categoryService.getListVersion()).thenReturn(version);
+        when(categoryService.getAllBody(version)).thenReturn(body);
+
+        mockMvc.perform(get("/api/categories/").header("Accept-Encoding", "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", containsString("Accept-Encoding")))
+                .andExpect(header().string("ETag", "\"1-6-gz\""))
+                .andExpect(content().bytes(body.gzip()));
+
+        mockMvc.perform(get("/api/categories/").header("Accept-Encoding", "gzip;q=0"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("ETag", "\"1-6\""))
+                .andExpect(content().bytes(body.identity()));
+    }
+
+    @Test
+    public void categoryController_getAllCategories_ifNoneMatch_matchesOnlyTheSameEncoding() throws CategoryDataAccessException, Exception {
+        CategoryListVersion version = new CategoryListVersion(1, 6, Instant.ofEpochSecond(1_700_000_000));
+        CategoryListBody body = listBody(version, categoryDTO);
+        when(categoryService.getListVersion()).thenReturn(version);
+        when(categoryService.getAllBody(version)).thenReturn(body);
+
+        mockMvc.perform(get("/api/categories/").header("Accept-Encoding", "gzip").header("If-None-Match", "\"1-6-gz\""))
+                .andExpect(status().isNotModified());
+
+        // a cache holding the gzip body must not get a 304 for a client that cannot decode it
+        mockMvc.perform(get("/api/categories/").header("If-None-Match", "\"1-6-gz\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-6\""))
+                .andExpect(content().bytes(body.identity()));
+    }
+
+    @Test
+    public void categoryController_getAllCategories_newerBody_sentWithItsOwnValidators() throws CategoryDataAccessException, Exception {
+        CategoryListVersion version = new CategoryListVersion(1, 6, Instant.ofEpochSecond(1_700_000_000));
+        CategoryListVersion newer = new CategoryListVersion(2, 9, Instant.ofEpochSecond(1_700_000_060));
+        CategoryListBody body = listBody(newer, categoryDTO);
+        when(categoryService.getListVersion()).thenReturn(version);
+        when(categoryService.getAllBody(version)).thenReturn(body);
+
+        // the validator read first is behind, e.g. a lagging replica; the body was built on the primary
+        mockMvc.perform(get("/api/categories/"))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues("ETag", "\"2-9\""))
+                .andExpect(header().stringValues("Last-Modified", "Tue, 14 Nov 2023 22:14:20 GMT"))
+                .andExpect(content().bytes(body.identity()));
+
+        mockMvc.perform(get("/api/categories/").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues("ETag", "\"2-9-gz\""));
+    }
+
+    @Test
+    public void categoryController_getAllCategories_jsonRefused_skipsJsonBody() throws CategoryDataAccessException, Exception {
+
+        when(categoryService.getListVersion()).thenReturn(new CategoryListVersion(1, 6, Instant.ofEpochSecond(1_700_000_000)));
+        when(categoryService.getAll()).thenReturn(List.of(categoryDTO));
+
+        mockMvc.perform(get("/api/categories/").header("Accept", "application/json;q=0, */*;q=0.5"))
                 .andExpect(status().isOk());
 
+        // the pre-serialized body is JSON, so a client refusing JSON goes through content negotiation
+        verify(categoryService, never()).getAllBody(any());
+        verify(categoryService).getAll();
+    }
+
+    @Test
+    public void categoryController_getAllCategories_binaryAccept_serializesList() throws CategoryDataAccessException, Exception {
+
+        when(categoryService.getListVersion()).thenReturn(new CategoryListVersion(1, 6, Instant.ofEpochSecond(1_700_000_000)));
+        when(categoryService.getAll()).thenReturn(List.of(categoryDTO));
+
+        mockMvc.perform(get("/api/categories/").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+
+        verify(categoryService, never()).getAllBody(any());
+    }
+
+    @Test
+    public void categoryController_getAllCategories_ifNoneMatch_return304WithoutLoadingList() throws CategoryDataAccessException, Exception {
+
+        when(categoryService.getListVersion()).thenReturn(new CategoryListVersion(2, 7, Instant.ofEpochSecond(1_700_000_000, 123_456_000)));
+
+        mockMvc.perform(get("/api/categories/").header("If-None-Match", "\"2-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(categoryService, never()).getAll();
+        verify(categoryService, never()).getAllBody(any());
+    }
+
+    @Test
+    public void categoryController_getCategoriesPage_returnPageWithCursor() throws CategoryDataAccessException, Exception {
+        CategoryDTO categoryDTO1 = CategoryDTO.builder().categoryId(2L).categoryName("Category").build();
+        CategoryPageDTO page = CategoryPageDTO.builder()
+                .categories(List.of(categoryDTO, categoryDTO1))
+                .nextCursor(2L)
+                .build();
+
+        when(categoryService.getPage(0L, 2)).thenReturn(page);
+
+        mockMvc.perform(get("/api/categories/?limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").value(2));
+
+    }
+
+    @Test
+    public void categoryController_getCategoriesPage_afterWithoutLimit_return400() throws Exception {
+
+        mockMvc.perform(get("/api/categories/?after=5"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("limit is required with after"));
+
+        verify(categoryService, never()).getAll();
+        verify(categoryService, never()).getAllBody(any());
+    }
+
+    @Test
+    public void categoryController_streamAllCategories_emptyTable_returnEmptyBody() throws Exception {
+
+        MvcResult result = mockMvc.perform(get("/api/categories/").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void categoryController_streamAllCategories_returnNdjson() throws CategoryDataAccessException, Exception {
+        CategoryDTO categoryDTO1 = CategoryDTO.builder().categoryId(2L).categoryName("Category").build();
+
+        doAnswer(invocation -> {
+            Consumer<CategoryDTO> consumer = invocation.getArgument(0);
+            consumer.accept(categoryDTO);
+            consumer.accept(categoryDTO1);
+            return null;
+        }).when(categoryService).streamAll(any());
+
+        MvcResult result = mockMvc.perform(get("/api/categories/").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"categoryId\":1,\"categoryName\":\"Test Category\",\"version\":null}\n"
+                        + "{\"categoryId\":2,\"categoryName\":\"Category\",\"version\":null}\n"));
+
     }
 
     @Test
@@ -122,6 +407,57 @@ public class CategoryControllerTest {
 
     }
 
+    @Test
+    public void categoryController_getChanges_returnChangesAfterCursor() throws CategoryDataAccessException, Exception {
+
+        CategoryChangesDTO changes = CategoryChangesDTO.builder()
+                .changes(List.of(CategoryChangeDTO.builder().seq(8L).categoryId(1L).type(CategoryChangedEvent.Type.DELETED).build()))
+                .nextSince(8L)
+                .build();
+        when(categoryService.getChanges(7L, 100)).thenReturn(changes);
+
+        MvcResult result = mockMvc.perform(get("/api/categories/changes?since=7&wait=10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].type").value("DELETED"))
+                .andExpect(jsonPath("$.changes[0].categoryName").doesNotExist())
+                .andExpect(jsonPath("$.nextSince").value(8));
+        verify(changeWaiters, never()).await(anyLong(), anyInt(), anyLong(), any());
+    }
+
+    @Test
+    public void categoryController_getChanges_nothingNew_parksRequest() throws CategoryDataAccessException, Exception {
+
+        when(categoryService.getChanges(8L, 50)).thenReturn(CategoryChangesDTO.builder().changes(List.of()).nextSince(8L).build());
+
+        mockMvc.perform(get("/api/categories/changes?since=8&limit=50&wait=10"))
+                .andExpect(request().asyncStarted());
+
+        verify(changeWaiters).await(eq(8L), eq(50), anyLong(), any());
+    }
+
+    @Test
+    public void categoryController_getCategoryById_ifNoneMatch_return304() throws CategoryDataAccessException, Exception {
+
+        categoryDTO.setVersion(3L);
+        when(categoryService.getById(1L)).thenReturn(categoryDTO);
+
+        mockMvc.perform(get("/api/categories/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+
+        mockMvc.perform(get("/api/categories/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/categories/1").header("If-None-Match", "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
     @Test
     public void categoryController_getCategoryByName_returnCategory() throws CategoryDataAccessException, Exception {
 
@@ -138,6 +474,117 @@ public class CategoryControllerTest {
     }
 
 
+    @Test
+    public void categoryController_searchCategoriesByPrefix_returnBoundedList() throws CategoryDataAccessException, Exception {
+
+        when(categoryService.searchByPrefix("tes", 3, false)).thenReturn(List.of(categoryDTO));
+
+        mockMvc.perform(get("/api/categories/search?prefix=tes&limit=3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].categoryName").value("Test Category"));
+
+    }
+
+    @Test
+    public void categoryController_searchCategoriesByPrefix_fuzzy_passesFlag() throws CategoryDataAccessException, Exception {
+
+        when(categoryService.searchByPrefix("tset", 10, true)).thenReturn(List.of(categoryDTO));
+
+        mockMvc.perform(get("/api/categories/search?prefix=tset&fuzzy=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].categoryName").value("Test Category"));
+
+    }
+
+    @Test
+    public void categoryController_saveCategory_blankName_returnBadRequest() throws CategoryDataAccessException, Exception {
+
+        mockMvc.perform(post("/api/categories/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"categoryName\":\" \"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation failed: category name is required"));
+    }
+
+    @Test
+    public void categoryController_getCategoryById_notFound_countsError() throws CategoryDataAccessException, Exception {
+
+        when(categoryService.getById(404L)).thenThrow(new CategoryNotFoundException("category with id 404 not found", HttpStatus.NOT_FOUND));
+
+        mockMvc.perform(get("/api/categories/404"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.message").value("category with id 404 not found"))
+                .andExpect(jsonPath("$.timeStamp").isString());
+
+        Assertions.assertThat(meterRegistry.get("category.errors")
+                .tags("exception", "CategoryNotFoundException", "status", "404")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void categoryController_getCategoryById_overloaded_return503WithRetryAfter() throws CategoryDataAccessException, Exception {
+
+        when(categoryService.getById(1L)).thenThrow(new ConcurrencyLimitExceededException("Service is overloaded, retry later", Duration.ofMillis(1500)));
+
+        mockMvc.perform(get("/api/categories/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.message").value("Service is overloaded, retry later"));
+
+        Assertions.assertThat(meterRegistry.get("category.errors")
+                .tags("exception", "ConcurrencyLimitExceededException", "status", "503")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void categoryController_getCategoryById_negotiatesBinaryFormats() throws CategoryDataAccessException, Exception {
+        CategoryDTO found = CategoryDTO.builder().categoryId(1L).categoryName("Test Category").version(2L).build();
+        ObjectMapper protobufMapper = Jackson2ObjectMapperBuilder.json().factory(new ProtobufFactory()).build();
+        CategoryProtobufHttpMessageConverter protobuf =
+                new CategoryProtobufHttpMessageConverter(protobufMapper, new SerializationTimer(meterRegistry, "protobuf"));
+
+        when(categoryService.getById(1L)).thenReturn(found);
+
+        MvcResult result = mockMvc.perform(get("/api/categories/1").accept(CategoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CategoryProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn();
+        Object decoded = protobuf.read(CategoryDTO.class, null, new MockHttpInputMessage(result.getResponse().getContentAsByteArray()));
+        Assertions.assertThat(decoded).usingRecursiveComparison().isEqualTo(found);
+
+        result = mockMvc.perform(get("/api/categories/1").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andReturn();
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        Assertions.assertThat(smileMapper.readValue(result.getResponse().getContentAsByteArray(), CategoryDTO.class))
+                .usingRecursiveComparison().isEqualTo(found);
+
+        // without Accept, JSON stays the default
+        mockMvc.perform(get("/api/categories/1"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void categoryController_deleteCategoryById_conflict_negotiatesErrorFormat() throws CategoryDataAccessException, Exception {
+        doThrow(new ApplicationException("category with id 1 has child categories", HttpStatus.CONFLICT))
+                .when(categoryService).deleteById(1L);
+
+        MvcResult result = mockMvc.perform(delete("/api/categories/1").accept("application/cbor"))
+                .andExpect(status().isConflict())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn();
+
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        ErrorResponse error = cborMapper.readValue(result.getResponse().getContentAsByteArray(), ErrorResponse.class);
+        Assertions.assertThat(error.getStatus()).isEqualTo(409);
+        Assertions.assertThat(error.getMessage()).isEqualTo("category with id 1 has child categories");
+    }
+
     @Test
     public void categoryController_deleteCategoryById_returnCategory() throws CategoryDataAccessException, Exception {
         doNothing().when(categoryService).deleteById(categoryDTO.getCategoryId());
@@ -150,4 +597,8 @@ public class CategoryControllerTest {
 
 
 
+
+    private CategoryListBody listBody(CategoryListVersion version, CategoryDTO... categories) {
+        return new CategoryListBodyCache(objectMapper, new SimpleMeterRegistry()).put(version, List.of(categories));
+    }
 }
@@ -0,0 +1,263 @@
+package com.sample.category.controller;
+
+import com.sample.category.dto.CategoryChangesDTO;
+import com.sample.category.dto.CategoryDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.main.web-application-type=reactive", "spring.autoconfigure.exclude=",
+                "category.events.heartbeat=200ms"})
+@AutoConfigureWebTestClient
+public class ReactiveCategoryControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void reactiveCategoryController_saveAndGetById_returnCategory() {
+
+        CategoryDTO saved = save("Reactive Books");
+
+        webTestClient.get().uri("/api/categories/{id}", saved.getCategoryId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.categoryName").isEqualTo("Reactive Books")
+                .jsonPath("$.version").isEqualTo(0);
+    }
+
+    @Test
+    public void reactiveCategoryController_getById_ifNoneMatch_return304() {
+
+        CategoryDTO saved = save("Reactive Etag");
+
+        webTestClient.get().uri("/api/categories/{id}", saved.getCategoryId())
+                .header("If-None-Match", "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    public void reactiveCategoryController_getAllCategories_ifNoneMatch_return304UntilChanged() {
+
+        save("Reactive List Etag");
+
+        String eTag = webTestClient.get().uri("/api/categories/")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("Last-Modified")
+                .returnResult(CategoryDTO.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/categories/")
+                .header("If-None-Match", eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        save("Reactive List Etag 2");
+
+        webTestClient.get().uri("/api/categories/")
+                .header("If-None-Match", eTag)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    public void reactiveCategoryController_saveCategory_duplicateName_return409() {
+
+        save("Reactive Games");
+
+        webTestClient.post().uri("/api/categories/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("categoryName", " REACTIVE games"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(409)
+                .jsonPath("$.message").isEqualTo("category with name  REACTIVE games already exists");
+    }
+
+    @Test
+    public void reactiveCategoryController_saveCategory_blankName_returnBadRequest() {
+
+        webTestClient.post().uri("/api/categories/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("categoryName", " "))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Validation failed: category name is required");
+    }
+
+    @Test
+    public void reactiveCategoryController_getCategoryById_notFound_returnErrorResponse() {
+
+        webTestClient.get().uri("/api/categories/{id}", 987654321L)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.message").isEqualTo("category with id 987654321 not found")
+                .jsonPath("$.timeStamp").exists();
+    }
+
+    @Test
+    public void reactiveCategoryController_getCategoryById_notANumber_returnBadRequest() {
+
+        webTestClient.get().uri("/api/categories/abc")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("id must be a number");
+    }
+
+    @Test
+    public void reactiveCategoryController_getCategoriesPage_afterWithoutLimit_return400() {
+
+        webTestClient.get().uri("/api/categories/?after=5")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("limit is required with after");
+    }
+
+    @Test
+    public void reactiveCategoryController_searchByPrefix_returnMatchesInNameOrder() {
+
+        save("Reactive Search Zeta");
+        save("Reactive Search Alpha");
+
+        webTestClient.get().uri("/api/categories/search?prefix=reactive search&limit=5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CategoryDTO.class)
+                .value(categories -> assertThat(categories).extracting(CategoryDTO::getCategoryName)
+                        .containsExactly("Reactive Search Alpha", "Reactive Search Zeta"));
+    }
+
+    @Test
+    public void reactiveCategoryController_getAllCategories_streamsNdjson() {
+
+        CategoryDTO saved = save("Reactive Stream");
+
+        webTestClient.get().uri("/api/categories/")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(CategoryDTO.class)
+                .getResponseBody()
+                .map(CategoryDTO::getCategoryId)
+                .collectList()
+                .as(ids -> assertThat(ids.block()).contains(saved.getCategoryId()));
+    }
+
+    @Test
+    public void reactiveCategoryController_updateCategoryById_staleVersion_return409() {
+
+        CategoryDTO saved = save("Reactive Toys");
+
+        webTestClient.put().uri("/api/categories/{id}", saved.getCategoryId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("categoryName", "Reactive Toys 2", "version", 0))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.version").isEqualTo(1);
+
+        webTestClient.put().uri("/api/categories/{id}", saved.getCategoryId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("categoryName", "Reactive Toys 3", "version", 0))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    public void reactiveCategoryController_getChanges_returnsInsertAndTombstone() {
+
+        long head = webTestClient.get().uri("/api/categories/changes")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CategoryChangesDTO.class)
+                .returnResult().getResponseBody().getNextSince();
+
+        CategoryDTO saved = save("Reactive Feed");
+        webTestClient.delete().uri("/api/categories/{id}", saved.getCategoryId())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.get().uri("/api/categories/changes?since={since}", head)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.changes.length()").isEqualTo(2)
+                .jsonPath("$.changes[0].type").isEqualTo("CREATED")
+                .jsonPath("$.changes[0].categoryName").isEqualTo("Reactive Feed")
+                .jsonPath("$.changes[0].changedAt").exists()
+                .jsonPath("$.changes[1].type").isEqualTo("DELETED")
+                .jsonPath("$.changes[1].categoryId").isEqualTo(saved.getCategoryId())
+                .jsonPath("$.nextSince").isEqualTo(head + 2);
+    }
+
+    @Test
+    public void reactiveCategoryController_streamChanges_pushesCommittedChange() {
+
+        Flux<ServerSentEvent<Map<String, Object>>> events = webTestClient.get().uri("/api/categories/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<Map<String, Object>>>() { })
+                .getResponseBody();
+
+        CategoryDTO saved = save("Reactive Pushed");
+
+        ServerSentEvent<Map<String, Object>> event = events
+                .filter(e -> "category".equals(e.event()))
+                .blockFirst(Duration.ofSeconds(10));
+
+        assertThat(event.data()).containsEntry("type", "CREATED")
+                .containsEntry("categoryName", "Reactive Pushed")
+                .containsEntry("categoryId", saved.getCategoryId().intValue());
+    }
+
+    @Test
+    public void reactiveCategoryController_deleteCategoryById_thenNotFound() {
+
+        CategoryDTO saved = save("Reactive Garden");
+
+        webTestClient.delete().uri("/api/categories/{id}", saved.getCategoryId())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.delete().uri("/api/categories/{id}", saved.getCategoryId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private CategoryDTO save(String name) {
+        return webTestClient.post().uri("/api/categories/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("categoryName", name))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().exists("Location")
+                .expectBody(CategoryDTO.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
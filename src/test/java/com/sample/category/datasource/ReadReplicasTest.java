@@ -0,0 +1,132 @@
+package com.sample.category.datasource;
+
+import com.sample.category.config.CategoryDataSourceProperties;
+import com.sample.category.event.CategoryChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReadReplicasTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JdbcTemplate primary = changeTable("rr-primary");
+    private final JdbcTemplate replica1 = changeTable("rr-replica-1");
+    private final JdbcTemplate replica2 = changeTable("rr-replica-2");
+    private ReadReplicas readReplicas;
+
+    @AfterEach
+    public void shutdown() {
+        readReplicas.shutdown();
+    }
+
+    @Test
+    public void readReplicas_replicaBehindPrimary_getsReadsOnlyWithinMaxLag() throws Exception {
+
+        readReplicas = readReplicas(CategoryDataSourceProperties.Balance.ROUND_ROBIN, Duration.ofMillis(100), "rr-replica-1");
+        applied(primary, 5);
+        applied(replica1, 3);
+
+        readReplicas.checkLag();
+        Assertions.assertThat(readReplicas.route()).isEqualTo(ReadReplicas.PRIMARY);
+
+        applied(replica1, 5);
+        readReplicas.checkLag();
+        Assertions.assertThat(readReplicas.route()).isEqualTo("replica-1");
+
+        // one write behind, as of the previous check: still within max-lag, until max-lag has passed
+        applied(primary, 6);
+        readReplicas.checkLag();
+        Assertions.assertThat(readReplicas.route()).isEqualTo("replica-1");
+        Thread.sleep(150);
+        Assertions.assertThat(readReplicas.route()).isEqualTo(ReadReplicas.PRIMARY);
+        Assertions.assertThat(meterRegistry.get("category.datasource.reads").tag("target", "replica-1").counter().count()).isEqualTo(2);
+        Assertions.assertThat(meterRegistry.get("category.datasource.reads").tag("target", "primary").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void readReplicas_localWrite_sendsReadsToPrimaryUntilAReplicaHasIt() {
+
+        readReplicas = readReplicas(CategoryDataSourceProperties.Balance.ROUND_ROBIN, Duration.ofMinutes(1), "rr-replica-1");
+        readReplicas.checkLag();
+        Assertions.assertThat(readReplicas.route()).isEqualTo("replica-1");
+
+        applied(primary, 1);
+        readReplicas.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 1L, "Books"));
+        Assertions.assertThat(readReplicas.route()).isEqualTo(ReadReplicas.PRIMARY);
+
+        readReplicas.checkLag();
+        Assertions.assertThat(readReplicas.route()).isEqualTo(ReadReplicas.PRIMARY);
+
+        applied(replica1, 1);
+        readReplicas.checkLag();
+        Assertions.assertThat(readReplicas.route()).isEqualTo("replica-1");
+    }
+
+    @Test
+    public void readReplicas_roundRobin_spreadsReadsAndSkipsUnreachableReplicas() {
+
+        readReplicas = readReplicas(CategoryDataSourceProperties.Balance.ROUND_ROBIN, Duration.ofMinutes(1),
+                "rr-replica-1", "rr-replica-2", "rr-no-schema");
+        readReplicas.checkLag();
+
+        List<String> routes = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            routes.add(readReplicas.route());
+        }
+
+        Assertions.assertThat(routes).contains("replica-1", "replica-2").doesNotContain("replica-3", ReadReplicas.PRIMARY);
+        Assertions.assertThat(meterRegistry.get("category.datasource.replica.lag").tag("replica", "replica-3").gauge().value()).isNaN();
+    }
+
+    @Test
+    public void readReplicas_leastConnections_prefersTheIdlestReplica() throws Exception {
+
+        readReplicas = readReplicas(CategoryDataSourceProperties.Balance.LEAST_CONNECTIONS, Duration.ofMinutes(1),
+                "rr-replica-1", "rr-replica-2");
+        readReplicas.checkLag();
+
+        try (Connection busy = readReplicas.replicas()[0].pool.getConnection()) {
+            Assertions.assertThat(readReplicas.route()).isEqualTo("replica-2");
+            Assertions.assertThat(meterRegistry.get("hikaricp.connections.active").tag("pool", "replica-1").gauge().value()).isEqualTo(1);
+        }
+    }
+
+    private ReadReplicas readReplicas(CategoryDataSourceProperties.Balance balance, Duration maxLag, String... databases) {
+        CategoryDataSourceProperties properties = new CategoryDataSourceProperties();
+        properties.setBalance(balance);
+        properties.setMaxLag(maxLag);
+        for (String database : databases) {
+            CategoryDataSourceProperties.Replica replica = new CategoryDataSourceProperties.Replica();
+            replica.setUrl(url(database));
+            replica.setUsername("sa");
+            replica.setPassword("");
+            replica.setMaximumPoolSize(2);
+            properties.getReplicas().add(replica);
+        }
+        return new ReadReplicas(primary.getDataSource(), properties, meterRegistry);
+    }
+
+    private static JdbcTemplate changeTable(String database) {
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url(database), "sa", ""));
+        jdbc.execute("create table if not exists category_change (seq bigint primary key)");
+        jdbc.execute("delete from category_change");
+        return jdbc;
+    }
+
+    private static void applied(JdbcTemplate database, long seq) {
+        database.update("insert into category_change (seq) values (?)", seq);
+    }
+
+    private static String url(String database) {
+        return "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1";
+    }
+}
@@ -0,0 +1,103 @@
+package com.sample.category.datasource;
+
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryNodeDTO;
+import com.sample.category.service.CategoryService;
+import com.sample.category.service.CategoryTreeService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// two H2 databases: testdb is the primary, "replica" gets a copy of it whenever the test replicates
+@SpringBootTest(properties = {
+        "category.datasource.replicas[0].url=jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false",
+        "category.datasource.replicas[0].username=sa",
+        "category.datasource.replicas[0].password=",
+        "category.datasource.lag-check-interval=1h"
+})
+public class ReplicaRoutingDataSourceTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryTreeService categoryTreeService;
+
+    @Autowired
+    private ReadReplicas readReplicas;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void replicaRouting_readsGoToTheReplica_exceptRightAfterALocalWrite() throws Exception {
+
+        CategoryDTO books = categoryService.save(CategoryDTO.builder().categoryName("Replica Books").build());
+        replicate();
+        readReplicas.checkLag();
+        replica().update("update category set name = 'Replica Books (replica)' where id = ?", books.getCategoryId());
+
+        Assertions.assertThat(nameOf(books)).isEqualTo("Replica Books (replica)");
+
+        // the write commits on the primary and the replica has not seen it yet
+        CategoryDTO toys = categoryService.save(CategoryDTO.builder().categoryName("Replica Toys").build());
+
+        Assertions.assertThat(nameOf(toys)).isEqualTo("Replica Toys");
+        Assertions.assertThat(nameOf(books)).isEqualTo("Replica Books");
+
+        replicate();
+        readReplicas.checkLag();
+        replica().update("update category set name = 'Replica Toys (replica)' where id = ?", toys.getCategoryId());
+
+        Assertions.assertThat(nameOf(toys)).isEqualTo("Replica Toys (replica)");
+        Assertions.assertThat(meterRegistry.get("hikaricp.connections").tag("pool", "replica-1").gauge()).isNotNull();
+        Assertions.assertThat(meterRegistry.get("category.datasource.reads").tag("target", "replica-1").counter().count()).isPositive();
+    }
+
+    @Test
+    public void replicaRouting_afterALocalMove_readsGoToThePrimaryUntilTheReplicaHasIt() throws Exception {
+
+        CategoryDTO shelf = categoryService.save(CategoryDTO.builder().categoryName("Replica Shelf").build());
+        CategoryDTO rack = categoryService.save(CategoryDTO.builder().categoryName("Replica Rack").build());
+        replicate();
+        readReplicas.checkLag();
+
+        categoryTreeService.move(shelf.getCategoryId(), rack.getCategoryId());
+        // the move is in the primary's change sequence, so this check does not take the replica for current
+        readReplicas.checkLag();
+
+        Assertions.assertThat(categoryTreeService.getAncestors(shelf.getCategoryId())).extracting(CategoryNodeDTO::getCategoryName)
+                .containsExactly("Replica Rack");
+
+        replicate();
+        readReplicas.checkLag();
+        replica().update("update category set name = 'Replica Rack (replica)' where id = ?", rack.getCategoryId());
+
+        Assertions.assertThat(categoryTreeService.getAncestors(shelf.getCategoryId())).extracting(CategoryNodeDTO::getCategoryName)
+                .containsExactly("Replica Rack (replica)");
+    }
+
+    private String nameOf(CategoryDTO category) throws Exception {
+        return categoryService.getPage(category.getCategoryId() - 1, 1).getCategories().get(0).getCategoryName();
+    }
+
+    // stands in for replication: the replica becomes a copy of the primary as it is now
+    private void replicate() {
+        JdbcTemplate replica = replica();
+        replica.execute("drop all objects");
+        for (String statement : new JdbcTemplate(primaryDataSource).queryForList("script", String.class)) {
+            replica.execute(statement);
+        }
+    }
+
+    private JdbcTemplate replica() {
+        return new JdbcTemplate(readReplicas.replicas()[0].pool);
+    }
+}
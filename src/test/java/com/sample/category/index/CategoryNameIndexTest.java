@@ -0,0 +1,136 @@
+package com.sample.category.index;
+
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class CategoryNameIndexTest {
+
+    private CategoryNameIndex categoryNameIndex;
+
+    @BeforeEach
+    public void init() {
+        categoryNameIndex = new CategoryNameIndex(new SimpleMeterRegistry());
+        categoryNameIndex.beginLoad();
+        categoryNameIndex.finishLoad(List.of(
+                category(1L, "Books"),
+                category(2L, "Bookmarks"),
+                category(3L, "Boots"),
+                category(4L, "Garden"),
+                category(5L, "Toys")));
+    }
+
+    @Test
+    public void categoryNameIndex_searchByPrefix_returnsNameOrder() {
+
+        List<CategoryDTO> categories = categoryNameIndex.searchByPrefix(" BOO", 10);
+
+        Assertions.assertThat(categories).extracting(CategoryDTO::getCategoryName)
+                .containsExactly("Bookmarks", "Books", "Boots");
+    }
+
+    @Test
+    public void categoryNameIndex_searchByPrefix_respectsLimit() {
+
+        List<CategoryDTO> categories = categoryNameIndex.searchByPrefix("boo", 2);
+
+        Assertions.assertThat(categories).extracting(CategoryDTO::getCategoryId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void categoryNameIndex_searchByPrefixFuzzy_matchesOneEditAway() {
+
+        Assertions.assertThat(categoryNameIndex.searchByPrefixFuzzy("gradn", 10)).isEmpty();
+        Assertions.assertThat(categoryNameIndex.searchByPrefixFuzzy("garxen", 10))
+                .extracting(CategoryDTO::getCategoryName).containsExactly("Garden");
+        Assertions.assertThat(categoryNameIndex.searchByPrefixFuzzy("tos", 10))
+                .extracting(CategoryDTO::getCategoryName).containsExactly("Toys");
+        Assertions.assertThat(categoryNameIndex.searchByPrefixFuzzy("gaarden", 10))
+                .extracting(CategoryDTO::getCategoryName).containsExactly("Garden");
+    }
+
+    @Test
+    public void categoryNameIndex_searchByPrefixFuzzy_exactMatchesFirst() {
+
+        List<CategoryDTO> categories = categoryNameIndex.searchByPrefixFuzzy("boot", 10);
+
+        Assertions.assertThat(categories).extracting(CategoryDTO::getCategoryName)
+                .containsExactly("Boots", "Bookmarks", "Books");
+    }
+
+    @Test
+    public void categoryNameIndex_onCategoryChanged_keepsIndexInSync() {
+
+        categoryNameIndex.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 6L, "Board Games"));
+        categoryNameIndex.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 3L, "Garden Tools"));
+        categoryNameIndex.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, 2L, null));
+        categoryNameIndex.rebuild();
+
+        Assertions.assertThat(categoryNameIndex.searchByPrefix("bo", 10))
+                .extracting(CategoryDTO::getCategoryId).containsExactly(6L, 1L);
+        Assertions.assertThat(categoryNameIndex.searchByPrefix("garden", 10))
+                .extracting(CategoryDTO::getCategoryId).containsExactly(4L, 3L);
+        Assertions.assertThat(categoryNameIndex.size()).isEqualTo(5);
+    }
+
+    @Test
+    public void categoryNameIndex_onCategoryChanged_batchesChangesOffTheWritingThread() throws Exception {
+
+        // Boots takes over the key of Books, renamed away in the same batch; Toys is renamed twice
+        categoryNameIndex.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 1L, "Comics"));
+        categoryNameIndex.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 3L, "Books"));
+        categoryNameIndex.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 5L, "Games"));
+        categoryNameIndex.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 5L, "Board Games"));
+
+        Assertions.assertThat(categoryNameIndex.searchByPrefix("comics", 10)).isEmpty();
+        Thread.sleep(10 * CategoryNameIndex.REBUILD_DELAY_MILLIS);
+
+        Assertions.assertThat(categoryNameIndex.searchByPrefix("bo", 10))
+                .extracting(CategoryDTO::getCategoryId).containsExactly(5L, 2L, 3L);
+        Assertions.assertThat(categoryNameIndex.searchByPrefix("c", 10))
+                .extracting(CategoryDTO::getCategoryId).containsExactly(1L);
+        Assertions.assertThat(categoryNameIndex.searchByPrefix("g", 10))
+                .extracting(CategoryDTO::getCategoryId).containsExactly(4L);
+        Assertions.assertThat(categoryNameIndex.size()).isEqualTo(5);
+    }
+
+    @Test
+    public void categoryNameIndex_changesDuringLoad_areReplayed() {
+
+        CategoryNameIndex index = new CategoryNameIndex(new SimpleMeterRegistry());
+        index.beginLoad();
+        index.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, 1L, null));
+        index.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 2L, "Toys"));
+
+        Assertions.assertThat(index.isReady()).isFalse();
+        index.finishLoad(List.of(category(1L, "Books")));
+
+        Assertions.assertThat(index.isReady()).isTrue();
+        Assertions.assertThat(index.searchByPrefix("b", 10)).isEmpty();
+        Assertions.assertThat(index.searchByPrefix("t", 10)).extracting(CategoryDTO::getCategoryId).containsExactly(2L);
+    }
+
+    @Test
+    public void categoryNameIndex_estimatedBytes_tracksEntries() {
+
+        long before = categoryNameIndex.estimatedBytes();
+        categoryNameIndex.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 6L, "Music"));
+        categoryNameIndex.rebuild();
+        long added = categoryNameIndex.estimatedBytes() - before;
+        categoryNameIndex.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, 6L, null));
+        categoryNameIndex.rebuild();
+
+        // "music" key, "Music" display name, two references and a long
+        Assertions.assertThat(added).isEqualTo(16 + 2 * (24 + 24));
+        Assertions.assertThat(categoryNameIndex.estimatedBytes()).isEqualTo(before);
+    }
+
+    private static CategoryDTO category(Long id, String name) {
+        return CategoryDTO.builder().categoryId(id).categoryName(name).build();
+    }
+}
@@ -0,0 +1,185 @@
+package com.sample.category.limit;
+
+import com.sample.category.config.CategoryConcurrencyProperties;
+import com.sample.category.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void limiter_atTheLimit_highPriorityWaitsForAReleasedSlot() throws Exception {
+
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 2, Duration.ofSeconds(5));
+        long first = limiter.acquire(Priority.HIGH);
+        limiter.acquire(Priority.HIGH);
+
+        Future<Long> waiting = executor.submit(() -> limiter.acquire(Priority.HIGH));
+        waitUntil(() -> limiter.waiting() == 1);
+        Assertions.assertThat(waiting.isDone()).isFalse();
+
+        limiter.release(Priority.HIGH, first);
+
+        Assertions.assertThat(waiting.get(5, TimeUnit.SECONDS)).isPositive();
+        Assertions.assertThat(limiter.inFlight()).isEqualTo(2);
+        Assertions.assertThat(meterRegistry.get("category.concurrency.queue").gauge().value()).isZero();
+    }
+
+    @Test
+    public void limiter_lowPriority_isHeldToItsShareAndShedFirst() {
+
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 4, Duration.ofMillis(10));
+        limiter.acquire(Priority.LOW);
+        limiter.acquire(Priority.LOW);
+
+        Assertions.assertThatThrownBy(() -> limiter.acquire(Priority.LOW))
+                .isInstanceOf(ConcurrencyLimitExceededException.class)
+                .extracting(e -> ((ConcurrencyLimitExceededException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(1));
+
+        // the other half of the limit is still free for lookups and writes
+        limiter.acquire(Priority.HIGH);
+        limiter.acquire(Priority.HIGH);
+        Assertions.assertThat(limiter.inFlight()).isEqualTo(4);
+        Assertions.assertThat(meterRegistry.get("category.concurrency.rejected").tag("priority", "low").counter().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("category.concurrency.rejected").tag("priority", "high").counter().count()).isZero();
+    }
+
+    @Test
+    public void limiter_fullQueue_rejectsWithoutWaiting() {
+
+        CategoryConcurrencyProperties properties = properties(1, 1, Duration.ofSeconds(5));
+        properties.setMaxQueue(0);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        limiter.acquire(Priority.HIGH);
+
+        long start = System.nanoTime();
+        Assertions.assertThatThrownBy(() -> limiter.acquire(Priority.HIGH)).isInstanceOf(ConcurrencyLimitExceededException.class);
+
+        Assertions.assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        Assertions.assertThat(meterRegistry.get("category.concurrency.rejected").tag("priority", "high").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void limiter_freedSlot_goesToWaitingHighPriorityBeforeLow() throws Exception {
+
+        CategoryConcurrencyProperties properties = properties(2, 2, Duration.ofSeconds(5));
+        properties.setLowPriorityShare(1.0);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        long first = limiter.acquire(Priority.HIGH);
+        long second = limiter.acquire(Priority.HIGH);
+
+        Future<Long> low = executor.submit(() -> limiter.acquire(Priority.LOW));
+        waitUntil(() -> limiter.waiting() == 1);
+        Future<Long> high = executor.submit(() -> limiter.acquire(Priority.HIGH));
+        waitUntil(() -> limiter.waiting() == 2);
+
+        limiter.release(Priority.HIGH, first);
+        Assertions.assertThat(high.get(5, TimeUnit.SECONDS)).isPositive();
+        Assertions.assertThat(low.isDone()).isFalse();
+
+        limiter.release(Priority.HIGH, second);
+        Assertions.assertThat(low.get(5, TimeUnit.SECONDS)).isPositive();
+    }
+
+    @Test
+    public void limiter_followsLatency_growsWhileSteadyAndShrinksWhenCallsSlowDown() {
+
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 200, Duration.ZERO);
+
+        // saturated at a steady 1ms: room for more
+        for (int i = 0; i < 200; i++) {
+            fill(limiter, Priority.HIGH);
+            limiter.release(Priority.HIGH, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        int grown = limiter.limit();
+        Assertions.assertThat(grown).isGreaterThan(20);
+
+        // the same calls now take 10ms: the service is queueing, so hold fewer of them
+        for (int i = 0; i < 20; i++) {
+            fill(limiter, Priority.HIGH);
+            limiter.release(Priority.HIGH, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        Assertions.assertThat(limiter.limit()).isLessThan(grown / 2).isGreaterThanOrEqualTo(4);
+        Assertions.assertThat(meterRegistry.get("category.concurrency.limit").gauge().value()).isEqualTo(limiter.limit());
+    }
+
+    @Test
+    public void limiter_lightLoad_keepsTheLimitThroughLatencyOutliers() {
+
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 200, Duration.ZERO);
+
+        // one caller at a time, mostly 1ms with every tenth call at 4ms
+        for (int i = 0; i < 200; i++) {
+            limiter.acquire(Priority.HIGH);
+            long rttMillis = i % 10 == 9 ? 4 : 1;
+            limiter.release(Priority.HIGH, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(rttMillis));
+        }
+
+        Assertions.assertThat(limiter.limit()).isEqualTo(20);
+    }
+
+    @Test
+    public void limiter_lowPriorityOnly_growsTheLimitItIsHeldTo() {
+
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 200, Duration.ZERO);
+
+        for (int i = 0; i < 200; i++) {
+            fill(limiter, Priority.LOW);
+            limiter.release(Priority.LOW, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        Assertions.assertThat(limiter.limit()).isGreaterThan(20);
+        Assertions.assertThat(limiter.inFlight()).isGreaterThanOrEqualTo(10);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int minLimit, int maxLimit, Duration queueTimeout) {
+        return new AdaptiveConcurrencyLimiter(properties(minLimit, maxLimit, queueTimeout), meterRegistry);
+    }
+
+    private static CategoryConcurrencyProperties properties(int minLimit, int maxLimit, Duration queueTimeout) {
+        CategoryConcurrencyProperties properties = new CategoryConcurrencyProperties();
+        properties.setInitialLimit(Math.min(maxLimit, 20));
+        properties.setMinLimit(minLimit);
+        properties.setMaxLimit(maxLimit);
+        properties.setQueueTimeout(queueTimeout);
+        return properties;
+    }
+
+    // takes every free slot the priority may hold
+    private static void fill(AdaptiveConcurrencyLimiter limiter, Priority priority) {
+        try {
+            while (true) {
+                limiter.acquire(priority);
+            }
+        } catch (ConcurrencyLimitExceededException full) {
+            // the priority holds all it may
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertThat(System.nanoTime()).as("timed out waiting").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
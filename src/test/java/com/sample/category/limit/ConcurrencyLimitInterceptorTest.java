@@ -0,0 +1,64 @@
+package com.sample.category.limit;
+
+import com.sample.category.config.CategoryConcurrencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+public class ConcurrencyLimitInterceptorTest {
+
+    private final AdaptiveConcurrencyLimiter limiter =
+            new AdaptiveConcurrencyLimiter(new CategoryConcurrencyProperties(), new SimpleMeterRegistry());
+    private final ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(limiter);
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    public void interceptor_holdsASlotUntilTheRequestCompletes() throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        HandlerMethod handler = handler("lookup");
+
+        interceptor.preHandle(request, response, handler);
+        Assertions.assertThat(limiter.inFlight()).isEqualTo(1);
+
+        // the async dispatch that ends a streamed body neither takes a second slot nor keeps the first
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, handler);
+        Assertions.assertThat(limiter.inFlight()).isEqualTo(1);
+        interceptor.afterCompletion(request, response, handler, null);
+        Assertions.assertThat(limiter.inFlight()).isZero();
+
+        interceptor.afterCompletion(request, response, handler, null);
+        Assertions.assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    public void interceptor_unlimitedHandler_takesNoSlot() throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        HandlerMethod handler = handler("longPoll");
+
+        interceptor.preHandle(request, response, handler);
+        Assertions.assertThat(limiter.inFlight()).isZero();
+        interceptor.afterCompletion(request, response, handler, null);
+        Assertions.assertThat(limiter.inFlight()).isZero();
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name));
+    }
+
+    public static class Handlers {
+
+        public void lookup() {
+        }
+
+        @ConcurrencyPriority(Priority.UNLIMITED)
+        public void longPoll() {
+        }
+    }
+}
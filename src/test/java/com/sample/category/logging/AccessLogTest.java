@@ -0,0 +1,53 @@
+package com.sample.category.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+public class AccessLogTest {
+
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger("com.sample.category.access");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    public void init() {
+        appender.start();
+        accessLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        accessLogger.detachAppender(appender);
+    }
+
+    @Test
+    public void accessLog_sampleRateZero_logsServerErrorsOnly() {
+
+        AccessLog accessLog = new AccessLog(0);
+
+        accessLog.record("GET", "/api/categories/1", 200, System.nanoTime());
+        accessLog.record("GET", "/api/categories/2", 404, System.nanoTime());
+        accessLog.record("GET", "/api/categories/3", 503, System.nanoTime());
+
+        Assertions.assertThat(appender.list).hasSize(1);
+        Assertions.assertThat(appender.list.get(0).getFormattedMessage()).startsWith("GET /api/categories/3 503 ");
+    }
+
+    @Test
+    public void accessLog_sampleRateOne_logsEveryRequestWithFields() {
+
+        AccessLog accessLog = new AccessLog(1);
+
+        accessLog.record("GET", "/api/categories/1", 200, System.nanoTime());
+
+        Assertions.assertThat(appender.list).hasSize(1);
+        Assertions.assertThat(appender.list.get(0).getKeyValuePairs())
+                .extracting(pair -> pair.key)
+                .containsExactly("http.request.method", "url.path", "http.response.status_code", "event.duration");
+    }
+}
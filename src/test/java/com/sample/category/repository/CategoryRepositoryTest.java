@@ -1,14 +1,23 @@
 package com.sample.category.repository;
 
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryListVersion;
+import com.sample.category.dto.CategoryNodeDTO;
+import com.sample.category.event.CategoryChangedEvent;
 import com.sample.category.model.Category;
+import com.sample.category.model.CategoryChange;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
@@ -17,6 +26,9 @@ public class CategoryRepositoryTest {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryChangeRepository categoryChangeRepository;
+
     @Test
     public void CategoryRepository_Save_ReturnSavedCategory(){
         //Arrange
@@ -32,6 +44,22 @@ public class CategoryRepositoryTest {
         Assertions.assertThat(savedCategory.getCategoryId()).isGreaterThan(0);
     }
 
+    @Test
+    public void CategoryRepository_SaveAll_AssignsDistinctSequenceIds(){
+        List<Category> categories = List.of(
+                Category.builder().categoryName("Test Category").build(),
+                Category.builder().categoryName("Test Category 1").build(),
+                Category.builder().categoryName("Test Category 2").build());
+
+        List<Category> savedCategories = categoryRepository.saveAllAndFlush(categories);
+
+        Assertions.assertThat(savedCategories).extracting(Category::getCategoryId)
+                .doesNotContainNull()
+                .doesNotHaveDuplicates();
+        Assertions.assertThat(categoryRepository.findByNormalizedNameIn(List.of("test category", "test category 2")))
+                .hasSize(2);
+    }
+
     @Test
     public void CategoryRepository_GetAll_ReturnAllCategories(){
         Category category = Category.builder().categoryName("Test Category").build();
@@ -46,6 +74,30 @@ public class CategoryRepositoryTest {
         Assertions.assertThat(categories.size()).isEqualTo(2);
     }
 
+    @Test
+    public void CategoryRepository_FindPageAfterId_ReturnCategoriesInIdOrder(){
+        Category category = categoryRepository.save(Category.builder().categoryName("Test Category").build());
+        Category category1 = categoryRepository.save(Category.builder().categoryName("Test Category 1").build());
+        Category category2 = categoryRepository.save(Category.builder().categoryName("Test Category 2").build());
+
+        List<Category> page = categoryRepository.findByCategoryIdGreaterThanOrderByCategoryIdAsc(category.getCategoryId(), Limit.of(1));
+
+        Assertions.assertThat(page).hasSize(1);
+        Assertions.assertThat(page.get(0).getCategoryId()).isEqualTo(category1.getCategoryId());
+        Assertions.assertThat(category2.getCategoryId()).isGreaterThan(category1.getCategoryId());
+    }
+
+    @Test
+    public void CategoryRepository_StreamAll_ReturnAllCategoriesAsDTOs(){
+        categoryRepository.save(Category.builder().categoryName("Test Category").build());
+        categoryRepository.save(Category.builder().categoryName("Test Category 1").build());
+
+        try (Stream<CategoryDTO> categories = categoryRepository.streamAll()) {
+            Assertions.assertThat(categories.map(CategoryDTO::getCategoryName))
+                    .containsExactly("Test Category", "Test Category 1");
+        }
+    }
+
     @Test
     public void CategoryRepository_GetById_ReturnCategory() {
         Category category = Category.builder()
@@ -78,6 +130,99 @@ public class CategoryRepositoryTest {
         Assertions.assertThat(updatedCategory.getCategoryName()).isEqualTo("Updated Category");
     }
 
+    @Test
+    public void CategoryRepository_UpdateNameById_BumpsVersion() {
+        Category category = categoryRepository.saveAndFlush(Category.builder().categoryName("Test Category").build());
+        Long version = category.getVersion();
+
+        int updatedRows = categoryRepository.updateNameById(category.getCategoryId(), "Updated Category", "updated category", Instant.now());
+        int staleRows = categoryRepository.updateNameByIdAndVersion(category.getCategoryId(), "Stale Category", "stale category", version, Instant.now());
+
+        Category updatedCategory = categoryRepository.findById(category.getCategoryId()).orElse(null);
+
+        Assertions.assertThat(updatedRows).isEqualTo(1);
+        Assertions.assertThat(staleRows).isZero();
+        Assertions.assertThat(updatedCategory.getCategoryName()).isEqualTo("Updated Category");
+        Assertions.assertThat(updatedCategory.getVersion()).isEqualTo(version + 1);
+        Assertions.assertThat(categoryRepository.findVersionById(category.getCategoryId())).isEqualTo(version + 1);
+    }
+
+    @Test
+    public void CategoryRepository_FindListVersion_ChangesOnInsertUpdateAndDelete() {
+        CategoryListVersion empty = categoryRepository.findListVersion();
+        Category category = categoryRepository.saveAndFlush(Category.builder().categoryName("Versioned").build());
+        logChange(1, category, CategoryChangedEvent.Type.CREATED);
+        CategoryListVersion inserted = categoryRepository.findListVersion();
+
+        // a rename from an instance whose clock lags: max(updated_at) does not move forward, the change sequence does
+        categoryRepository.updateNameById(category.getCategoryId(), "Versioned 2", "versioned 2", inserted.lastModified().minusSeconds(60));
+        logChange(2, category, CategoryChangedEvent.Type.UPDATED);
+        CategoryListVersion updated = categoryRepository.findListVersion();
+
+        categoryRepository.deleteCategoryById(category.getCategoryId());
+        CategoryListVersion deleted = categoryRepository.findListVersion();
+
+        Assertions.assertThat(empty.isEmpty()).isTrue();
+        Assertions.assertThat(inserted.count()).isEqualTo(1);
+        Assertions.assertThat(inserted.seq()).isEqualTo(1);
+        Assertions.assertThat(updated.lastModified()).isBefore(inserted.lastModified());
+        Assertions.assertThat(updated.eTag()).isNotEqualTo(inserted.eTag());
+        Assertions.assertThat(deleted.isEmpty()).isTrue();
+    }
+
+    private void logChange(long seq, Category category, CategoryChangedEvent.Type type) {
+        categoryChangeRepository.saveAndFlush(CategoryChange.builder()
+                .seq(seq)
+                .categoryId(category.getCategoryId())
+                .type(type)
+                .categoryName(category.getCategoryName())
+                .changedAt(Instant.now())
+                .build());
+    }
+
+    @Test
+    public void CategoryRepository_DeleteCategoryById_ReturnAffectedRows() {
+        Category category = categoryRepository.saveAndFlush(Category.builder().categoryName("Test").build());
+
+        Assertions.assertThat(categoryRepository.deleteCategoryById(category.getCategoryId())).isEqualTo(1);
+        Assertions.assertThat(categoryRepository.deleteCategoryById(category.getCategoryId())).isZero();
+    }
+
+    @Test
+    public void CategoryRepository_FindByNormalizedName_IgnoresCaseAndWhitespace() {
+        categoryRepository.save(Category.builder().categoryName("  Electronics ").build());
+
+        Category category = categoryRepository.findByNormalizedName("electronics").orElse(null);
+
+        Assertions.assertThat(category).isNotNull();
+        Assertions.assertThat(category.getCategoryName()).isEqualTo("  Electronics ");
+    }
+
+    @Test
+    public void CategoryRepository_FindByNormalizedNamePrefix_ReturnSortedBoundedList() {
+        categoryRepository.save(Category.builder().categoryName("Electronics").build());
+        categoryRepository.save(Category.builder().categoryName("Electrical").build());
+        categoryRepository.save(Category.builder().categoryName("Elephants").build());
+        categoryRepository.save(Category.builder().categoryName("Books").build());
+
+        List<Category> categories = categoryRepository.findByNormalizedNamePrefix("elec", Limit.of(10));
+        List<Category> limited = categoryRepository.findByNormalizedNamePrefix("el", Limit.of(2));
+        List<Category> wildcard = categoryRepository.findByNormalizedNamePrefix("el_", Limit.of(10));
+
+        Assertions.assertThat(categories).extracting(Category::getCategoryName)
+                .containsExactly("Electrical", "Electronics");
+        Assertions.assertThat(limited).hasSize(2);
+        Assertions.assertThat(wildcard).isEmpty();
+    }
+
+    @Test
+    public void CategoryRepository_SaveDuplicateName_Rejected() {
+        categoryRepository.saveAndFlush(Category.builder().categoryName("Books").build());
+
+        Assertions.assertThatThrownBy(() -> categoryRepository.saveAndFlush(Category.builder().categoryName(" BOOKS").build()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
     @Test
     public void CategoryRepository_DeleteById_ReturnNull() {
        Category category = Category.builder().categoryName("Test").build();
@@ -92,5 +237,45 @@ public class CategoryRepositoryTest {
 
     }
 
+    @Test
+    public void CategoryRepository_MoveSubtree_RewritesPathsAndDepths() {
+        Category books = categoryRepository.saveAndFlush(Category.builder().categoryName("Books").build());
+        Category fiction = categoryRepository.saveAndFlush(child(books, "Fiction"));
+        Category crime = categoryRepository.saveAndFlush(child(fiction, "Crime"));
+        Category media = categoryRepository.saveAndFlush(Category.builder().categoryName("Media").build());
+
+        Assertions.assertThat(categoryRepository.findNodesUnder(books.getSubtreePath(), books.getDepth() + 1))
+                .extracting(CategoryNodeDTO::getCategoryName).containsExactly("Fiction");
+
+        // Fiction becomes a root; Crime comes along one level up
+        String oldPrefix = fiction.getSubtreePath();
+        String newPrefix = "/" + fiction.getCategoryId() + "/";
+        categoryRepository.moveSubtree(oldPrefix, oldPrefix.length(), newPrefix, -1, Instant.now());
+        categoryRepository.updateParentById(fiction.getCategoryId(), null, "/", 0, Instant.now());
+
+        Category movedCrime = categoryRepository.findById(crime.getCategoryId()).orElseThrow();
+        Assertions.assertThat(movedCrime.getPath()).isEqualTo(newPrefix);
+        Assertions.assertThat(movedCrime.getDepth()).isEqualTo(1);
+        Assertions.assertThat(movedCrime.getVersion()).isEqualTo(crime.getVersion() + 1);
+        Assertions.assertThat(categoryRepository.findNodesUnder(newPrefix, Integer.MAX_VALUE))
+                .extracting(CategoryNodeDTO::getCategoryName).containsExactly("Crime");
+        Assertions.assertThat(categoryRepository.findNodesUnder(books.getSubtreePath(), Integer.MAX_VALUE)).isEmpty();
+        Assertions.assertThat(categoryRepository.findParentIdsIn(List.of(books.getCategoryId(), fiction.getCategoryId(), media.getCategoryId())))
+                .containsExactly(fiction.getCategoryId());
+    }
+
+    private static Category child(Category parent, String name) {
+        Category category = Category.builder().categoryName(name).parentId(parent.getCategoryId()).build();
+        category.setPath(parent.getSubtreePath());
+        category.setDepth(parent.getDepth() + 1);
+        return category;
+    }
 
+    @Test
+    public void categoryRepository_findWithoutNormalizedName_returnsNothingOnceFilled() {
+        Category saved = categoryRepository.save(Category.builder().categoryName("Backfilled").build());
+
+        Assertions.assertThat(categoryRepository.findWithoutNormalizedName(Limit.of(10))).isEmpty();
+        Assertions.assertThat(categoryRepository.updateNormalizedNameById(saved.getCategoryId(), "backfilled")).isEqualTo(1);
+    }
 }
@@ -0,0 +1,36 @@
+package com.sample.category.repository;
+
+import com.sample.category.dto.CategoryDTO;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class NormalizedNameBackfillTest {
+
+    @Test
+    public void normalizedNameBackfill_backfill_normalizesLikeTheService() {
+        CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+        when(categoryRepository.findWithoutNormalizedName(Limit.of(NormalizedNameBackfill.BATCH_SIZE)))
+                .thenReturn(List.of(
+                        new CategoryDTO(1L, "\u2003Books\t", 0L),
+                        new CategoryDTO(2L, "\u00a0ISTANBUL", 0L)))
+                .thenReturn(List.of(new CategoryDTO(3L, "\u039f\u0394\u039f\u03a3", 0L)))
+                .thenReturn(List.of());
+
+        NormalizedNameBackfill backfill = new NormalizedNameBackfill(categoryRepository, Mockito.mock(PlatformTransactionManager.class));
+
+        Assertions.assertThat(backfill.backfill()).isEqualTo(3);
+        // strip() takes the em space and tab but keeps the no-break space, and a final sigma lower-cases to a final-form sigma; SQL TRIM/LOWER do neither
+        verify(categoryRepository).updateNormalizedNameById(1L, "books");
+        verify(categoryRepository).updateNormalizedNameById(2L, "\u00a0istanbul");
+        verify(categoryRepository).updateNormalizedNameById(3L, "\u03bf\u03b4\u03bf\u03c2");
+        verify(categoryRepository, times(3)).findWithoutNormalizedName(any());
+    }
+}
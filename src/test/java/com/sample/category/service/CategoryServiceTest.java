@@ -1,11 +1,27 @@
 package com.sample.category.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sample.category.batch.CategoryIdBatcher;
+import com.sample.category.cache.CategoryCache;
+import com.sample.category.cache.CategoryListBody;
+import com.sample.category.cache.CategoryListBodyCache;
+import com.sample.category.changefeed.CategoryChangeLog;
+import com.sample.category.config.CategoryCacheProperties;
+import com.sample.category.dto.CategoryBatchResultDTO;
 import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryListVersion;
+import com.sample.category.dto.CategoryPageDTO;
 import com.sample.category.exception.ApplicationException;
 import com.sample.category.exception.CategoryDataAccessException;
 import com.sample.category.exception.CategoryNotFoundException;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.index.CategoryNameIndex;
+import com.sample.category.mapper.CategoryMapper;
 import com.sample.category.model.Category;
 import com.sample.category.repository.CategoryRepository;
+import com.sample.category.snapshot.CategorySnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,15 +29,26 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,8 +57,35 @@ public class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Spy
+    private CategoryMapper categoryMapper;
+
+    @Spy
+    private CategoryCache categoryCache = new CategoryCache(new CategoryCacheProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private CategoryListBodyCache categoryListBodyCache = new CategoryListBodyCache(new ObjectMapper(), new SimpleMeterRegistry());
+
+    @Mock
+    private CategoryNameIndex categoryNameIndex;
+
+    @Mock
+    private CategorySnapshot categorySnapshot;
+
+    @Mock
+    private CategoryIdBatcher categoryIdBatcher;
+
+    @Mock
+    private CategoryChangeLog categoryChangeLog;
+
     @Mock
-    private ModelMapper modelMapper;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private CategoryService categoryService;
@@ -60,15 +114,9 @@ public class CategoryServiceTest {
     public void categoryService_save_returnSavedCategoryDTO() throws CategoryDataAccessException, ApplicationException {
 
         //act
-        when(categoryRepository.save(any(Category.class)))
+        when(categoryRepository.saveAndFlush(any(Category.class)))
                 .thenReturn(category);
 
-        when(modelMapper.map(any(CategoryDTO.class),eq(Category.class)))
-                .thenReturn(category);
-
-        when(modelMapper.map(Mockito.any(Category.class),Mockito.eq(CategoryDTO.class)))
-                .thenReturn(categoryDTO);
-
         CategoryDTO savedCategory = categoryService.save(categoryDTO);
 
         //assert
@@ -81,14 +129,126 @@ public class CategoryServiceTest {
        when(categoryRepository.findAll())
                .thenReturn(List.of(category));
 
-       when(modelMapper.map(Mockito.any(Category.class),Mockito.eq(CategoryDTO.class)))
-               .thenReturn(categoryDTO);
-
        List<CategoryDTO> categories = categoryService.getAll();
 
        Assertions.assertThat(categories).isNotNull();
        Assertions.assertThat(categories.size()).isEqualTo(1);
+       Assertions.assertThat(meterRegistry.get("category.service.result.size").gauge().value()).isEqualTo(1);
+       Assertions.assertThat(meterRegistry.get("category.mapping").tag("operation", "getAll").timer().count()).isEqualTo(1);
+
+    }
+
+    @Test
+    public void categoryService_getAllBody_buildsOncePerVersion() throws Exception {
+
+       when(categoryRepository.findAll())
+               .thenReturn(List.of(category));
+       CategoryListVersion version = new CategoryListVersion(1, 6, Instant.ofEpochSecond(1_700_000_000));
+       when(categoryRepository.findListVersion())
+               .thenReturn(version);
+
+       CategoryListBody body = categoryService.getAllBody(version);
+
+       Assertions.assertThat(categoryService.getAllBody(version)).isSameAs(body);
+       Assertions.assertThat(new String(body.identity())).isEqualTo("[{\"categoryId\":1,\"categoryName\":\"Test Category\",\"version\":null}]");
+       try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body.gzip()))) {
+          Assertions.assertThat(gzip.readAllBytes()).isEqualTo(body.identity());
+       }
+       verify(categoryRepository, times(1)).findAll();
+
+       CategoryListVersion next = new CategoryListVersion(2, 7, Instant.ofEpochSecond(1_700_000_001));
+       when(categoryRepository.findListVersion())
+               .thenReturn(next);
+
+       Assertions.assertThat(categoryService.getAllBody(next).version()).isEqualTo(next);
+       verify(categoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void categoryService_getAllBody_carriesTheVersionItWasReadAt() throws Exception {
+
+       when(categoryRepository.findAll())
+               .thenReturn(List.of(category));
+       CategoryListVersion requested = new CategoryListVersion(2, 7, Instant.ofEpochSecond(1_700_000_001));
+       CategoryListVersion read = new CategoryListVersion(1, 6, Instant.ofEpochSecond(1_700_000_000));
+       when(categoryRepository.findListVersion())
+               .thenReturn(read);
+
+       CategoryListBody body = categoryService.getAllBody(requested);
+
+       Assertions.assertThat(body.version()).isEqualTo(read);
+       Assertions.assertThat(categoryService.getAllBody(requested)).isSameAs(body);
+       verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void categoryService_getAllBody_replicaBehind_servesTheNewerBodyWithoutRebuilding() throws Exception {
+
+       when(categoryRepository.findAll())
+               .thenReturn(List.of(category));
+       CategoryListVersion newer = new CategoryListVersion(1, 7, Instant.ofEpochSecond(1_700_000_001));
+       CategoryListVersion older = new CategoryListVersion(1, 6, Instant.ofEpochSecond(1_700_000_000));
+       when(categoryRepository.findListVersion())
+               .thenReturn(newer, older);
 
+       CategoryListBody body = categoryService.getAllBody(newer);
+
+       Assertions.assertThat(categoryService.getAllBody(older)).isSameAs(body);
+       verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void categoryService_getAllBody_replicaBehindADroppedBody_readsThePrimary() throws Exception {
+
+       when(categoryRepository.findAll())
+               .thenReturn(List.of(category));
+       CategoryListVersion sent = new CategoryListVersion(1, 7, Instant.ofEpochSecond(1_700_000_001));
+       CategoryListVersion behind = new CategoryListVersion(1, 6, Instant.ofEpochSecond(1_700_000_000));
+       CategoryListVersion primary = new CategoryListVersion(1, 8, Instant.ofEpochSecond(1_700_000_002));
+       when(categoryRepository.findListVersion())
+               .thenReturn(sent, behind, primary);
+       categoryService.getAllBody(sent);
+       categoryListBodyCache.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 1L, "Test Category"));
+
+       Assertions.assertThat(categoryService.getAllBody(behind).version()).isEqualTo(primary);
+       verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+       verify(categoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void categoryService_getAllBody_emptyTable_throwNotFound() {
+
+       when(categoryRepository.findAll())
+               .thenReturn(Collections.emptyList());
+       when(categoryRepository.findListVersion())
+               .thenReturn(new CategoryListVersion(0, 0, null));
+
+       Assertions.assertThatThrownBy(() -> categoryService.getAllBody(new CategoryListVersion(0, 0, null)))
+               .isInstanceOf(CategoryNotFoundException.class);
+    }
+
+    @Test
+    public void categoryService_getPage_returnNextCursorWhenMoreRows() throws CategoryDataAccessException, ApplicationException {
+
+       Category category1 = Category.builder().categoryId(2L).categoryName("Category").build();
+
+       when(categoryRepository.findByCategoryIdGreaterThanOrderByCategoryIdAsc(0L, Limit.of(2)))
+               .thenReturn(List.of(category, category1));
+
+       CategoryPageDTO page = categoryService.getPage(0L, 1);
+
+       Assertions.assertThat(page.getCategories().size()).isEqualTo(1);
+       Assertions.assertThat(page.getNextCursor()).isEqualTo(1L);
+
+    }
+
+    @Test
+    public void categoryService_getPage_invalidLimit_shouldReturn400(){
+
+        Assertions.assertThatThrownBy(()->categoryService.getPage(0L, CategoryService.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(ApplicationException.class)
+                .extracting("httpStatus")
+                .isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
     @Test
@@ -97,9 +257,6 @@ public class CategoryServiceTest {
        when(categoryRepository.findById(category.getCategoryId()))
                .thenReturn(Optional.of(category));
 
-       when(modelMapper.map(Mockito.any(Category.class),Mockito.eq(CategoryDTO.class)))
-               .thenReturn(categoryDTO);
-
        CategoryDTO foundCategory = categoryService.getById(category.getCategoryId());
 
          Assertions.assertThat(foundCategory).isNotNull();
@@ -114,14 +271,9 @@ public class CategoryServiceTest {
 //            CategoryDTO categoryDTO = CategoryDTO.builder().categoryId(1L).categoryName("Test Category").build();
 //            Category category = Category.builder().categoryId(1L).categoryName("Test Category").build();
 
-            when(categoryRepository.findById(category.getCategoryId())).
-                    thenReturn(Optional.of(category));
-            when(categoryRepository.save(Mockito.any(Category.class)))
-                        .thenReturn(category);
-            when(modelMapper.map(Mockito.any(CategoryDTO.class), Mockito.eq(Category.class)))
-                        .thenReturn(category);
-            when(modelMapper.map(Mockito.any(Category.class), Mockito.eq(CategoryDTO.class)))
-                        .thenReturn(categoryDTO);
+            when(categoryRepository.updateNameById(eq(category.getCategoryId()), eq("Updated Category"), eq("updated category"), any(Instant.class)))
+                        .thenReturn(1);
+            when(categoryRepository.findVersionById(category.getCategoryId())).thenReturn(4L);
 
             // Act
             categoryDTO.setCategoryName("Updated Category");
@@ -130,34 +282,238 @@ public class CategoryServiceTest {
             // Assert
             Assertions.assertThat(updatedCategory).isNotNull();
             Assertions.assertThat(updatedCategory.getCategoryName()).isEqualTo("Updated Category");
+            Assertions.assertThat(updatedCategory.getVersion()).isEqualTo(4L);
+            verify(categoryRepository, times(0)).findById(any());
     }
 
     @Test
-    public void categoryService_deleteById_returnVoid() throws CategoryDataAccessException, ApplicationException {
+    public void categoryService_updateById_missingId_shouldReturn404(){
 
-     //Category category = Category.builder().categoryId(1l).categoryName("Test Category").build();
+        when(categoryRepository.updateNameById(eq(3L), eq("Test Category"), eq("test category"), any(Instant.class)))
+                .thenReturn(0);
 
-     when(categoryRepository.findById(category.getCategoryId()))
-             .thenReturn(Optional.of(category));
+        Assertions.assertThatThrownBy(()->categoryService.updateById(3L, categoryDTO))
+                .isInstanceOf(CategoryNotFoundException.class)
+                .extracting("status")
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
 
-     doNothing().when(categoryRepository).deleteById(category.getCategoryId());
+    @Test
+    public void categoryService_updateById_staleVersion_shouldReturn409(){
+
+        categoryDTO.setVersion(4L);
+        when(categoryRepository.updateNameByIdAndVersion(eq(1L), eq("Test Category"), eq("test category"), eq(4L), any(Instant.class)))
+                .thenReturn(0);
+        when(categoryRepository.existsById(1L))
+                .thenReturn(true);
+
+        Assertions.assertThatThrownBy(()->categoryService.updateById(1L, categoryDTO))
+                .isInstanceOf(ApplicationException.class)
+                .extracting("httpStatus")
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    public void categoryService_deleteById_returnVoid() throws CategoryDataAccessException, ApplicationException {
+
+     when(categoryRepository.deleteCategoryById(category.getCategoryId()))
+             .thenReturn(1);
 
      categoryService.deleteById(category.getCategoryId());
-     CategoryDTO foundCategory = categoryService.getById(category.getCategoryId());
 
-     Assertions.assertThat(foundCategory).isNull();
+     verify(categoryRepository).deleteCategoryById(category.getCategoryId());
+     verify(categoryRepository, times(0)).findById(any());
+     verify(eventPublisher).publishEvent(any(CategoryChangedEvent.class));
+     verify(categoryChangeLog).append(CategoryChangedEvent.Type.DELETED, category.getCategoryId(), null);
+
+    }
+
+    @Test
+    public void categoryService_deleteById_missingId_appendsNoChange() {
+
+     when(categoryRepository.deleteCategoryById(3L))
+             .thenReturn(0);
+
+     Assertions.assertThatThrownBy(() -> categoryService.deleteById(3L))
+             .isInstanceOf(CategoryNotFoundException.class);
+     verify(categoryChangeLog, times(0)).append(any(), any(), any());
 
     }
 
+    @Test
+    public void categoryService_getById_secondCallServedFromCache() throws CategoryDataAccessException, ApplicationException {
+
+       when(categoryRepository.findById(category.getCategoryId()))
+               .thenReturn(Optional.of(category));
+
+       categoryService.getById(category.getCategoryId());
+       CategoryDTO cachedCategory = categoryService.getById(category.getCategoryId());
+       categoryService.getByName("  test CATEGORY ");
+
+       Assertions.assertThat(cachedCategory.getCategoryName()).isEqualTo("Test Category");
+       Assertions.assertThat(cachedCategory).isNotSameAs(categoryDTO);
+       verify(categoryRepository, times(1)).findById(category.getCategoryId());
+       verify(categoryRepository, times(0)).findByNormalizedName(any());
+    }
+
+    @Test
+    public void categoryService_getById_servedFromSnapshotOnceLoaded() throws CategoryDataAccessException, ApplicationException {
+
+       when(categorySnapshot.isReady()).thenReturn(true);
+       when(categorySnapshot.getById(category.getCategoryId())).thenReturn(categoryDTO);
+
+       Assertions.assertThat(categoryService.getById(category.getCategoryId()).getCategoryName()).isEqualTo("Test Category");
+       Assertions.assertThatThrownBy(() -> categoryService.getById(99L))
+               .isInstanceOf(CategoryNotFoundException.class);
+       verify(categoryRepository, times(0)).findById(any());
+    }
+
+    @Test
+    public void categoryService_getById_missGoesThroughBatcherWhenEnabled() throws CategoryDataAccessException, ApplicationException {
+
+       when(categoryIdBatcher.isEnabled()).thenReturn(true);
+       when(categoryIdBatcher.load(category.getCategoryId())).thenReturn(categoryDTO);
+
+       Assertions.assertThat(categoryService.getById(category.getCategoryId()).getCategoryName()).isEqualTo("Test Category");
+       Assertions.assertThatThrownBy(() -> categoryService.getById(99L))
+               .isInstanceOf(CategoryNotFoundException.class);
+       verify(categoryRepository, times(0)).findById(any());
+    }
+
+    @Test
+    public void categoryService_getById_loadedCategoryNotSharedWithOtherCallers() throws CategoryDataAccessException, ApplicationException {
+
+       // the batcher hands every caller waiting on one id the same instance
+       when(categoryIdBatcher.isEnabled()).thenReturn(true);
+       when(categoryIdBatcher.load(category.getCategoryId())).thenReturn(categoryDTO);
+
+       CategoryDTO loaded = categoryService.getById(category.getCategoryId());
+       loaded.setCategoryName("Changed By Caller");
+
+       Assertions.assertThat(loaded).isNotSameAs(categoryDTO);
+       Assertions.assertThat(categoryDTO.getCategoryName()).isEqualTo("Test Category");
+       Assertions.assertThat(categoryService.getById(category.getCategoryId()).getCategoryName()).isEqualTo("Test Category");
+    }
+
+    @Test
+    public void categoryService_getById_reloadsAfterChangeEvent() throws CategoryDataAccessException, ApplicationException {
+
+       when(categoryRepository.findById(category.getCategoryId()))
+               .thenReturn(Optional.of(category));
+
+       categoryService.getById(category.getCategoryId());
+       categoryCache.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED,
+               category.getCategoryId(), "Renamed Category"));
+       categoryService.getById(category.getCategoryId());
+
+       verify(categoryRepository, times(2)).findById(category.getCategoryId());
+    }
+
+    @Test
+    public void categoryService_getById_repeatedMissServedFromNegativeCache() {
+
+       when(categoryRepository.findById(99L))
+               .thenReturn(Optional.empty());
+
+       for (int i = 0; i < 3; i++) {
+           Assertions.assertThatThrownBy(()->categoryService.getById(99L))
+                   .isInstanceOf(CategoryNotFoundException.class)
+                   .satisfies(e -> Assertions.assertThat(e.getStackTrace()).isEmpty());
+       }
+
+       verify(categoryRepository, times(1)).findById(99L);
+    }
+
+    @Test
+    public void categoryService_getById_createdEventClearsNegativeCache() throws CategoryDataAccessException, ApplicationException {
+
+       when(categoryRepository.findById(99L))
+               .thenReturn(Optional.empty())
+               .thenReturn(Optional.of(Category.builder().categoryId(99L).categoryName("New Category").build()));
+
+       Assertions.assertThatThrownBy(()->categoryService.getById(99L)).isInstanceOf(CategoryNotFoundException.class);
+       categoryCache.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 99L, "New Category"));
+
+       Assertions.assertThat(categoryService.getById(99L).getCategoryName()).isEqualTo("New Category");
+    }
+
+    @Test
+    public void categoryService_saveAll_returnPerItemResults() throws CategoryDataAccessException, ApplicationException {
+
+        CategoryDTO newCategory = CategoryDTO.builder().categoryName("New Category").build();
+        CategoryDTO blankCategory = CategoryDTO.builder().categoryName(" ").build();
+
+        when(categoryRepository.findByNormalizedNameIn(List.of("test category", "new category", "")))
+                .thenReturn(List.of(category));
+        when(categoryRepository.saveAllAndFlush(anyList()))
+                .thenAnswer(invocation -> {
+                    List<Category> categories = invocation.getArgument(0);
+                    categories.forEach(created -> created.setCategoryId(2L));
+                    return categories;
+                });
+
+        List<CategoryBatchResultDTO> results = categoryService.saveAll(Arrays.asList(categoryDTO, newCategory, blankCategory));
+
+        Assertions.assertThat(results).extracting(CategoryBatchResultDTO::getStatus)
+                .containsExactly(CategoryBatchResultDTO.Status.CONFLICT,
+                        CategoryBatchResultDTO.Status.CREATED,
+                        CategoryBatchResultDTO.Status.INVALID);
+        Assertions.assertThat(results.get(1).getCategoryId()).isEqualTo(2L);
+        verify(eventPublisher, times(1)).publishEvent(any(CategoryChangedEvent.class));
+    }
+
+    @Test
+    public void categoryService_updateAll_missingIdReturnsNotFound() throws CategoryDataAccessException, ApplicationException {
+
+        CategoryDTO renamed = CategoryDTO.builder().categoryId(1L).categoryName("Renamed Category").build();
+        CategoryDTO missing = CategoryDTO.builder().categoryId(9L).categoryName("Missing Category").build();
+
+        when(categoryRepository.findAllById(List.of(1L, 9L)))
+                .thenReturn(List.of(category));
+        when(categoryRepository.findByNormalizedNameIn(List.of("renamed category", "missing category")))
+                .thenReturn(List.of());
+
+        List<CategoryBatchResultDTO> results = categoryService.updateAll(List.of(renamed, missing));
+
+        Assertions.assertThat(results).extracting(CategoryBatchResultDTO::getStatus)
+                .containsExactly(CategoryBatchResultDTO.Status.UPDATED, CategoryBatchResultDTO.Status.NOT_FOUND);
+        Assertions.assertThat(category.getCategoryName()).isEqualTo("Renamed Category");
+        verify(categoryRepository).flush();
+    }
+
+    @Test
+    public void categoryService_deleteAllById_deletesExistingInOneStatement() throws CategoryDataAccessException, ApplicationException {
+
+        when(categoryRepository.findAllById(List.of(1L, 9L, 1L)))
+                .thenReturn(List.of(category));
+
+        List<CategoryBatchResultDTO> results = categoryService.deleteAllById(List.of(1L, 9L, 1L));
+
+        Assertions.assertThat(results).extracting(CategoryBatchResultDTO::getStatus)
+                .containsExactly(CategoryBatchResultDTO.Status.DELETED,
+                        CategoryBatchResultDTO.Status.NOT_FOUND,
+                        CategoryBatchResultDTO.Status.NOT_FOUND);
+        verify(categoryRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    public void categoryService_saveAll_oversizedBatch_shouldReturn400(){
+
+        List<CategoryDTO> batch = Collections.nCopies(CategoryService.MAX_BATCH_SIZE + 1, categoryDTO);
+
+        Assertions.assertThatThrownBy(()->categoryService.saveAll(batch))
+                .isInstanceOf(ApplicationException.class)
+                .extracting("httpStatus")
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     public void categoryService_getByName_returnCategoryDTO() throws CategoryDataAccessException, ApplicationException {
 //        Category category = Category.builder().categoryId(1L).categoryName("Test Category").build();
 //        CategoryDTO categoryDTO = CategoryDTO.builder().categoryId(1L).categoryName("Test Category").build();
 
-        when(categoryRepository.findByCategoryName(category.getCategoryName()))
-                .thenReturn(category);
-        when(modelMapper.map(Mockito.any(Category.class), Mockito.eq(CategoryDTO.class)))
-                .thenReturn(categoryDTO);
+        when(categoryRepository.findByNormalizedName("test category"))
+                .thenReturn(Optional.of(category));
 
         CategoryDTO foundCategory = categoryService.getByName(category.getCategoryName());
 
@@ -166,6 +522,60 @@ public class CategoryServiceTest {
 
     }
 
+    @Test
+    public void categoryService_getByName_sameResultFromDatabaseAndCacheWhateverTheCase() throws CategoryDataAccessException, ApplicationException {
+
+        when(categoryRepository.findByNormalizedName("test category"))
+                .thenReturn(Optional.of(category));
+
+        CategoryDTO loaded = categoryService.getByName("TEST category");
+        CategoryDTO cached = categoryService.getByName(" test CATEGORY");
+
+        Assertions.assertThat(loaded.getCategoryId()).isEqualTo(category.getCategoryId());
+        Assertions.assertThat(cached.getCategoryId()).isEqualTo(category.getCategoryId());
+        verify(categoryRepository, times(1)).findByNormalizedName("test category");
+        Assertions.assertThatThrownBy(() -> categoryService.getByName("TEST CATEGORIES"))
+                .isInstanceOf(CategoryNotFoundException.class);
+        Assertions.assertThatThrownBy(() -> categoryService.getByName("test categories"))
+                .isInstanceOf(CategoryNotFoundException.class);
+        verify(categoryRepository, times(1)).findByNormalizedName("test categories");
+    }
+
+    @Test
+    public void categoryService_searchByPrefix_normalizesPrefix() throws CategoryDataAccessException, ApplicationException {
+
+        when(categoryRepository.findByNormalizedNamePrefix("test", Limit.of(5)))
+                .thenReturn(List.of(category));
+
+        List<CategoryDTO> categories = categoryService.searchByPrefix(" TeSt", 5, false);
+
+        Assertions.assertThat(categories).extracting(CategoryDTO::getCategoryName).containsExactly("Test Category");
+    }
+
+    @Test
+    public void categoryService_searchByPrefix_indexReady_skipsRepository() throws CategoryDataAccessException, ApplicationException {
+
+        when(categoryNameIndex.isReady()).thenReturn(true);
+        when(categoryNameIndex.searchByPrefixFuzzy("tset", 5)).thenReturn(List.of(categoryDTO));
+
+        List<CategoryDTO> categories = categoryService.searchByPrefix("tset", 5, true);
+
+        Assertions.assertThat(categories).containsExactly(categoryDTO);
+        verify(categoryRepository, Mockito.never()).findByNormalizedNamePrefix(anyString(), any(Limit.class));
+    }
+
+    @Test
+    public void categoryService_save_duplicateName_shouldReturn409(){
+
+        when(categoryRepository.saveAndFlush(any(Category.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_category_normalized_name"));
+
+        Assertions.assertThatThrownBy(()->categoryService.save(categoryDTO))
+                .isInstanceOf(ApplicationException.class)
+                .extracting("httpStatus")
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+
     @Test
     public void categoryService_categoryNotFound_shouldReturn404(){
 
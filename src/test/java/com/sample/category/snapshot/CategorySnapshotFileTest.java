@@ -0,0 +1,55 @@
+package com.sample.category.snapshot;
+
+import com.sample.category.dto.CategoryDTO;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class CategorySnapshotFileTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void categorySnapshotFile_writeThenOpen_readsRowsInPlace() throws IOException {
+
+        Path path = directory.resolve("categories.snap");
+        try (CategorySnapshotFile.Writer writer = CategorySnapshotFile.writer(path)) {
+            writer.add(category(3L, "Books", 2L));
+            writer.add(category(8L, "Café Supplies", 0L));
+            writer.add(category(21L, "Toys", 5L));
+            writer.commit(42L);
+        }
+
+        CategorySnapshotFile file = CategorySnapshotFile.open(path);
+
+        Assertions.assertThat(file.size()).isEqualTo(3);
+        Assertions.assertThat(file.changeSeq()).isEqualTo(42L);
+        Assertions.assertThat(file.indexOf(8L)).isEqualTo(1);
+        Assertions.assertThat(file.name(1)).isEqualTo("Café Supplies");
+        Assertions.assertThat(file.version(2)).isEqualTo(5L);
+        Assertions.assertThat(file.indexOf(9L)).isEqualTo(-3);
+        Assertions.assertThat(file.fileBytes()).isEqualTo(32 + 3 * 24 + "BooksCafé SuppliesToys".getBytes("UTF-8").length);
+        try (var parts = Files.list(directory)) {
+            Assertions.assertThat(parts).containsExactly(path);
+        }
+    }
+
+    @Test
+    public void categorySnapshotFile_open_rejectsForeignFile() throws IOException {
+
+        Path path = Files.write(directory.resolve("other.snap"), new byte[64]);
+
+        Assertions.assertThatThrownBy(() -> CategorySnapshotFile.open(path))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("not a category snapshot file");
+    }
+
+    private static CategoryDTO category(Long id, String name, Long version) {
+        return CategoryDTO.builder().categoryId(id).categoryName(name).version(version).build();
+    }
+}
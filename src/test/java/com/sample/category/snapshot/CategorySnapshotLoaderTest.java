@@ -0,0 +1,143 @@
+package com.sample.category.snapshot;
+
+import com.sample.category.changefeed.CategoryChangeLog;
+import com.sample.category.config.CategorySnapshotProperties;
+import com.sample.category.dto.CategoryBatchResultDTO;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.mapper.CategoryMapper;
+import com.sample.category.repository.CategoryRepository;
+import com.sample.category.service.CategoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@SpringBootTest(properties = "category.snapshot.enabled=true")
+public class CategorySnapshotLoaderTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private CategoryChangeLog categoryChangeLog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void categorySnapshotLoader_loadedBeforeReady() {
+
+        Assertions.assertThat(categorySnapshot.isReady()).isTrue();
+        Assertions.assertThat(applicationAvailability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    @Test
+    public void categorySnapshotLoader_committedWrites_appearInSnapshot() throws Exception {
+
+        CategoryDTO saved = categoryService.save(CategoryDTO.builder().categoryName("Snapshot Books").build());
+        List<CategoryBatchResultDTO> batch = categoryService.saveAll(List.of(
+                CategoryDTO.builder().categoryName("Snapshot Batch 1").build(),
+                CategoryDTO.builder().categoryName("Snapshot Batch 2").build()));
+        categoryService.updateById(saved.getCategoryId(), CategoryDTO.builder().categoryName("Snapshot Comics").build());
+
+        CategoryDTO renamed = categorySnapshot.getById(saved.getCategoryId());
+        Assertions.assertThat(renamed.getCategoryName()).isEqualTo("Snapshot Comics");
+        Assertions.assertThat(renamed.getVersion()).isEqualTo(1L);
+        Assertions.assertThat(categorySnapshot.getById(batch.get(1).getCategoryId()).getCategoryName()).isEqualTo("Snapshot Batch 2");
+
+        categoryService.deleteById(saved.getCategoryId());
+
+        Assertions.assertThat(categorySnapshot.getById(saved.getCategoryId())).isNull();
+    }
+
+    @Test
+    public void categorySnapshotLoader_restartWithFile_catchesUpFromChangeFeed() throws Exception {
+
+        CategoryDTO kept = categoryService.save(CategoryDTO.builder().categoryName("Mapped Books").build());
+        CategoryDTO renamed = categoryService.save(CategoryDTO.builder().categoryName("Mapped Toys").build());
+        CategorySnapshotProperties properties = new CategorySnapshotProperties();
+        properties.setFile(directory.resolve("categories.snap"));
+
+        CategorySnapshot first = mappedSnapshot(properties);
+        long written = Files.getLastModifiedTime(properties.getFile()).toMillis();
+
+        // changes while "down": the file does not have them
+        categoryService.updateById(renamed.getCategoryId(), CategoryDTO.builder().categoryName("Mapped Games").build());
+        categoryService.deleteById(kept.getCategoryId());
+        CategoryDTO added = categoryService.save(CategoryDTO.builder().categoryName("Mapped Music").build());
+
+        CategorySnapshot restarted = mappedSnapshot(properties);
+
+        Assertions.assertThat(first.getById(kept.getCategoryId()).getCategoryName()).isEqualTo("Mapped Books");
+        Assertions.assertThat(Files.getLastModifiedTime(properties.getFile()).toMillis()).isEqualTo(written);
+        Assertions.assertThat(restarted.mappedBytes()).isPositive();
+        Assertions.assertThat(restarted.getById(kept.getCategoryId())).isNull();
+        Assertions.assertThat(restarted.getById(renamed.getCategoryId()).getCategoryName()).isEqualTo("Mapped Games");
+        Assertions.assertThat(restarted.getById(renamed.getCategoryId()).getVersion()).isEqualTo(1L);
+        Assertions.assertThat(restarted.getById(added.getCategoryId()).getCategoryName()).isEqualTo("Mapped Music");
+        Assertions.assertThat(restarted.getAll()).extracting(CategoryDTO::getCategoryId)
+                .isSorted()
+                .hasSize((int) categoryRepository.count());
+    }
+
+    @Test
+    public void categorySnapshotLoader_catchUp_appliesWritesFromOtherInstances() throws Exception {
+
+        CategoryDTO kept = categoryService.save(CategoryDTO.builder().categoryName("Remote Books").build());
+        CategoryDTO renamed = categoryService.save(CategoryDTO.builder().categoryName("Remote Toys").build());
+        // not a listener, so it sees this context's writes only through the change feed, like another instance
+        CategorySnapshot other = new CategorySnapshot(new SimpleMeterRegistry());
+        CategorySnapshotLoader loader = loader(other, new CategorySnapshotProperties());
+        loader.load();
+        long loadedAt = other.changeSeq();
+
+        categoryService.updateById(renamed.getCategoryId(), CategoryDTO.builder().categoryName("Remote Games").build());
+        categoryService.deleteById(kept.getCategoryId());
+        CategoryDTO added = categoryService.save(CategoryDTO.builder().categoryName("Remote Music").build());
+
+        Assertions.assertThat(other.getById(kept.getCategoryId())).isNotNull();
+        loader.catchUp();
+
+        Assertions.assertThat(other.changeSeq()).isGreaterThan(loadedAt);
+        Assertions.assertThat(other.getById(kept.getCategoryId())).isNull();
+        Assertions.assertThat(other.getById(renamed.getCategoryId()).getCategoryName()).isEqualTo("Remote Games");
+        Assertions.assertThat(other.getById(renamed.getCategoryId()).getVersion()).isEqualTo(1L);
+        Assertions.assertThat(other.getById(added.getCategoryId()).getCategoryName()).isEqualTo("Remote Music");
+    }
+
+    private CategorySnapshot mappedSnapshot(CategorySnapshotProperties properties) {
+        CategorySnapshot snapshot = new CategorySnapshot(new SimpleMeterRegistry());
+        loader(snapshot, properties).load();
+        Assertions.assertThat(snapshot.isReady()).isTrue();
+        return snapshot;
+    }
+
+    private CategorySnapshotLoader loader(CategorySnapshot snapshot, CategorySnapshotProperties properties) {
+        return new CategorySnapshotLoader(categoryRepository, categoryMapper, categoryChangeLog, snapshot, properties,
+                transactionManager, new SimpleMeterRegistry());
+    }
+}
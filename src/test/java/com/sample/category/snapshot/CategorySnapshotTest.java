@@ -0,0 +1,178 @@
+package com.sample.category.snapshot;
+
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class CategorySnapshotTest {
+
+    private CategorySnapshot categorySnapshot;
+
+    @BeforeEach
+    public void init() {
+        categorySnapshot = new CategorySnapshot(new SimpleMeterRegistry());
+        load(categorySnapshot, category(2L, "Books", 3L), category(5L, "Garden", 0L), category(9L, "Toys", 1L));
+    }
+
+    @Test
+    public void categorySnapshot_getById_returnsCategoryWithVersion() {
+
+        CategoryDTO category = categorySnapshot.getById(5L);
+
+        Assertions.assertThat(categorySnapshot.isReady()).isTrue();
+        Assertions.assertThat(category.getCategoryName()).isEqualTo("Garden");
+        Assertions.assertThat(category.getVersion()).isEqualTo(0L);
+        Assertions.assertThat(categorySnapshot.getById(4L)).isNull();
+        Assertions.assertThat(categorySnapshot.getById(10L)).isNull();
+    }
+
+    @Test
+    public void categorySnapshot_onCategoryChanged_appliesCopyOnWrite() {
+
+        List<CategoryDTO> before = categorySnapshot.getAll();
+
+        categorySnapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 7L, "Music"));
+        categorySnapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 2L, "Comics"));
+        categorySnapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, 9L, null));
+        categorySnapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 9L, "Lost"));
+
+        Assertions.assertThat(categorySnapshot.getAll()).extracting(CategoryDTO::getCategoryId).containsExactly(2L, 5L, 7L);
+        Assertions.assertThat(categorySnapshot.getById(2L).getCategoryName()).isEqualTo("Comics");
+        Assertions.assertThat(categorySnapshot.getById(2L).getVersion()).isEqualTo(4L);
+        Assertions.assertThat(categorySnapshot.getById(7L).getVersion()).isEqualTo(0L);
+        Assertions.assertThat(before).extracting(CategoryDTO::getCategoryName).containsExactly("Books", "Garden", "Toys");
+    }
+
+    @Test
+    public void categorySnapshot_changesDuringLoad_areReadAgain() {
+
+        CategorySnapshot snapshot = new CategorySnapshot(new SimpleMeterRegistry());
+        snapshot.beginLoad();
+        CategorySnapshot.Builder loaded = new CategorySnapshot.Builder(0, 0);
+        loaded.add(category(1L, "Books", 0L));
+        loaded.add(category(2L, "Toys", 0L));
+        snapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 1L, "Comics"));
+        snapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, 2L, null));
+
+        Assertions.assertThat(snapshot.isReady()).isFalse();
+        snapshot.finishLoad(loaded, ids -> {
+            Assertions.assertThat(ids).containsExactlyInAnyOrder(1L, 2L);
+            return List.of(category(1L, "Comics", 1L));
+        });
+
+        Assertions.assertThat(snapshot.isReady()).isTrue();
+        Assertions.assertThat(snapshot.getAll()).extracting(CategoryDTO::getCategoryName).containsExactly("Comics");
+        Assertions.assertThat(snapshot.getById(1L).getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    public void categorySnapshot_mappedFile_servesRowsAndOverlay(@TempDir Path directory) throws IOException {
+
+        Path path = directory.resolve("categories.snap");
+        try (CategorySnapshotFile.Writer writer = CategorySnapshotFile.writer(path)) {
+            writer.add(category(2L, "Books", 3L));
+            writer.add(category(5L, "Garden", 0L));
+            writer.add(category(9L, "Toys", 1L));
+            writer.commit(7L);
+        }
+        CategorySnapshot snapshot = new CategorySnapshot(new SimpleMeterRegistry());
+        snapshot.beginLoad();
+        // the change feed listed 9 after seq 7; it has been deleted since
+        snapshot.finishLoad(CategorySnapshotFile.open(path), 8L, List.of(9L), ids -> List.of());
+
+        snapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 1L, "Art"));
+        snapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 5L, "Garden Tools"));
+        snapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 12L, "Music"));
+
+        Assertions.assertThat(snapshot.getAll()).extracting(CategoryDTO::getCategoryName)
+                .containsExactly("Art", "Books", "Garden Tools", "Music");
+        Assertions.assertThat(snapshot.getById(5L).getVersion()).isEqualTo(1L);
+        Assertions.assertThat(snapshot.getById(2L).getVersion()).isEqualTo(3L);
+        Assertions.assertThat(snapshot.getById(9L)).isNull();
+        Assertions.assertThat(snapshot.size()).isEqualTo(4);
+        Assertions.assertThat(snapshot.mappedBytes()).isEqualTo(Files.size(path));
+    }
+
+    @Test
+    public void categorySnapshot_catchUp_mergesOtherInstancesWrites() {
+
+        // Books renamed elsewhere, Garden deleted, Music created; Toys was renamed here after the rows were read
+        categorySnapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 9L, "Board Games"));
+        categorySnapshot.catchUp(6L, List.of(2L, 5L, 9L, 11L),
+                List.of(category(2L, "Comics", 4L), category(9L, "Toys", 1L), category(11L, "Music", 0L)));
+
+        Assertions.assertThat(categorySnapshot.getAll()).extracting(CategoryDTO::getCategoryName)
+                .containsExactly("Comics", "Board Games", "Music");
+        Assertions.assertThat(categorySnapshot.getById(2L).getVersion()).isEqualTo(4L);
+        Assertions.assertThat(categorySnapshot.changeSeq()).isEqualTo(6L);
+
+        // a page already merged is not applied again
+        categorySnapshot.catchUp(5L, List.of(11L), List.of());
+
+        Assertions.assertThat(categorySnapshot.getById(11L)).isNotNull();
+    }
+
+    @Test
+    public void categorySnapshot_compact_foldsOverlayIntoNewFile(@TempDir Path directory) throws IOException {
+
+        Path path = directory.resolve("categories.snap");
+        try (CategorySnapshotFile.Writer writer = CategorySnapshotFile.writer(path)) {
+            writer.add(category(2L, "Books", 3L));
+            writer.add(category(5L, "Garden", 0L));
+            writer.commit(7L);
+        }
+        CategorySnapshot snapshot = new CategorySnapshot(new SimpleMeterRegistry());
+        snapshot.beginLoad();
+        snapshot.finishLoad(CategorySnapshotFile.open(path), 7L, List.of(), ids -> List.of());
+        snapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 1L, "Art"));
+        snapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, 5L, null));
+        snapshot.catchUp(9L, List.of(2L), List.of(category(2L, "Comics", 4L)));
+
+        Assertions.assertThat(snapshot.overlaySize()).isEqualTo(3);
+        Assertions.assertThat(snapshot.compact(path)).isTrue();
+
+        Assertions.assertThat(snapshot.overlaySize()).isZero();
+        Assertions.assertThat(snapshot.estimatedBytes()).isZero();
+        Assertions.assertThat(snapshot.getAll()).extracting(CategoryDTO::getCategoryName).containsExactly("Art", "Comics");
+        Assertions.assertThat(snapshot.getById(2L).getVersion()).isEqualTo(4L);
+        Assertions.assertThat(snapshot.size()).isEqualTo(2);
+        CategorySnapshotFile rewritten = CategorySnapshotFile.open(path);
+        Assertions.assertThat(rewritten.size()).isEqualTo(2);
+        Assertions.assertThat(rewritten.changeSeq()).isEqualTo(9L);
+    }
+
+    @Test
+    public void categorySnapshot_estimatedBytes_tracksEntries() {
+
+        long before = categorySnapshot.estimatedBytes();
+        categorySnapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 6L, "Music"));
+        long added = categorySnapshot.estimatedBytes() - before;
+        categorySnapshot.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, 6L, null));
+
+        // id, version, one reference and the "Music" string
+        Assertions.assertThat(added).isEqualTo(20 + 24 + 24);
+        Assertions.assertThat(categorySnapshot.estimatedBytes()).isEqualTo(before);
+    }
+
+    private static void load(CategorySnapshot snapshot, CategoryDTO... categories) {
+        snapshot.beginLoad();
+        CategorySnapshot.Builder loaded = new CategorySnapshot.Builder(categories.length, 3L);
+        for (CategoryDTO category : categories) {
+            loaded.add(category);
+        }
+        snapshot.finishLoad(loaded, ids -> List.of());
+    }
+
+    private static CategoryDTO category(Long id, String name, Long version) {
+        return CategoryDTO.builder().categoryId(id).categoryName(name).version(version).build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.sample.category.tree;
+
+import com.sample.category.changefeed.CategoryChangeLog;
+import com.sample.category.dto.CategoryChangeDTO;
+import com.sample.category.dto.CategoryDTO;
+import com.sample.category.dto.CategoryNodeDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.exception.ApplicationException;
+import com.sample.category.model.Category;
+import com.sample.category.repository.CategoryRepository;
+import com.sample.category.service.CategoryService;
+import com.sample.category.service.CategoryTreeService;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+@SpringBootTest(properties = "category.tree.enabled=true")
+public class CategoryTreeLoaderTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryTreeService categoryTreeService;
+
+    @Autowired
+    private CategoryTree categoryTree;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryChangeLog categoryChangeLog;
+
+    @Test
+    public void categoryTree_committedHierarchyChanges_matchTheDatabase() throws Exception {
+
+        CategoryDTO books = categoryService.save(CategoryDTO.builder().categoryName("Tree Books").build());
+        CategoryNodeDTO fiction = categoryTreeService.saveChild(books.getCategoryId(), CategoryDTO.builder().categoryName("Tree Fiction").build());
+        CategoryNodeDTO crime = categoryTreeService.saveChild(fiction.getCategoryId(), CategoryDTO.builder().categoryName("Tree Crime").build());
+        CategoryDTO media = categoryService.save(CategoryDTO.builder().categoryName("Tree Media").build());
+
+        Assertions.assertThat(categoryTree.isReady()).isTrue();
+        Assertions.assertThat(crime.getDepth()).isEqualTo(2);
+        assertSameAsDatabase(books.getCategoryId());
+
+        long crimeVersion = categoryRepository.findById(crime.getCategoryId()).orElseThrow().getVersion();
+        long sinceMove = categoryChangeLog.changesSince(null, 1).getNextSince();
+        CategoryNodeDTO moved = categoryTreeService.move(fiction.getCategoryId(), media.getCategoryId());
+
+        Assertions.assertThat(moved.getDepth()).isEqualTo(1);
+        // the moved category and its descendants are updates to change-feed consumers
+        Assertions.assertThat(categoryChangeLog.changesSince(sinceMove, 10).getChanges())
+                .extracting(CategoryChangeDTO::getType, CategoryChangeDTO::getCategoryId)
+                .containsExactly(Tuple.tuple(CategoryChangedEvent.Type.UPDATED, fiction.getCategoryId()),
+                        Tuple.tuple(CategoryChangedEvent.Type.UPDATED, crime.getCategoryId()));
+        Assertions.assertThat(categoryRepository.findById(crime.getCategoryId()).orElseThrow().getVersion()).isEqualTo(crimeVersion + 1);
+        Assertions.assertThat(categoryTreeService.getAncestors(crime.getCategoryId())).extracting(CategoryNodeDTO::getCategoryId)
+                .containsExactly(media.getCategoryId(), fiction.getCategoryId());
+        Assertions.assertThat(categoryTreeService.getDescendants(books.getCategoryId())).isEmpty();
+        assertSameAsDatabase(media.getCategoryId());
+        Assertions.assertThat(categoryRepository.findById(crime.getCategoryId()).orElseThrow().getPath())
+                .isEqualTo("/" + media.getCategoryId() + "/" + fiction.getCategoryId() + "/");
+
+        Assertions.assertThatThrownBy(() -> categoryTreeService.move(media.getCategoryId(), crime.getCategoryId()))
+                .isInstanceOf(ApplicationException.class)
+                .extracting("httpStatus").isEqualTo(HttpStatus.BAD_REQUEST);
+        Assertions.assertThatThrownBy(() -> categoryService.deleteById(fiction.getCategoryId()))
+                .isInstanceOf(ApplicationException.class)
+                .extracting("httpStatus").isEqualTo(HttpStatus.CONFLICT);
+        Assertions.assertThat(categoryRepository.existsById(fiction.getCategoryId())).isTrue();
+
+        categoryService.deleteById(crime.getCategoryId());
+        categoryService.updateById(fiction.getCategoryId(), CategoryDTO.builder().categoryName("Tree Novels").build());
+
+        Assertions.assertThat(categoryTreeService.getSubtree(media.getCategoryId(), 5)).extracting(CategoryNodeDTO::getCategoryName)
+                .containsExactly("Tree Media", "Tree Novels");
+        assertSameAsDatabase(media.getCategoryId());
+    }
+
+    private void assertSameAsDatabase(Long id) throws Exception {
+        Category root = categoryRepository.findById(id).orElseThrow();
+        List<CategoryNodeDTO> fromDatabase = categoryRepository.findNodesUnder(root.getSubtreePath(), Integer.MAX_VALUE);
+        Assertions.assertThat(categoryTreeService.getDescendants(id))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(fromDatabase);
+    }
+}
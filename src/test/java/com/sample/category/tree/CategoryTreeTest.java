@@ -0,0 +1,95 @@
+package com.sample.category.tree;
+
+import com.sample.category.dto.CategoryNodeDTO;
+import com.sample.category.event.CategoryChangedEvent;
+import com.sample.category.event.CategoryMovedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class CategoryTreeTest {
+
+    private CategoryTree categoryTree;
+
+    @BeforeEach
+    public void init() {
+        // 1 Books > 2 Fiction > 4 Crime, 1 Books > 3 Science, 5 Media
+        categoryTree = new CategoryTree(new SimpleMeterRegistry());
+        categoryTree.beginLoad();
+        categoryTree.finishLoad(List.of(
+                node(1L, "Books", null, 0),
+                node(2L, "Fiction", 1L, 1),
+                node(3L, "Science", 1L, 1),
+                node(4L, "Crime", 2L, 2),
+                node(5L, "Media", null, 0)));
+    }
+
+    @Test
+    public void categoryTree_subtree_isLevelOrderDownToDepth() {
+
+        Assertions.assertThat(categoryTree.isReady()).isTrue();
+        Assertions.assertThat(categoryTree.subtree(1L, 1)).extracting(CategoryNodeDTO::getCategoryId)
+                .containsExactly(1L, 2L, 3L);
+        Assertions.assertThat(categoryTree.subtree(1L, 24)).extracting(CategoryNodeDTO::getDepth)
+                .containsExactly(0, 1, 1, 2);
+        Assertions.assertThat(categoryTree.subtree(4L, 24)).hasSize(1);
+        Assertions.assertThat(categoryTree.subtree(9L, 1)).isNull();
+        Assertions.assertThat(categoryTree.ancestors(4L)).extracting(CategoryNodeDTO::getCategoryName)
+                .containsExactly("Books", "Fiction");
+        Assertions.assertThat(categoryTree.ancestors(1L)).isEmpty();
+    }
+
+    @Test
+    public void categoryTree_move_carriesTheSubtreeAlong() {
+
+        categoryTree.onCategoryMoved(new CategoryMovedEvent(2L, "Fiction", 5L));
+
+        Assertions.assertThat(categoryTree.subtree(1L, 24)).extracting(CategoryNodeDTO::getCategoryId).containsExactly(1L, 3L);
+        Assertions.assertThat(categoryTree.subtree(5L, 24)).extracting(CategoryNodeDTO::getCategoryId).containsExactly(5L, 2L, 4L);
+        Assertions.assertThat(categoryTree.ancestors(4L)).extracting(CategoryNodeDTO::getCategoryId).containsExactly(5L, 2L);
+
+        // under its own descendant: ignored instead of linking a cycle
+        categoryTree.onCategoryMoved(new CategoryMovedEvent(5L, "Media", 4L));
+        Assertions.assertThat(categoryTree.ancestors(5L)).isEmpty();
+
+        categoryTree.onCategoryMoved(new CategoryMovedEvent(2L, "Fiction", null));
+        Assertions.assertThat(categoryTree.subtree(2L, 24)).extracting(CategoryNodeDTO::getDepth).containsExactly(0, 1);
+    }
+
+    @Test
+    public void categoryTree_createdChildRenameAndDelete_areAppliedInPlace() {
+
+        categoryTree.onCategoryMoved(new CategoryMovedEvent(6L, "Poetry", 1L));
+        categoryTree.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 6L, "Poetry"));
+        categoryTree.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, 3L, "Sciences"));
+        categoryTree.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, 4L, null));
+
+        Assertions.assertThat(categoryTree.subtree(1L, 24)).extracting(CategoryNodeDTO::getCategoryName)
+                .containsExactly("Books", "Fiction", "Sciences", "Poetry");
+        Assertions.assertThat(categoryTree.subtree(6L, 0).get(0).getParentId()).isEqualTo(1L);
+        Assertions.assertThat(categoryTree.subtree(4L, 0)).isNull();
+        Assertions.assertThat(categoryTree.size()).isEqualTo(5);
+    }
+
+    @Test
+    public void categoryTree_changesDuringLoad_areReplayed() {
+
+        CategoryTree tree = new CategoryTree(new SimpleMeterRegistry());
+        tree.beginLoad();
+        tree.onCategoryMoved(new CategoryMovedEvent(2L, "Fiction", null));
+        tree.onCategoryChanged(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, 3L, "Media"));
+
+        Assertions.assertThat(tree.isReady()).isFalse();
+        tree.finishLoad(List.of(node(1L, "Books", null, 0), node(2L, "Fiction", 1L, 1)));
+
+        Assertions.assertThat(tree.ancestors(2L)).isEmpty();
+        Assertions.assertThat(tree.subtree(3L, 1)).extracting(CategoryNodeDTO::getCategoryName).containsExactly("Media");
+    }
+
+    private static CategoryNodeDTO node(Long id, String name, Long parentId, int depth) {
+        return CategoryNodeDTO.builder().categoryId(id).categoryName(name).parentId(parentId).depth(depth).build();
+    }
+}
@@ -0,0 +1,127 @@
+package com.sample.category.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class SingleFlightTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>(meterRegistry, "id");
+
+    @Test
+    public void singleFlight_concurrentLoadsOfOneKey_runTheLoaderOnce() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger queries = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.load(1L, id -> {
+                queries.incrementAndGet();
+                await(release);
+                return null;
+            }));
+            waitUntil(() -> queries.get() == 1);
+
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(executor.submit(() -> singleFlight.load(1L, id -> "second query")));
+            }
+            waitUntil(() -> meterRegistry.get("category.lookup.coalesced").counter().count() == 7);
+            release.countDown();
+
+            Assertions.assertThat(leader.get(5, TimeUnit.SECONDS)).isNull();
+            for (Future<String> follower : followers) {
+                Assertions.assertThat(follower.get(5, TimeUnit.SECONDS)).isNull();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertThat(queries.get()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("category.lookup.loads").counter().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("category.lookup.in.flight").gauge().value()).isZero();
+        // finished flights are not remembered
+        Assertions.assertThat(singleFlight.load(1L, id -> "Books")).isEqualTo("Books");
+    }
+
+    @Test
+    public void singleFlight_loaderFailure_isRethrownToEveryCaller() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.load(1L, id -> {
+                started.countDown();
+                await(release);
+                throw new DataAccessResourceFailureException("connection refused");
+            }));
+            started.await();
+            Future<String> follower = executor.submit(() -> singleFlight.load(1L, id -> "second query"));
+            waitUntil(() -> meterRegistry.get("category.lookup.coalesced").counter().count() == 1);
+            release.countDown();
+
+            for (Future<String> call : List.of(leader, follower)) {
+                Assertions.assertThatThrownBy(() -> call.get(5, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(DataAccessResourceFailureException.class);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void singleFlight_forget_startsAFreshLoad() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> singleFlight.load(1L, id -> {
+                started.countDown();
+                await(release);
+                return "Books";
+            }));
+            started.await();
+
+            singleFlight.forget(1L);
+
+            Assertions.assertThat(singleFlight.load(1L, id -> "Comics")).isEqualTo("Comics");
+            release.countDown();
+            Assertions.assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("Books");
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertThat(meterRegistry.get("category.lookup.loads").counter().count()).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertThat(System.nanoTime()).as("timed out waiting").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
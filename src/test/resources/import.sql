@@ -0,0 +1,2 @@
+-- run by Hibernate after create-drop builds the schema; production seeds the row in db/mysql/005-category-change-log.sql
+INSERT INTO category_change_seq (id, last_seq) VALUES (1, 0);